@@ -0,0 +1,133 @@
+package projectb.jmh;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The core operations of each list implementation under JMH, at each capacity and fill level. Each thread gets its
+ * own list, filled to the given fraction of its capacity; the adds and removes are paired so the fill level stays
+ * put, and the reads go to positions and entries chosen up front so the timed code draws no random numbers.
+ * Results go to the Blackhole, so nothing is shared between threads.
+ *
+ * Every benchmark runs in three modes: throughput, average time, and sample time, which reports the latency
+ * percentiles. The full matrix takes hours, so pick what to run with -bm, -p, and a benchmark name pattern.
+ *
+ * Run from the project root, with -prof gc for the bytes allocated per operation:
+ *     mvn -B package
+ *     java -jar jmh/target/benchmarks.jar CappedListBenchmark -prof gc
+ *     java -jar jmh/target/benchmarks.jar 'CappedListBenchmark.contains.*' -bm sample -p capacity=4096 -p fill=0.9
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CappedListBenchmark {
+
+	private static final int TARGETS = 1 << 10; // A power of two, so the cursor wraps with a mask
+
+	@Param({"Array", "List", "Circular", "Concurrent", "Segmented", "OffHeap", "Indexed", "Expiring", "Observable",
+			"Instrumented"})
+	public String implementation;
+
+	@Param({"16", "4096", "1048576"})
+	public int capacity;
+
+	@Param({"0.25", "0.5", "0.9"})
+	public double fill;
+
+	private Object list;
+	private Integer[] entries;
+	private int[] positions;
+	private Integer[] targets;
+	private Integer missing;
+	private int cursor;
+
+
+	@Setup
+	public void setUp() {
+		int size = Math.max(1, (int) (capacity * fill));
+		entries = new Integer[size];
+		for (int index = 0; index < size; index++) {
+			entries[index] = index; // Boxed once up front so the timed code does not allocate
+		}
+		list = CappedLists.create(implementation, capacity);
+		CappedLists.fill(list, entries, size);
+
+		SplittableRandom random = new SplittableRandom(42);
+		positions = new int[TARGETS];
+		targets = new Integer[TARGETS];
+		for (int index = 0; index < TARGETS; index++) {
+			positions[index] = random.nextInt(size);
+			targets[index] = entries[random.nextInt(size)];
+		}
+		missing = -1;
+	}
+
+
+	@Benchmark
+	public void addFrontRemoveBack(Blackhole blackhole) throws Throwable {
+		blackhole.consume((boolean) CappedLists.ADD_FRONT.invokeExact(list, (Object) next()));
+		blackhole.consume((Object) CappedLists.REMOVE_BACK.invokeExact(list));
+	}
+
+
+	@Benchmark
+	public void addBackRemoveFront(Blackhole blackhole) throws Throwable {
+		blackhole.consume((boolean) CappedLists.ADD_BACK.invokeExact(list, (Object) next()));
+		blackhole.consume((Object) CappedLists.REMOVE_FRONT.invokeExact(list));
+	}
+
+
+	@Benchmark
+	public Object getEntry() throws Throwable {
+		int position = positions[cursor++ & (TARGETS - 1)];
+		return (Object) CappedLists.GET_ENTRY.invokeExact(list, position);
+	}
+
+
+	@Benchmark
+	public int indexOfPresent() throws Throwable {
+		return (int) CappedLists.INDEX_OF.invokeExact(list, (Object) next());
+	}
+
+
+	@Benchmark
+	public int indexOfMissing() throws Throwable {
+		return (int) CappedLists.INDEX_OF.invokeExact(list, (Object) missing);
+	}
+
+
+	@Benchmark
+	public boolean containsPresent() throws Throwable {
+		return (boolean) CappedLists.CONTAINS.invokeExact(list, (Object) next());
+	}
+
+
+	@Benchmark
+	public boolean containsMissing() throws Throwable {
+		return (boolean) CappedLists.CONTAINS.invokeExact(list, (Object) missing);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private Integer next() {
+		return targets[cursor++ & (TARGETS - 1)];
+	}
+}
@@ -0,0 +1,129 @@
+package projectb.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reaches the lists from this package. They live in the unnamed package, which JMH does not accept benchmarks in and
+ * which a named package cannot import from, so the lists are created reflectively and called through method
+ * handles on FrontBackCappedListInterface.
+ *
+ * The handles are static final, so the JIT treats them as constants and inlines the interface call at each use;
+ * a benchmark pays the same dispatch as code that names the interface, plus a cast of the result.
+ */
+final class CappedLists {
+
+	private static final Class<?> LIST = load("FrontBackCappedListInterface");
+	private static final Class<?> INT_LIST = load("IntFrontBackCappedList");
+	private static final Class<?> LONG_LIST = load("LongFrontBackCappedList");
+
+	static final MethodHandle ADD_FRONT = method(LIST, "addFront", boolean.class, Object.class);
+	static final MethodHandle ADD_BACK = method(LIST, "addBack", boolean.class, Object.class);
+	static final MethodHandle REMOVE_FRONT = method(LIST, "removeFront", Object.class);
+	static final MethodHandle REMOVE_BACK = method(LIST, "removeBack", Object.class);
+	static final MethodHandle REMOVE_FRONT_COUNT = method(LIST, "removeFront", List.class, int.class);
+	static final MethodHandle GET_ENTRY = method(LIST, "getEntry", Object.class, int.class);
+	static final MethodHandle INDEX_OF = method(LIST, "indexOf", int.class, Object.class);
+	static final MethodHandle CONTAINS = method(LIST, "contains", boolean.class, Object.class);
+
+	// The single-producer list's bulk removal, created by create("Spsc", capacity)
+	static final MethodHandle SPSC_DRAIN = method(load("SpscFrontBackCappedList"), "drain", int.class, Consumer.class);
+
+	// The primitive lists, created by create("Int", capacity) and create("Long", capacity)
+	static final MethodHandle INT_ADD_BACK = method(INT_LIST, "addBack", boolean.class, int.class);
+	static final MethodHandle INT_REMOVE_FRONT = method(INT_LIST, "removeFront", int.class);
+	static final MethodHandle INT_GET_ENTRY = method(INT_LIST, "getEntry", int.class, int.class);
+	static final MethodHandle INT_INDEX_OF = method(INT_LIST, "indexOf", int.class, int.class);
+	static final MethodHandle LONG_ADD_BACK = method(LONG_LIST, "addBack", boolean.class, long.class);
+	static final MethodHandle LONG_REMOVE_FRONT = method(LONG_LIST, "removeFront", long.class);
+	static final MethodHandle LONG_GET_ENTRY = method(LONG_LIST, "getEntry", long.class, int.class);
+	static final MethodHandle LONG_INDEX_OF = method(LONG_LIST, "indexOf", int.class, long.class);
+
+	private CappedLists() {
+	}
+
+
+	/**
+	 * Creates an empty list of Integer entries, or of int or long values for "Int" and "Long". Indexed, Observable,
+	 * and Instrumented wrap a Circular list, the last with its metrics recording; Expiring entries live for an hour,
+	 * so none expire while a benchmark runs.
+	 *
+	 * @param implementation The name of the class without FrontBackCappedList, for example "Circular"
+	 * @param capacity The capacity of the list
+	 * @return The list, as an Object to be passed to the handles.
+	 */
+	static Object create(String implementation, int capacity) {
+		Class<?> type = load(implementation + "FrontBackCappedList");
+		try {
+			if (implementation.equals("OffHeap")) {
+				Class<?> codec = load("FixedWidthCodec");
+				return type.getConstructor(int.class, codec).newInstance(capacity, codec.getField("INTEGER").get(null));
+			}
+			if (implementation.equals("Expiring")) {
+				return type.getConstructor(int.class, long.class, TimeUnit.class).newInstance(capacity, 1L, TimeUnit.HOURS);
+			}
+			if (implementation.equals("Instrumented")) {
+				return type.getConstructor(LIST, boolean.class).newInstance(create("Circular", capacity), true);
+			}
+			if (implementation.equals("Indexed") || implementation.equals("Observable")) {
+				return type.getConstructor(LIST).newInstance(create("Circular", capacity));
+			}
+			return type.getConstructor(int.class).newInstance(capacity);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Cannot create a " + type.getName() + ".", e);
+		}
+	}
+
+
+	/**
+	 * Adds entries to the back of a list.
+	 *
+	 * @param list A list created by create
+	 * @param entries The entries to add, in order
+	 * @param count How many of them to add
+	 */
+	static void fill(Object list, Integer[] entries, int count) {
+		try {
+			for (int index = 0; index < count; index++) {
+				boolean added = (boolean) ADD_BACK.invokeExact(list, (Object) entries[index]);
+				if (!added) {
+					throw new IllegalStateException("The list is full after " + index + " entries.");
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private static Class<?> load(String name) {
+		try {
+			return Class.forName(name);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("The lists are not on the class path.", e);
+		}
+	}
+
+
+	/**
+	 * Looks up a method of a list type, typed to take the list as an Object so callers can invokeExact it.
+	 */
+	private static MethodHandle method(Class<?> type, String name, Class<?> returnType, Class<?>... parameterTypes) {
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().findVirtual(type, name,
+					MethodType.methodType(returnType, parameterTypes));
+			return handle.asType(handle.type().changeParameterType(0, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(type.getName() + " has no method " + name + ".", e);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package projectb.jmh;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The thread-safe lists shared by several threads under JMH. Every thread works on the one list, which starts half
+ * full at a capacity of 1,024 so it rarely fills or empties.
+ *
+ * mixed has each thread call addFront, addBack, removeFront, or removeBack, picked at random up front so the timed
+ * code draws no random numbers. The handoff group pairs a thread that adds to the back with one that removes from
+ * the front, the way a producer and a consumer share a queue; with more threads there are more such pairs.
+ *
+ * @Threads and @GroupThreads give one thread count. main runs both for 1 to 64 threads, which on a machine with
+ * fewer cores shows what oversubscription costs:
+ *     mvn -B package
+ *     java -cp jmh/target/benchmarks.jar projectb.jmh.ContentionBenchmark
+ * or pick a single count with -t:
+ *     java -jar jmh/target/benchmarks.jar ContentionBenchmark.mixed -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+
+	private static final int CAPACITY = 1_024;
+	private static final int OPERATIONS = 1 << 10; // A power of two, so the cursor wraps with a mask
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+	@Param({"Concurrent", "Blocking", "Striped"})
+	public String implementation;
+
+	private Object list;
+	private Integer[] entries;
+
+
+	@Setup
+	public void setUp() {
+		entries = new Integer[CAPACITY];
+		for (int index = 0; index < CAPACITY; index++) {
+			entries[index] = index; // Boxed once up front so the timed code does not allocate
+		}
+		list = CappedLists.create(implementation, CAPACITY);
+		CappedLists.fill(list, entries, CAPACITY / 2);
+	}
+
+
+	/**
+	 * The operations and entries one thread uses, chosen when the thread starts.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private final int[] operations = new int[OPERATIONS];
+		private final int[] targets = new int[OPERATIONS];
+		private int next;
+
+		@Setup
+		public void setUp() {
+			SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+			for (int index = 0; index < OPERATIONS; index++) {
+				operations[index] = random.nextInt(4);
+				targets[index] = random.nextInt(CAPACITY);
+			}
+		}
+	}
+
+
+	@Benchmark
+	@Threads(4)
+	public Object mixed(Cursor cursor) throws Throwable {
+		int index = cursor.next++ & (OPERATIONS - 1);
+		Integer entry = entries[cursor.targets[index]];
+		switch (cursor.operations[index]) {
+		case 0:		return (boolean) CappedLists.ADD_FRONT.invokeExact(list, (Object) entry);
+		case 1:		return (boolean) CappedLists.ADD_BACK.invokeExact(list, (Object) entry);
+		case 2:		return (Object) CappedLists.REMOVE_FRONT.invokeExact(list);
+		default:	return (Object) CappedLists.REMOVE_BACK.invokeExact(list);
+		}
+	}
+
+
+	@Benchmark
+	@Group("handoff")
+	@GroupThreads(1)
+	public boolean handoffAdd(Cursor cursor) throws Throwable {
+		Integer entry = entries[cursor.targets[cursor.next++ & (OPERATIONS - 1)]];
+		return (boolean) CappedLists.ADD_BACK.invokeExact(list, (Object) entry);
+	}
+
+
+	@Benchmark
+	@Group("handoff")
+	@GroupThreads(1)
+	public Object handoffRemove() throws Throwable {
+		return (Object) CappedLists.REMOVE_FRONT.invokeExact(list);
+	}
+
+
+	/**
+	 * Runs mixed and handoff for every thread count from 1 to 64. handoff needs a thread for each side, so it
+	 * starts at 2.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		for (int threads : THREAD_COUNTS) {
+			Options options = new OptionsBuilder()
+					.include(ContentionBenchmark.class.getName() + "\\.mixed$")
+					.threads(threads)
+					.build();
+			new Runner(options).run();
+			if (threads >= 2) {
+				options = new OptionsBuilder()
+						.include(ContentionBenchmark.class.getName() + "\\.handoff")
+						.threads(threads)
+						.build();
+				new Runner(options).run();
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package projectb.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Many threads adding to the back of one shared list, which is what StripedFrontBackCappedList spreads over its
+ * shards, against the Concurrent and Blocking lists. The list holds 65,536 entries; a thread whose add is rejected
+ * because the list is full removes 1,024 entries from the front in one call, the way a consumer would drain it, so
+ * about one call in 1,024 is a drain and the rest are adds.
+ *
+ * @Threads gives one thread count. main runs the benchmark for 1 to 64 threads, which on a machine with fewer cores
+ * shows what oversubscription costs:
+ *     mvn -B package
+ *     java -cp jmh/target/benchmarks.jar projectb.jmh.IngestBenchmark
+ * or pick a single count with -t:
+ *     java -jar jmh/target/benchmarks.jar IngestBenchmark -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestBenchmark {
+
+	private static final int CAPACITY = 65_536;
+	private static final int BATCH = 1_024; // A power of two, so the cursor wraps with a mask
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+	@Param({"Concurrent", "Blocking", "Striped"})
+	public String implementation;
+
+	private Object list;
+	private Integer[] entries;
+
+
+	@Setup
+	public void setUp() {
+		entries = new Integer[BATCH];
+		for (int index = 0; index < BATCH; index++) {
+			entries[index] = index; // Boxed once up front so the timed code does not allocate
+		}
+		list = CappedLists.create(implementation, CAPACITY);
+	}
+
+
+	/**
+	 * Where one thread is in the entries it adds.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+	}
+
+
+	@Benchmark
+	@Threads(4)
+	public Object addBack(Cursor cursor) throws Throwable {
+		boolean added = (boolean) CappedLists.ADD_BACK.invokeExact(list, (Object) entries[cursor.next++ & (BATCH - 1)]);
+		if (added) {
+			return Boolean.TRUE;
+		}
+		return (List<?>) CappedLists.REMOVE_FRONT_COUNT.invokeExact(list, BATCH);
+	}
+
+
+	/**
+	 * Runs the benchmark for every thread count from 1 to 64.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		for (int threads : THREAD_COUNTS) {
+			Options options = new OptionsBuilder()
+					.include(IngestBenchmark.class.getName())
+					.threads(threads)
+					.build();
+			new Runner(options).run();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package projectb.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * indexOf of the primitive lists, which scan in blocks of eight slots (see PrimitiveSearch), against the
+ * one-slot-per-branch loop they used before, over the same ring.
+ *
+ * Each list is half full and its head is three quarters of the way along the ring, so the entries wrap and both
+ * runs of the ring are searched. The baseline ring is a copy of the list's, with the same head and size, and is
+ * scanned run by run the same way; only the loop differs. The searched value is never present, so every search
+ * reads every entry.
+ *
+ * Run from the project root:
+ *     mvn -B package
+ *     java -jar jmh/target/benchmarks.jar PrimitiveSearchBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveSearchBenchmark {
+
+	@Param({"16", "4096", "1048576"})
+	public int capacity;
+
+	private Object ints;
+	private Object longs;
+	private int[] intSlots;
+	private long[] longSlots;
+	private int head;
+	private int size;
+	private int missing;
+
+
+	@Setup
+	public void setUp() throws Throwable {
+		ints = CappedLists.create("Int", capacity);
+		longs = CappedLists.create("Long", capacity);
+		size = capacity / 2;
+		head = capacity - capacity / 4;
+
+		// Half fill, then move the head on by pairing each removeFront with an addBack
+		boolean added = true;
+		for (int index = 0; index < size + head; index++) {
+			if (index >= size) {
+				int intRemoved = (int) CappedLists.INT_REMOVE_FRONT.invokeExact(ints);
+				long longRemoved = (long) CappedLists.LONG_REMOVE_FRONT.invokeExact(longs);
+			}
+			added &= (boolean) CappedLists.INT_ADD_BACK.invokeExact(ints, index);
+			added &= (boolean) CappedLists.LONG_ADD_BACK.invokeExact(longs, (long) index);
+		}
+		if (!added) {
+			throw new IllegalStateException("A primitive list filled up before it was half full.");
+		}
+
+		intSlots = new int[capacity];
+		longSlots = new long[capacity];
+		for (int position = 0; position < size; position++) {
+			intSlots[(head + position) % capacity] = (int) CappedLists.INT_GET_ENTRY.invokeExact(ints, position);
+			longSlots[(head + position) % capacity] = (long) CappedLists.LONG_GET_ENTRY.invokeExact(longs, position);
+		}
+		missing = -1;
+	}
+
+
+	@Benchmark
+	public int intScalar() {
+		int firstRun = Math.min(size, capacity - head);
+		int index = scalarIndexOf(intSlots, head, head + firstRun, missing);
+		if (index >= 0) {
+			return index - head;
+		}
+		index = scalarIndexOf(intSlots, 0, size - firstRun, missing);
+		return (index >= 0) ? index + firstRun : -1;
+	}
+
+
+	@Benchmark
+	public int intBlocked() throws Throwable {
+		return (int) CappedLists.INT_INDEX_OF.invokeExact(ints, missing);
+	}
+
+
+	@Benchmark
+	public int longScalar() {
+		int firstRun = Math.min(size, capacity - head);
+		int index = scalarIndexOf(longSlots, head, head + firstRun, missing);
+		if (index >= 0) {
+			return index - head;
+		}
+		index = scalarIndexOf(longSlots, 0, size - firstRun, missing);
+		return (index >= 0) ? index + firstRun : -1;
+	}
+
+
+	@Benchmark
+	public int longBlocked() throws Throwable {
+		return (int) CappedLists.LONG_INDEX_OF.invokeExact(longs, (long) missing);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * The one-slot-per-branch search the primitive lists used before PrimitiveSearch, as the baseline.
+	 */
+	private static int scalarIndexOf(int[] slots, int from, int to, int key) {
+		for (int index = from; index < to; index++) {
+			if (slots[index] == key) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+
+	private static int scalarIndexOf(long[] slots, int from, int to, long key) {
+		for (int index = from; index < to; index++) {
+			if (slots[index] == key) {
+				return index;
+			}
+		}
+		return -1;
+	}
+}
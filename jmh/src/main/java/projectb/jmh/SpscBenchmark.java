@@ -0,0 +1,117 @@
+package projectb.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One producer handing entries to one consumer through a list, which is what SpscFrontBackCappedList is built for,
+ * against the Concurrent and Blocking lists. Each pair of threads has a list of its own, with room for 1,024
+ * entries; the producer calls addBack and the consumer calls removeFront, or drain for "Spsc+drain". Neither waits:
+ * an add to a full list or a remove from an empty one just returns, so the added and removed counters, which count
+ * only the entries that moved, are the throughput to read, not the calls.
+ *
+ * How fast entries move depends on where the two threads run: on two cores that share a cache the cache lines the
+ * producer writes reach the consumer quickly, on cores in different sockets they travel much further, and on one
+ * core the threads take turns. JMH cannot pin a thread to a core, so pin the whole JVM, for one pair, to two chosen
+ * cores with the operating system and run the benchmark once per placement, for example on Linux:
+ *     mvn -B package
+ *     taskset -c 2,3 java -jar jmh/target/benchmarks.jar SpscBenchmark
+ *     taskset -c 2,18 java -jar jmh/target/benchmarks.jar SpscBenchmark
+ * Use lscpu -e to find which cores share a cache or a socket. With -tg 1,1 -t 4 there are two pairs, each with its
+ * own list; pin them to four cores the same way.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpscBenchmark {
+
+	private static final int CAPACITY = 1_024;
+
+
+	/**
+	 * The list one producer and one consumer share.
+	 */
+	@State(Scope.Group)
+	public static class Pipe {
+		@Param({"Spsc", "Spsc+drain", "Concurrent", "Blocking"})
+		public String implementation;
+
+		private Object list;
+		private boolean drain;
+		private Integer[] entries;
+
+		@Setup
+		public void setUp() {
+			drain = implementation.endsWith("+drain");
+			list = CappedLists.create(implementation.replace("+drain", ""), CAPACITY);
+			entries = new Integer[CAPACITY];
+			for (int index = 0; index < CAPACITY; index++) {
+				entries[index] = index; // Boxed once up front so the timed code does not allocate
+			}
+		}
+	}
+
+
+	/**
+	 * The entries one thread actually moved, reported by JMH as a rate next to the rate of calls.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Moved implements Consumer<Object> {
+		public long added;
+		public long removed;
+		private int next;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			added = 0;
+			removed = 0;
+		}
+
+		@Override
+		public void accept(Object entry) {
+			removed++;
+		}
+	}
+
+
+	@Benchmark
+	@Group("transfer")
+	@GroupThreads(1)
+	public void produce(Pipe pipe, Moved moved) throws Throwable {
+		Integer entry = pipe.entries[moved.next++ & (CAPACITY - 1)];
+		if ((boolean) CappedLists.ADD_BACK.invokeExact(pipe.list, (Object) entry)) {
+			moved.added++;
+		}
+	}
+
+
+	@Benchmark
+	@Group("transfer")
+	@GroupThreads(1)
+	public void consume(Pipe pipe, Moved moved) throws Throwable {
+		if (pipe.drain) {
+			int drained = (int) CappedLists.SPSC_DRAIN.invokeExact(pipe.list, (Consumer<?>) moved);
+		} else if ((Object) CappedLists.REMOVE_FRONT.invokeExact(pipe.list) != null) {
+			moved.removed++;
+		}
+	}
+}
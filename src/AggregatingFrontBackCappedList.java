@@ -0,0 +1,573 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AggregatingFrontBackCappedList<T extends Number> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that keeps the sum, mean, minimum, and maximum of the entries of another FrontBackCappedListInterface up
+ * to date as entries are added and removed, so a sliding window can be queried in constant time instead of being
+ * scanned after every change.
+ *
+ * The sum is updated by adding or subtracting each entry. Entries of the integral types (Byte, Short, Integer,
+ * Long, AtomicInteger, AtomicLong) are summed exactly in a long; any other Number is summed as a double with
+ * Neumaier compensation, and that part of the sum restarts from zero whenever the list empties, so rounding error
+ * cannot build up forever.
+ *
+ * A monotonic deque only gives the minimum of a window whose entries leave from the end opposite the one they
+ * were added at, so the extremes are kept in two stacks instead: one for the front half of the list, with its top
+ * at the front, and one for the back half, with its top at the back. Each stack slot records the minimum and
+ * maximum of its own entry and everything below it, so the extremes of the list are read off the two tops. When
+ * one end is removed from and its stack is empty, the other stack is split in half between them, so every add and
+ * remove at either end costs amortized constant time.
+ *
+ * The stacks follow entries by the end they enter and leave at, so the wrapped list must be one whose
+ * changesOnlyAtEnds is true; a TopKFrontBackCappedList or ExpiringFrontBackCappedList is refused. These aggregates
+ * register as the wrapped list's eviction listener, so an entry the list drops on its own, such as the one an
+ * evicting CircularFrontBackCappedList evicts to make room, leaves the aggregates like a remove. A listener set on
+ * this object is told about those entries in turn.
+ *
+ * Null entries cannot be aggregated and are rejected. All changes must go through this object; changing the
+ * wrapped list directly, or replacing its eviction listener, leaves the aggregates out of date.
+ */
+
+    private final FrontBackCappedListInterface<T> list;
+    private final ExtremaStack front;
+    private final ExtremaStack back;
+    private long integralSum;
+    private double fractionalSum;
+    private double compensation;
+    private EvictionListener<? super T> evictionListener;
+    private boolean initialized = false;
+
+    /**
+     * Creates aggregates over the given list, including any entries it already holds.
+     *
+     * @param list The list to aggregate, which must only change at its ends
+     */
+    public AggregatingFrontBackCappedList(FrontBackCappedListInterface<T> list) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must not be null.");
+        }
+        if (!(list.changesOnlyAtEnds())) {
+            throw new IllegalArgumentException("List must only change at its ends to be aggregated.");
+        }
+
+        this.list = list;
+        front = new ExtremaStack();
+        back = new ExtremaStack();
+        list.forEach(entry -> {
+            checkEntry(entry);
+            back.push(entry.doubleValue());
+            addToSum(entry);
+        });
+        list.setEvictionListener(this::evicted);
+        initialized = true;
+    }
+
+
+    /**
+     * Creates and initializes an empty list backed by a circular array.
+     *
+     * @param capacity The capacity of the list
+     */
+    public AggregatingFrontBackCappedList(int capacity) {
+        this(new CircularFrontBackCappedList<>(capacity));
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full, and includes it in the aggregates. If the
+     * wrapped list evicts an entry to make room, the eviction listener has already dropped it from the aggregates.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        checkEntry(newEntry);
+        boolean result = list.addFront(newEntry);
+
+        if (result) {
+            front.push(newEntry.doubleValue());
+            addToSum(newEntry);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full, and includes it in the aggregates. If the wrapped
+     * list evicts an entry to make room, the eviction listener has already dropped it from the aggregates.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        checkEntry(newEntry);
+        boolean result = list.addBack(newEntry);
+
+        if (result) {
+            back.push(newEntry.doubleValue());
+            addToSum(newEntry);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty, and drops it from the aggregates.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = list.removeFront();
+            removedEntry(result, true);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty, and drops it from the aggregates.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = list.removeBack();
+            removedEntry(result, false);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list and resets the aggregates.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        list.clear();
+        front.clear();
+        back.clear();
+        integralSum = 0;
+        fractionalSum = 0;
+        compensation = 0;
+    }
+
+
+    /**
+     * Retrieves the sum of the entries.
+     *
+     * @return The sum of the entries, or 0 if the list is empty.
+     */
+    public double getSum() {
+        checkInitialization();
+        return integralSum + (fractionalSum + compensation);
+    }
+
+
+    /**
+     * Retrieves the exact sum of the entries of the integral types, leaving out any other entries.
+     *
+     * @return The sum of the Byte, Short, Integer, Long, AtomicInteger, and AtomicLong entries.
+     */
+    public long getIntegralSum() {
+        checkInitialization();
+        return integralSum;
+    }
+
+
+    /**
+     * Retrieves the mean of the entries.
+     *
+     * @return The sum divided by the number of entries, or NaN if the list is empty.
+     */
+    public double getMean() {
+        checkInitialization();
+        return isEmpty() ? Double.NaN : getSum() / size();
+    }
+
+
+    /**
+     * Retrieves the smallest entry.
+     *
+     * @return The smallest entry as a double, or NaN if the list is empty.
+     */
+    public double getMin() {
+        checkInitialization();
+        if (isEmpty()) {
+            return Double.NaN;
+        }
+        return Math.min(front.min(), back.min());
+    }
+
+
+    /**
+     * Retrieves the largest entry.
+     *
+     * @return The largest entry as a double, or NaN if the list is empty.
+     */
+    public double getMax() {
+        checkInitialization();
+        if (isEmpty()) {
+            return Double.NaN;
+        }
+        return Math.max(front.max(), back.max());
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the wrapped list.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        return list.getEntry(givenPosition);
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        return list.indexOf(anEntry);
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        return list.lastIndexOf(anEntry);
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        checkInitialization();
+        return list.contains(anEntry);
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return list.isFull();
+    }
+
+
+    /**
+     * Registers the listener told about each entry the wrapped list drops on its own, after it has left the
+     * aggregates.
+     *
+     * @param listener The listener to report dropped entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        evictionListener = listener;
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the wrapped list. The snapshot keeps no aggregates of its own.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        return list.snapshot();
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the wrapped list.
+     */
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("AggregatingFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Checks that an entry can be aggregated.
+     *
+     * @param anEntry The entry to check
+     * @throws IllegalArgumentException if the entry is null.
+     */
+    private static void checkEntry(Number anEntry) {
+        if (anEntry == null) {
+            throw new IllegalArgumentException("Entry must not be null.");
+        }
+    }
+
+
+    /**
+     * Drops an entry the wrapped list dropped on its own from the aggregates. The list only changes at its ends,
+     * so the entry was at the front if its position was 0 and at the back otherwise.
+     *
+     * @param entry The entry that was dropped
+     * @param position The position it had
+     */
+    private void evicted(T entry, int position) {
+        removedEntry(entry, position == 0);
+
+        if (evictionListener != null) {
+            evictionListener.evicted(entry, position);
+        }
+    }
+
+
+    /**
+     * Drops an entry that has just left the wrapped list from the aggregates.
+     *
+     * @param removed The entry removed
+     * @param fromFront Whether it left from the front or the back
+     */
+    private void removedEntry(T removed, boolean fromFront) {
+        if (fromFront) {
+            if (front.isEmpty()) {
+                split(back, front);
+            }
+            front.pop();
+        } else {
+            if (back.isEmpty()) {
+                split(front, back);
+            }
+            back.pop();
+        }
+
+        subtractFromSum(removed);
+        if (list.isEmpty()) { // Start the inexact part of the sum afresh
+            fractionalSum = 0;
+            compensation = 0;
+        }
+    }
+
+
+    /**
+     * Moves the half of a stack's entries that lies nearest the middle of the list into an empty stack, so the
+     * empty end can be removed from again. The entries keep their list order.
+     *
+     * @param full The stack holding every entry
+     * @param empty The empty stack for the other end
+     */
+    private static void split(ExtremaStack full, ExtremaStack empty) {
+        // From the top of full down to its bottom, which is the middle of the list, the entries run towards the
+        // other end; the bottom half becomes the empty stack, bottom first, so its new top is the far end
+        double[] entries = full.drain();
+        int moved = (entries.length + 1) / 2;
+        for (int index = moved - 1; index >= 0; index--) {
+            empty.push(entries[index]);
+        }
+        for (int index = moved; index < entries.length; index++) {
+            full.push(entries[index]);
+        }
+    }
+
+
+    /**
+     * Adds an entry to the sum, exactly if it is of an integral type.
+     *
+     * @param anEntry The entry to add
+     */
+    private void addToSum(Number anEntry) {
+        if (isIntegral(anEntry)) {
+            integralSum += anEntry.longValue();
+        } else {
+            addFractional(anEntry.doubleValue());
+        }
+    }
+
+
+    /**
+     * Subtracts an entry from the sum, exactly if it is of an integral type.
+     *
+     * @param anEntry The entry to subtract
+     */
+    private void subtractFromSum(Number anEntry) {
+        if (isIntegral(anEntry)) {
+            integralSum -= anEntry.longValue();
+        } else {
+            addFractional(-anEntry.doubleValue());
+        }
+    }
+
+
+    /**
+     * Adds a value to the inexact part of the sum with Neumaier compensation, keeping the low-order bits that
+     * a plain addition would round away.
+     *
+     * @param value The value to add
+     */
+    private void addFractional(double value) {
+        double total = fractionalSum + value;
+        if (Math.abs(fractionalSum) >= Math.abs(value)) {
+            compensation += (fractionalSum - total) + value;
+        } else {
+            compensation += (value - total) + fractionalSum;
+        }
+        fractionalSum = total;
+    }
+
+
+    /**
+     * Determines whether an entry is of a type whose value is a whole number that fits in a long.
+     *
+     * @param anEntry The entry to test
+     * @return True if the entry can be summed exactly in a long.
+     */
+    private static boolean isIntegral(Number anEntry) {
+        return anEntry instanceof Integer || anEntry instanceof Long || anEntry instanceof Short
+                || anEntry instanceof Byte || anEntry instanceof AtomicInteger || anEntry instanceof AtomicLong;
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * A stack of doubles in which every slot also records the minimum and maximum of its value and every value
+     * below it, so the extremes of the whole stack are read from the top. It starts with room for sixteen values
+     * and doubles when it runs out.
+     */
+    private static final class ExtremaStack {
+        private double[] values = new double[16];
+        private double[] mins = new double[16];
+        private double[] maxs = new double[16];
+        private int count;
+
+        private void push(double value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                mins = Arrays.copyOf(mins, count * 2);
+                maxs = Arrays.copyOf(maxs, count * 2);
+            }
+            mins[count] = (count == 0) ? value : Math.min(value, mins[count - 1]);
+            maxs[count] = (count == 0) ? value : Math.max(value, maxs[count - 1]);
+            values[count] = value;
+            count++;
+        }
+
+        private void pop() {
+            count--;
+        }
+
+        private double min() {
+            return (count == 0) ? Double.POSITIVE_INFINITY : mins[count - 1];
+        }
+
+        private double max() {
+            return (count == 0) ? Double.NEGATIVE_INFINITY : maxs[count - 1];
+        }
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private void clear() {
+            count = 0;
+        }
+
+        /**
+         * Empties the stack, returning its values from the bottom up.
+         */
+        private double[] drain() {
+            double[] result = Arrays.copyOf(values, count);
+            count = 0;
+            return result;
+        }
+    }
+
+}
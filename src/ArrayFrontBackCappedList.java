@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Consumer;
 
 public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
 
@@ -6,12 +7,23 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
  * A class that implements the ADT list with front or back entry or removal and capped to a given capacity,
  * using array.
  *
+ * clear() does not walk the array: it drops the chunks that held entries (see CopyOnWriteChunks.discard), which
+ * costs a pointer per 4096 slots, and each chunk is created again by the first add that reaches it. The old
+ * entries become collectable at once, even if the list is never used again. Removes null the slot they give up.
+ *
+ * The array is held in fixed-size chunks (see CopyOnWriteChunks) so snapshot() can share them: taking a snapshot
+ * costs a pointer per chunk, and afterwards the list copies each chunk before its first change to it, so the
+ * snapshot never sees later changes and an add or remove at the back after a snapshot copies one chunk rather than
+ * the whole array. snapshot() must be called on the thread that changes the list, or under the lock that guards
+ * its changes.
+ *
  * Trang Hoang (sect. 933)
  * Jared Roussel (sect. 933)
  * Brent Gannetta (sect. 932)
  */
 
-    private T[] list;
+    private CopyOnWriteChunks<T> slots;
+    private int capacity; // Never more than slots.length(); setCapacity can leave the array longer
     private int numberOfElements;
     private boolean initialized = false;
 
@@ -26,10 +38,8 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
             throw new IllegalArgumentException("Capacity must be greater than zero.");
         }
 
-        // The cast is safe because the new array contains null entries
-        @SuppressWarnings("unchecked")
-        T[] tempList = (T[]) new Object[capacity];  // Unchecked
-        list = tempList;
+        slots = new CopyOnWriteChunks<>(capacity);
+        this.capacity = capacity;
         numberOfElements = 0;
         initialized = true;
     }
@@ -51,7 +61,7 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
             result = false;
         } else { // Assertion: result is true
             makeRoom();
-            list[0] = newEntry;
+            slots.set(0, newEntry);
             numberOfElements++;
         }
 
@@ -74,7 +84,7 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
         if (isFull()) {
             result = false;
         } else { // Assertion: result is true
-            list[numberOfElements] = newEntry;
+            slots.set(numberOfElements, newEntry);
             numberOfElements++;
         }
 
@@ -94,10 +104,11 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
         T result = null;
 
         if (!(isEmpty())) {
-            result = list[0]; // Get entry to be removed in front of list
+            result = slots.get(0); // Get entry to be removed in front of list
 
             // Move subsequent elements forwards
             removeGap();
+            slots.set(numberOfElements - 1, null); // Release the copy left behind by the shift
             numberOfElements--;
         }
 
@@ -117,7 +128,8 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
         T result = null;
 
         if (!(isEmpty())) {
-            result = list[numberOfElements - 1]; // Get entry to be removed from back of list
+            result = slots.get(numberOfElements - 1); // Get entry to be removed from back of list
+            slots.set(numberOfElements - 1, null);    // Release reference so the entry can be garbage collected
             numberOfElements--;
         }
 
@@ -126,7 +138,8 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
 
 
     /**
-     * Removes all entries from the list if the list is not empty.
+     * Removes all entries from the list without walking the array: the chunks that held entries are dropped, in time
+     * proportional to the number of chunks, and a snapshot that shares one keeps it.
      *
      * Postcondition: List is empty with list size as 0.
      */
@@ -134,9 +147,8 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
     public void clear() {
         checkInitialization();
 
-        while (!(isEmpty())) {
-            removeBack();
-        }
+        slots.discard(numberOfElements);
+        numberOfElements = 0;
     }
 
 
@@ -152,7 +164,7 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
         T result = null;
 
         if (validPosition(givenPosition)) { // Assertion: list is not empty
-            result = list[givenPosition];
+            result = slots.get(givenPosition);
         }
 
         return result;
@@ -169,21 +181,9 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
     @Override
     public int indexOf(T anEntry) {
         checkInitialization();
-        int position = -1;
 
-        if (!(isEmpty())) {
-            int index = 0;
-
-            // Searching from front of list
-            do {
-                if (anEntry.equals(list[index])) {
-                    position = index;
-                }
-                index++;
-            } while ((position < 0) && (index < numberOfElements));
-        }
-
-        return position;
+        // Searching from front of list, a chunk at a time
+        return slots.indexOf(anEntry, 0, numberOfElements);
     }
 
 
@@ -197,21 +197,9 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
     @Override
     public int lastIndexOf(T anEntry) {
         checkInitialization();
-        int position = -1;
 
-        if (!(isEmpty())) {
-            int index = numberOfElements - 1;
-
-            // Searching from back of list
-            do {
-                if (anEntry.equals(list[index])) {
-                    position = index;
-                }
-                index--;
-            } while ((position < 0) && (index >= 0));
-        }
-
-        return position;
+        // Searching from back of list, a chunk at a time
+        return slots.lastIndexOf(anEntry, 0, numberOfElements);
     }
 
 
@@ -224,20 +212,8 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
     @Override
     public boolean contains(T anEntry) {
         checkInitialization();
-        boolean inList = false;
-        int index = 0;
-
-        if (!(isEmpty())) {
-            // Searching from front of list
-            while (!(inList) && (index < numberOfElements)) {
-                if (anEntry.equals(list[index])) {
-                    inList = true;
-                }
-                index++;
-            }
-        }
 
-        return inList;
+        return slots.indexOf(anEntry, 0, numberOfElements) >= 0;
     }
 
 
@@ -270,7 +246,193 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
      */
     @Override
     public boolean isFull() {
-        return (numberOfElements >= list.length);
+        return (numberOfElements >= capacity);
+    }
+
+
+    /**
+     * Adds the entries of an array to the beginning of the list until it is full. Existing entries are shifted down
+     * once, by the number of entries that fit, with a single block copy.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllFront(T[] newEntries) {
+        checkInitialization();
+        int added = Math.min(newEntries.length, capacity - numberOfElements);
+
+        if (added > 0) {
+            slots.move(0, added, numberOfElements);
+
+            // Each entry goes in front of the one before it, so the array is placed in reverse order
+            for (int index = 0; index < added; index++) {
+                slots.set(added - 1 - index, newEntries[index]);
+            }
+            numberOfElements += added;
+        }
+
+        return added;
+    }
+
+
+    /**
+     * Adds the entries of an array to the end of the list until it is full, with a single block copy.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllBack(T[] newEntries) {
+        checkInitialization();
+        int added = Math.min(newEntries.length, capacity - numberOfElements);
+
+        if (added > 0) {
+            slots.copyIn(newEntries, 0, numberOfElements, added);
+            numberOfElements += added;
+        }
+
+        return added;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list. The remaining entries are shifted
+     * forwards once, with a single block copy.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        int removed = Math.max(0, Math.min(count, numberOfElements));
+        Object[] entries = new Object[removed];
+        slots.copyOut(0, entries, 0, removed);
+
+        if (removed > 0) {
+            slots.move(removed, 0, numberOfElements - removed);
+            slots.fill(numberOfElements - removed, numberOfElements);
+            numberOfElements -= removed;
+        }
+
+        // The cast is safe because the array holds only entries of the list
+        @SuppressWarnings("unchecked")
+        List<T> result = new ArrayList<>((List<T>) Arrays.asList(entries));  // Unchecked
+        return result;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the end of the list.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeBack would have returned them.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        checkInitialization();
+        int removed = Math.max(0, Math.min(count, numberOfElements));
+        List<T> result = new ArrayList<>(removed);
+
+        for (int index = numberOfElements - 1; index >= numberOfElements - removed; index--) {
+            result.add(slots.get(index));
+        }
+        slots.fill(numberOfElements - removed, numberOfElements);
+        numberOfElements -= removed;
+
+        return result;
+    }
+
+
+    /**
+     * Retrieves the number of entries the list can hold.
+     *
+     * @return The capacity of the list.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Changes the number of entries the list can hold. If the list holds more entries than the new capacity, the
+     * extra entries are removed from the end the trim policy names and returned in one list.
+     *
+     * The backing array is only replaced when it is too small, and then it grows by half again, so raising the
+     * capacity a step at a time costs amortized constant time per added slot. It is also replaced, to release
+     * memory, when the new capacity is under a quarter of its length.
+     *
+     * @param newCapacity The new capacity of the list
+     * @param trimPolicy Which end to remove entries from if the list is over the new capacity
+     * @return The removed entries, in the order removeFront(int) or removeBack(int) returns them.
+     */
+    public List<T> setCapacity(int newCapacity, TrimPolicy trimPolicy) {
+        checkInitialization();
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (trimPolicy == null) {
+            throw new IllegalArgumentException("Trim policy must not be null.");
+        }
+
+        int excess = Math.max(0, numberOfElements - newCapacity);
+        List<T> removed = (trimPolicy == TrimPolicy.DROP_FRONT) ? removeFront(excess) : removeBack(excess);
+
+        int length = slots.length();
+        if (newCapacity > length) {
+            long grown = length + (length >> 1);
+            relocate((int) Math.max(newCapacity, Math.min(grown, Integer.MAX_VALUE - 8)));
+        } else if (newCapacity < length / 4) {
+            relocate(newCapacity);
+        }
+        capacity = newCapacity;
+
+        return removed;
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the list in time proportional to the number of chunks. The snapshot shares
+     * the chunks, and the list copies each one before its next change to it. Must be called on the thread that
+     * changes the list, or under the lock that guards its changes; the snapshot itself may be read from any thread.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        return slots.share(0, numberOfElements, capacity);
+    }
+
+
+    /**
+     * Performs an action on each entry of the list, from front to back, reading the chunks directly.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+
+        for (int index = 0; index < numberOfElements; index++) {
+            action.accept(slots.get(index));
+        }
+    }
+
+
+    /**
+     * Creates a spliterator over the chunks that splits evenly in half, for sequential or parallel streams. The
+     * list must not be changed while the spliterator is in use.
+     *
+     * @return An ordered, sized spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        checkInitialization();
+
+        return new CappedListSpliterator<>(slots::get, 0, numberOfElements);
     }
 
 
@@ -281,8 +443,10 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
      */
     @Override
     public String toString() {
-        return  "size=" + numberOfElements + "; capacity=" + list.length + ";\t" +
-                Arrays.toString(toArray());
+        StringJoiner entries = new StringJoiner(", ", "[", "]");
+        forEach(entry -> entries.add(String.valueOf(entry)));
+
+        return  "size=" + numberOfElements + "; capacity=" + capacity + ";\t" + entries;
     }
 
     /*
@@ -310,14 +474,9 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
      */
     private void makeRoom() {
 
-        int firstIndex = 0;
-        int lastIndex = numberOfElements;
-
         // Move each entry to next higher index, starting at end of
         // list and continuing until the entry at the beginning of list is moved
-        for (int index = lastIndex - 1; index >= firstIndex; index--) {
-            list[index + 1] = list[index];
-        }
+        slots.move(0, 1, numberOfElements);
     }
 
 
@@ -328,42 +487,30 @@ public class ArrayFrontBackCappedList<T> implements FrontBackCappedListInterface
 
     private void removeGap() {
 
-        int removedIndex = 0;
-        int lastIndex = numberOfElements;
-
-        for (int index = removedIndex; index < (lastIndex - 1); index++) {
-            list[index] = list[index + 1];
-        }
+        slots.move(1, 0, numberOfElements - 1);
     }
 
 
     /**
-     * Determines if given position is a valid position within the bounds of the list.
+     * Moves the entries into a new array of the given length. The new array shares no chunk with a snapshot.
      *
-     * @param position The position in the list
-     * @return True if the position is valid; otherwise, returns false.
+     * @param length The length of the new array; at least numberOfElements
      */
-    private boolean validPosition(int position) {
-        return position >= 0 && position < numberOfElements;
+    private void relocate(int length) {
+        CopyOnWriteChunks<T> tempSlots = new CopyOnWriteChunks<>(length);
+        slots.copyTo(0, tempSlots, 0, numberOfElements);
+        slots = tempSlots;
     }
 
 
     /**
-     * Casts the list to an array containing the entries in the list.
+     * Determines if given position is a valid position within the bounds of the list.
      *
-     * @return An array containing all the elements in the list.
+     * @param position The position in the list
+     * @return True if the position is valid; otherwise, returns false.
      */
-    private T[] toArray() {
-        checkInitialization();
-
-        // The cast is safe because the new array contains null entries
-        @SuppressWarnings("unchecked")
-        T[] result = (T[]) new Object[numberOfElements]; // Unchecked cast
-        for (int index = 0; index < numberOfElements; index++) {
-            result[index] = list[index];
-        }
-
-        return result;
+    private boolean validPosition(int position) {
+        return position >= 0 && position < numberOfElements;
     }
 
 }
@@ -0,0 +1,665 @@
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class BlockingFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A thread-safe class that wraps another FrontBackCappedListInterface and adds blocking operations, so it can be
+ * used as a bounded deque between producers and consumers. The put methods wait while the list is full and the
+ * take methods wait while it is empty; the timed offer and poll methods give up after a timeout.
+ *
+ * Every operation runs while holding one ReentrantLock. Waiting threads park on the notEmpty and notFull
+ * conditions of that lock instead of polling, and are woken only when an entry is added or removed. The lock is a
+ * java.util.concurrent lock rather than a synchronized block, so a virtual thread that waits here releases its
+ * carrier thread.
+ *
+ * All access must go through this object; changing the wrapped list directly bypasses the lock and never wakes
+ * the threads that are waiting.
+ */
+
+    private final FrontBackCappedListInterface<T> list;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private boolean initialized = false;
+
+    /**
+     * Creates a blocking list around the given list, keeping any entries it already holds.
+     *
+     * @param list The list to wrap
+     */
+    public BlockingFrontBackCappedList(FrontBackCappedListInterface<T> list) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must not be null.");
+        }
+
+        this.list = list;
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+        initialized = true;
+    }
+
+
+    /**
+     * Creates and initializes an empty blocking list backed by a circular array.
+     *
+     * @param capacity The capacity of the list
+     */
+    public BlockingFrontBackCappedList(int capacity) {
+        this(new CircularFrontBackCappedList<>(capacity));
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        lock.lock();
+        try {
+            boolean result = list.addFront(newEntry);
+            if (result) {
+                notEmpty.signal();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        lock.lock();
+        try {
+            boolean result = list.addBack(newEntry);
+            if (result) {
+                notEmpty.signal();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        lock.lock();
+        try {
+            T result = null;
+            if (!list.isEmpty()) {
+                result = list.removeFront();
+                notFull.signal();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        lock.lock();
+        try {
+            T result = null;
+            if (!list.isEmpty()) {
+                result = list.removeBack();
+                notFull.signal();
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list, waiting as long as necessary for room.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void putFront(T newEntry) throws InterruptedException {
+        checkInitialization();
+        lock.lockInterruptibly();
+        try {
+            while (!list.addFront(newEntry)) {
+                notFull.await();
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry to the end of the list, waiting as long as necessary for room.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void putBack(T newEntry) throws InterruptedException {
+        checkInitialization();
+        lock.lockInterruptibly();
+        try {
+            while (!list.addBack(newEntry)) {
+                notFull.await();
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list, waiting as long as necessary for one to be added.
+     *
+     * @return A reference to the removed entry.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public T takeFront() throws InterruptedException {
+        checkInitialization();
+        lock.lockInterruptibly();
+        try {
+            while (list.isEmpty()) {
+                notEmpty.await();
+            }
+            T result = list.removeFront();
+            notFull.signal();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the end of the list, waiting as long as necessary for one to be added.
+     *
+     * @return A reference to the removed entry.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public T takeBack() throws InterruptedException {
+        checkInitialization();
+        lock.lockInterruptibly();
+        try {
+            while (list.isEmpty()) {
+                notEmpty.await();
+            }
+            T result = list.removeBack();
+            notFull.signal();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list, waiting up to the given time for room.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @param timeout How long to wait before giving up, in units of unit.
+     * @param unit The unit of the timeout.
+     * @return True if the entry was added; otherwise, returns false if the list was still full after the timeout.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean offerFront(T newEntry, long timeout, TimeUnit unit) throws InterruptedException {
+        checkInitialization();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!list.addFront(newEntry)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry to the end of the list, waiting up to the given time for room.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @param timeout How long to wait before giving up, in units of unit.
+     * @param unit The unit of the timeout.
+     * @return True if the entry was added; otherwise, returns false if the list was still full after the timeout.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean offerBack(T newEntry, long timeout, TimeUnit unit) throws InterruptedException {
+        checkInitialization();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!list.addBack(newEntry)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list, waiting up to the given time for one to be added.
+     *
+     * @param timeout How long to wait before giving up, in units of unit.
+     * @param unit The unit of the timeout.
+     * @return A reference to the removed entry or null if the list was still empty after the timeout.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public T pollFront(long timeout, TimeUnit unit) throws InterruptedException {
+        checkInitialization();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (list.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            T result = list.removeFront();
+            notFull.signal();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the end of the list, waiting up to the given time for one to be added.
+     *
+     * @param timeout How long to wait before giving up, in units of unit.
+     * @param unit The unit of the timeout.
+     * @return A reference to the removed entry or null if the list was still empty after the timeout.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public T pollBack(long timeout, TimeUnit unit) throws InterruptedException {
+        checkInitialization();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (list.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            T result = list.removeBack();
+            notFull.signal();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the entries of an array to the beginning of the list, in one locked step, until the list is full.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllFront(T[] newEntries) {
+        checkInitialization();
+        lock.lock();
+        try {
+            int added = list.addAllFront(newEntries);
+            if (added > 0) {
+                notEmpty.signalAll();
+            }
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds the entries of an array to the end of the list, in one locked step, until the list is full.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllBack(T[] newEntries) {
+        checkInitialization();
+        lock.lock();
+        try {
+            int added = list.addAllBack(newEntries);
+            if (added > 0) {
+                notEmpty.signalAll();
+            }
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list, in one locked step.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        lock.lock();
+        try {
+            List<T> removed = list.removeFront(count);
+            if (!removed.isEmpty()) {
+                notFull.signalAll();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the end of the list, in one locked step.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeBack would have returned them.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        checkInitialization();
+        lock.lock();
+        try {
+            List<T> removed = list.removeBack(count);
+            if (!removed.isEmpty()) {
+                notFull.signalAll();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Removes all entries from the list and wakes every thread waiting for room.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+        lock.lock();
+        try {
+            list.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        lock.lock();
+        try {
+            return list.getEntry(givenPosition);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        lock.lock();
+        try {
+            return list.indexOf(anEntry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        lock.lock();
+        try {
+            return list.lastIndexOf(anEntry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        checkInitialization();
+        lock.lock();
+        try {
+            return list.contains(anEntry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return list.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return list.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        lock.lock();
+        try {
+            return list.isFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Performs an action on each entry of the list, from front to back, while holding the lock.
+     * The action must not wait on this list.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+        lock.lock();
+        try {
+            list.forEach(action);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Registers the listener the wrapped list reports its evictions to, while holding the lock. The listener is
+     * called while an add holds the lock, so it must not wait for another thread that uses this list.
+     *
+     * @param listener The listener to report dropped entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        lock.lock();
+        try {
+            list.setEvictionListener(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Determines whether entries only enter and leave the wrapped list at its ends.
+     *
+     * @return True if the wrapped list only changes at its ends.
+     */
+    @Override
+    public boolean changesOnlyAtEnds() {
+        return list.changesOnlyAtEnds();
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the wrapped list while holding the lock, so any thread may call it while others
+     * change the list. For the array-backed lists this only copies a pointer per chunk, so writers are held up only
+     * briefly, and the snapshot can then be read without the lock.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+        lock.lock();
+        try {
+            return list.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the wrapped list.
+     */
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return list.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("BlockingFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+}
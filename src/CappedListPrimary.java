@@ -0,0 +1,607 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams every change to an ObservableFrontBackCappedList over TCP to any number of CappedListReplica instances,
+ * so they can serve as hot standbys.
+ *
+ * The primary listens on a server socket. A replica that connects is sent a snapshot of the list, encoded with
+ * CappedListSerializer, and after that every batch of mutations the observable list publishes, as one frame per
+ * batch. Frames are written to each replica as soon as they are ready, without waiting for the replica to apply
+ * the ones before, and each replica acknowledges the sequence number it has applied on its own schedule; a thread
+ * per replica reads those acknowledgements. Sequence numbers count mutations, so the difference between the
+ * published and acknowledged sequence is a replica's lag in mutations. A replica may leave at most maxInFlight
+ * mutations, 1,024 frames, and as many bytes as its socket's send buffer holds unacknowledged: past any of those,
+ * publishing waits for it, and a replica that does not acknowledge within the timeout is disconnected.
+ *
+ * The byte limit means a frame normally fits in the send buffer and is written without waiting, but the channels
+ * are non-blocking all the same, so a write that finds the buffer full waits on a selector for at most the timeout
+ * and then disconnects the replica. Replicas are written one after another on the thread that changes the list, so
+ * one that stops reading can hold that thread up for the timeout, once, and no longer.
+ *
+ * All frames start with an int giving the number of bytes that follow, a frame type byte, and a long sequence
+ * number, all big-endian. A snapshot frame carries a CappedListSerializer encoding; a batch frame carries an int
+ * event count and then, per event, a Mutation ordinal byte followed, for the two adds, by the entry in the codec's
+ * encoding. An acknowledgement is a single long.
+ *
+ * The observable list is not thread-safe, so everything but the accepting and acknowledgement threads runs on the
+ * thread that changes the list: frames are sent when the observable list's buffer fills or when flush() is called,
+ * and a newly connected replica is caught up at the next flush. A replica is never admitted when the buffer fills,
+ * because the observable list publishes a full buffer after applying the mutation that filled it, so a snapshot
+ * taken then would already hold a mutation the next batch sends again. Call flush() regularly, after each burst of
+ * changes, to bound how stale the replicas get and how long a new replica waits.
+ *
+ * @param <T> The type of entry in the list.
+ */
+public class CappedListPrimary<T> implements AutoCloseable {
+
+	static final byte SNAPSHOT_FRAME = 1;
+	static final byte BATCH_FRAME = 2;
+	static final int FRAME_HEADER_SIZE = 4 + 1 + 8;
+
+	private static final int DEFAULT_MAX_IN_FLIGHT = 65_536;
+	private static final long DEFAULT_ACK_TIMEOUT_SECONDS = 5;
+	private static final int SEND_TIMES = 1_024;
+
+	private final ObservableFrontBackCappedList<T> list;
+	private final FixedWidthCodec<T> codec;
+	private final CappedListSerializer<T> serializer;
+	private final ServerSocketChannel server;
+	private final Thread acceptor;
+	private final Selector writable;
+	private final Queue<SocketChannel> joining;
+	private final List<Link> links;
+	private final ReentrantLock lock;
+	private final Condition acknowledged;
+	private final int maxInFlight;
+	private final long ackTimeoutNanos;
+	private final AtomicLong bytesSent;
+	private final AtomicLong framesSent;
+	private ByteBuffer frame;
+	private long publishedSequence;
+	private volatile boolean closed;
+
+	/**
+	 * Starts a primary for the given list that allows 65,536 unacknowledged mutations per replica and disconnects
+	 * a replica that falls silent for 5 seconds.
+	 *
+	 * @param list The list to replicate
+	 * @param codec The codec that encodes entries on the wire
+	 * @param address The address to listen on; port 0 picks a free port
+	 * @throws IOException if the server socket cannot be opened.
+	 */
+	public CappedListPrimary(ObservableFrontBackCappedList<T> list, FixedWidthCodec<T> codec, InetSocketAddress address)
+			throws IOException {
+		this(list, codec, address, DEFAULT_MAX_IN_FLIGHT, DEFAULT_ACK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+
+	/**
+	 * Starts a primary for the given list.
+	 *
+	 * @param list The list to replicate
+	 * @param codec The codec that encodes entries on the wire
+	 * @param address The address to listen on; port 0 picks a free port
+	 * @param maxInFlight The number of mutations a replica may leave unacknowledged before publishing waits
+	 * @param ackTimeout How long to wait for a replica that is too far behind, or for a write to a replica
+	 * @param unit The unit of ackTimeout
+	 * @throws IOException if the server socket cannot be opened.
+	 */
+	public CappedListPrimary(ObservableFrontBackCappedList<T> list, FixedWidthCodec<T> codec, InetSocketAddress address,
+			int maxInFlight, long ackTimeout, TimeUnit unit) throws IOException {
+		if (list == null || codec == null || address == null) {
+			throw new IllegalArgumentException("List, codec, and address must not be null.");
+		}
+		if (maxInFlight <= 0 || ackTimeout <= 0) {
+			throw new IllegalArgumentException("In-flight window and timeout must be positive.");
+		}
+
+		this.list = list;
+		this.codec = codec;
+		serializer = new CappedListSerializer<>(codec);
+		joining = new ConcurrentLinkedQueue<>();
+		links = new CopyOnWriteArrayList<>();
+		lock = new ReentrantLock();
+		acknowledged = lock.newCondition();
+		this.maxInFlight = maxInFlight;
+		ackTimeoutNanos = unit.toNanos(ackTimeout);
+		bytesSent = new AtomicLong();
+		framesSent = new AtomicLong();
+		frame = ByteBuffer.allocateDirect(FRAME_HEADER_SIZE + 4 + 256 * (1 + codec.width()));
+		publishedSequence = 0;
+
+		writable = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(address);
+		acceptor = new Thread(this::acceptReplicas, "CappedListPrimary-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		list.addListener(this::publish);
+	}
+
+
+	/**
+	 * Publishes the mutations buffered in the observable list and catches up any replica that has connected since
+	 * the last batch. Must be called on the thread that changes the list.
+	 */
+	public void flush() {
+		list.flush();
+		admitJoining();
+	}
+
+
+	/**
+	 * Retrieves the address the primary listens on, with the port it was given if port 0 was asked for.
+	 *
+	 * @return The local address of the server socket.
+	 * @throws IOException if the server socket is closed.
+	 */
+	public SocketAddress getLocalAddress() throws IOException {
+		return server.getLocalAddress();
+	}
+
+
+	/**
+	 * Retrieves the sequence number of the last mutation sent to the replicas.
+	 *
+	 * @return The number of mutations published since the primary started.
+	 */
+	public long getPublishedSequence() {
+		return publishedSequence;
+	}
+
+
+	/**
+	 * Retrieves the number of replicas that are connected and caught up.
+	 *
+	 * @return The number of live replicas.
+	 */
+	public int getReplicaCount() {
+		return links.size();
+	}
+
+
+	/**
+	 * Retrieves the number of bytes written to all replicas, snapshots included.
+	 *
+	 * @return The bytes sent.
+	 */
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+
+	/**
+	 * Retrieves the number of frames written to all replicas, snapshots included.
+	 *
+	 * @return The frames sent.
+	 */
+	public long getFramesSent() {
+		return framesSent.get();
+	}
+
+
+	/**
+	 * Reports the acknowledged sequence and lag of every live replica.
+	 *
+	 * @return One status per replica.
+	 */
+	public List<ReplicaStatus> getReplicaStatus() {
+		List<ReplicaStatus> result = new ArrayList<>();
+		long now = System.nanoTime();
+		for (Link link : links) {
+			synchronized (link) {
+				result.add(new ReplicaStatus(link.address, link.acknowledgedSequence, link.sentSequence
+						- link.acknowledgedSequence, (link.pendingTimes == 0) ? 0 : now - link.sendNanos[link.firstTime],
+						link.lastRoundTripNanos));
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Stops accepting replicas, disconnects every replica, and stops listening to the list.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			server.close();
+		} catch (IOException e) {
+			// Nothing more can be done with a server socket that fails to close
+		}
+		for (Link link : links) {
+			drop(link);
+		}
+		for (SocketChannel channel = joining.poll(); channel != null; channel = joining.poll()) {
+			closeQuietly(channel);
+		}
+		acceptor.interrupt();
+		closeQuietly(writable);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Accepts replica connections until the primary is closed, queueing each one to be caught up on the thread
+	 * that changes the list.
+	 */
+	private void acceptReplicas() {
+		while (!closed) {
+			try {
+				SocketChannel channel = server.accept();
+				channel.socket().setTcpNoDelay(true);
+				joining.add(channel);
+			} catch (ClosedChannelException e) {
+				return;
+			} catch (IOException e) {
+				if (closed) {
+					return;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Sends a snapshot to every replica that has connected since the last call and starts streaming to it. Must
+	 * be called only when the observable list's buffer is empty, right after it was flushed, so the snapshot holds
+	 * exactly the mutations up to publishedSequence.
+	 */
+	private void admitJoining() {
+		for (SocketChannel channel = joining.poll(); channel != null; channel = joining.poll()) {
+			ByteBuffer encoding = ByteBuffer.allocate((int) (FRAME_HEADER_SIZE + serializer.encodedSize(list.size())));
+			encoding.position(FRAME_HEADER_SIZE);
+			serializer.encode(list, encoding);
+			encoding.flip();
+			putHeader(encoding, SNAPSHOT_FRAME, publishedSequence);
+
+			Link link = null;
+			try {
+				link = new Link(channel);
+				link.sentSequence = publishedSequence;
+				link.acknowledgedSequence = publishedSequence;
+				writeFully(link, encoding);
+			} catch (IOException e) {
+				closeQuietly(channel);
+				if (link != null) {
+					closeQuietly(link.readable); // Its reader never started, so nothing else closes it
+				}
+				continue;
+			}
+			links.add(link);
+			link.reader.start();
+		}
+	}
+
+
+	/**
+	 * Sends a batch of mutations to every replica. Called by the observable list on the thread that changes it.
+	 *
+	 * @param batch The mutations to send
+	 */
+	private void publish(ObservableFrontBackCappedList.Batch<? extends T> batch) {
+		int width = codec.width();
+		int needed = FRAME_HEADER_SIZE + 4 + batch.size() * (1 + width);
+		if (frame.capacity() < needed) {
+			frame = ByteBuffer.allocateDirect(needed);
+		}
+
+		frame.clear();
+		frame.position(FRAME_HEADER_SIZE);
+		frame.putInt(batch.size());
+		for (int index = 0; index < batch.size(); index++) {
+			ObservableFrontBackCappedList.Mutation mutation = batch.getMutation(index);
+			frame.put((byte) mutation.ordinal());
+			if (mutation == ObservableFrontBackCappedList.Mutation.ADD_FRONT
+					|| mutation == ObservableFrontBackCappedList.Mutation.ADD_BACK) {
+				codec.write(frame, frame.position(), batch.getEntry(index));
+				frame.position(frame.position() + width);
+			}
+		}
+		frame.flip();
+		publishedSequence += batch.size();
+		putHeader(frame, BATCH_FRAME, publishedSequence);
+
+		for (Link link : links) {
+			if (awaitWindow(link, frame.limit())) {
+				try {
+					frame.position(0);
+					long sendNanos = System.nanoTime();
+					writeFully(link, frame);
+					link.sent(publishedSequence, sendNanos, frame.limit());
+				} catch (IOException e) {
+					drop(link);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Waits until a replica has room for the next frame: fewer than maxInFlight mutations and SEND_TIMES frames
+	 * unacknowledged, and room for the frame's bytes in its send buffer, or nothing unacknowledged at all. Drops the
+	 * replica if that takes longer than the timeout.
+	 *
+	 * @param link The replica to wait for
+	 * @param frameLength The number of bytes in the next frame
+	 * @return True if the replica may be sent the next frame; false if it was dropped.
+	 */
+	private boolean awaitWindow(Link link, int frameLength) {
+		lock.lock();
+		try {
+			long remaining = ackTimeoutNanos;
+			while (!link.hasRoom(frameLength) && !link.dropped) {
+				if (remaining <= 0) {
+					break;
+				}
+				remaining = acknowledged.awaitNanos(remaining);
+			}
+			if (link.hasRoom(frameLength) && !link.dropped) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			lock.unlock();
+		}
+
+		drop(link);
+		return false;
+	}
+
+
+	/**
+	 * Writes the frame header at the start of a buffer whose limit is the end of the frame.
+	 *
+	 * @param buffer The frame
+	 * @param type The frame type
+	 * @param sequence The sequence number of the last mutation the frame covers
+	 */
+	private static void putHeader(ByteBuffer buffer, byte type, long sequence) {
+		buffer.putInt(0, buffer.limit() - 4);
+		buffer.put(4, type);
+		buffer.putLong(5, sequence);
+	}
+
+
+	/**
+	 * Writes every remaining byte of the buffer and counts it, waiting for the replica's socket to drain whenever
+	 * its send buffer is full, for at most the timeout in all.
+	 *
+	 * @param link The replica to write to
+	 * @param buffer The bytes to write
+	 * @throws IOException if the channel fails or the timeout passes before every byte is written.
+	 */
+	private void writeFully(Link link, ByteBuffer buffer) throws IOException {
+		int length = buffer.remaining();
+		long deadline = System.nanoTime() + ackTimeoutNanos;
+		while (buffer.hasRemaining()) {
+			if (link.channel.write(buffer) == 0) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					throw new IOException("Timed out writing to replica " + link.address + ".");
+				}
+				try {
+					link.writeKey.interestOps(SelectionKey.OP_WRITE);
+					writable.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+					writable.selectedKeys().clear();
+					link.writeKey.interestOps(0);
+				} catch (CancelledKeyException e) {
+					throw new ClosedChannelException(); // The acknowledgement reader dropped the replica
+				}
+			}
+		}
+		bytesSent.addAndGet(length);
+		framesSent.incrementAndGet();
+	}
+
+
+	/**
+	 * Disconnects a replica and stops sending to it.
+	 *
+	 * @param link The replica to drop
+	 */
+	private void drop(Link link) {
+		lock.lock();
+		try {
+			link.dropped = true;
+			acknowledged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		links.remove(link);
+		closeQuietly(link.channel);
+		link.readable.wakeup(); // The acknowledgement reader finds the channel closed and ends
+		writable.wakeup();
+	}
+
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			// The connection is being abandoned anyway
+		}
+	}
+
+	/*
+	 * NESTED CLASSES
+	 */
+
+	/**
+	 * The connection to one replica, with the thread that reads its acknowledgements and a ring of the send times
+	 * and byte counts of its unacknowledged frames, for measuring lag and bounding the bytes in flight. The channel
+	 * is non-blocking: the reader waits on a selector of its own, and writes wait on the primary's.
+	 */
+	private final class Link {
+		private final SocketChannel channel;
+		private final SocketAddress address;
+		private final Thread reader;
+		private final Selector readable;
+		private final SelectionKey writeKey;
+		private final int byteWindow;
+		private final long[] sentSequences = new long[SEND_TIMES];
+		private final long[] sendNanos = new long[SEND_TIMES];
+		private final long[] sentByteCounts = new long[SEND_TIMES];
+		private int firstTime;
+		private int pendingTimes;
+		private volatile long sentSequence;
+		private volatile long acknowledgedSequence;
+		private long sentBytes;
+		private long acknowledgedBytes;
+		private long lastRoundTripNanos;
+		private boolean dropped;
+
+		private Link(SocketChannel channel) throws IOException {
+			this.channel = channel;
+			address = channel.getRemoteAddress();
+			byteWindow = channel.getOption(StandardSocketOptions.SO_SNDBUF);
+			channel.configureBlocking(false);
+			readable = Selector.open();
+			try {
+				channel.register(readable, SelectionKey.OP_READ);
+				writeKey = channel.register(writable, 0);
+			} catch (IOException e) {
+				readable.close();
+				throw e;
+			}
+			reader = new Thread(this::readAcknowledgements, "CappedListPrimary-ack-" + address);
+			reader.setDaemon(true);
+		}
+
+		/**
+		 * Determines whether a frame of the given length may be sent now. The ring must have room to record it,
+		 * so every frame in flight is counted.
+		 */
+		private synchronized boolean hasRoom(int frameLength) {
+			long unacknowledgedBytes = sentBytes - acknowledgedBytes;
+			return sentSequence - acknowledgedSequence < maxInFlight && pendingTimes < SEND_TIMES
+					&& (unacknowledgedBytes == 0 || unacknowledgedBytes + frameLength <= byteWindow);
+		}
+
+		/**
+		 * Records that a frame was sent. awaitWindow only lets a frame through when the ring has room for it.
+		 */
+		private synchronized void sent(long sequence, long nanos, int frameLength) {
+			sentSequence = sequence;
+			sentBytes += frameLength;
+			int index = (firstTime + pendingTimes) % SEND_TIMES;
+			sentSequences[index] = sequence;
+			sendNanos[index] = nanos;
+			sentByteCounts[index] = sentBytes;
+			pendingTimes++;
+		}
+
+		private synchronized void acknowledge(long sequence, long nanos) {
+			while (pendingTimes > 0 && sentSequences[firstTime] <= sequence) {
+				lastRoundTripNanos = nanos - sendNanos[firstTime];
+				acknowledgedBytes = sentByteCounts[firstTime];
+				firstTime = (firstTime + 1) % SEND_TIMES;
+				pendingTimes--;
+			}
+		}
+
+		private void readAcknowledgements() {
+			ByteBuffer ack = ByteBuffer.allocate(8);
+			try (Selector selector = readable) {
+				while (true) {
+					ack.clear();
+					while (ack.hasRemaining()) {
+						int read = channel.read(ack);
+						if (read < 0) {
+							throw new ClosedChannelException();
+						}
+						if (read == 0) {
+							selector.select();
+							selector.selectedKeys().clear();
+						}
+					}
+					long sequence = ack.getLong(0);
+					acknowledge(sequence, System.nanoTime());
+					lock.lock();
+					try {
+						acknowledgedSequence = sequence;
+						acknowledged.signalAll();
+					} finally {
+						lock.unlock();
+					}
+				}
+			} catch (IOException e) {
+				drop(this);
+			}
+		}
+	}
+
+
+	/**
+	 * The replication state of one replica at the moment it was read.
+	 */
+	public static final class ReplicaStatus {
+		private final SocketAddress address;
+		private final long acknowledgedSequence;
+		private final long lag;
+		private final long lagNanos;
+		private final long lastRoundTripNanos;
+
+		private ReplicaStatus(SocketAddress address, long acknowledgedSequence, long lag, long lagNanos,
+				long lastRoundTripNanos) {
+			this.address = address;
+			this.acknowledgedSequence = acknowledgedSequence;
+			this.lag = lag;
+			this.lagNanos = lagNanos;
+			this.lastRoundTripNanos = lastRoundTripNanos;
+		}
+
+		/** @return The address of the replica. */
+		public SocketAddress getAddress() {
+			return address;
+		}
+
+		/** @return The sequence number of the last mutation the replica has applied. */
+		public long getAcknowledgedSequence() {
+			return acknowledgedSequence;
+		}
+
+		/** @return The number of mutations sent to the replica and not yet acknowledged. */
+		public long getLag() {
+			return lag;
+		}
+
+		/** @return How long ago the oldest unacknowledged frame was sent, or 0 if none is. */
+		public long getLagNanos() {
+			return lagNanos;
+		}
+
+		/** @return The time from sending a frame to its acknowledgement, for the last frame acknowledged. */
+		public long getLastRoundTripNanos() {
+			return lastRoundTripNanos;
+		}
+
+		@Override
+		public String toString() {
+			return address + ": acknowledged=" + acknowledgedSequence + "; lag=" + lag + "; lagMicros="
+					+ lagNanos / 1_000 + "; roundTripMicros=" + lastRoundTripNanos / 1_000;
+		}
+	}
+}
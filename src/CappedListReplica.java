@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a list in step with the list of a CappedListPrimary, as a hot standby.
+ *
+ * The replica connects to the primary, replaces the contents of its list with the snapshot the primary sends, and
+ * then applies every batch of mutations that follows, on a thread of its own. Rather than acknowledging each frame,
+ * it applies all the frames that one read brought in and then acknowledges the last of them, so acknowledgements
+ * are pipelined with the primary's writes.
+ *
+ * The list should have the same capacity and overflow policy as the primary's, so that entries the primary
+ * evicted, which are sent as removes, leave the two lists alike. It is changed on the replica's thread; if other
+ * threads read it, pass a thread-safe list such as a BlockingFrontBackCappedList.
+ *
+ * @param <T> The type of entry in the list.
+ */
+public class CappedListReplica<T> implements AutoCloseable {
+
+	private static final int BUFFER_BYTES = 64 * 1024;
+	private static final ObservableFrontBackCappedList.Mutation[] MUTATIONS = ObservableFrontBackCappedList.Mutation.values();
+
+	private final FrontBackCappedListInterface<T> list;
+	private final FixedWidthCodec<T> codec;
+	private final CappedListSerializer<T> serializer;
+	private final SocketChannel channel;
+	private final Thread applier;
+	private final Object progress;
+	private volatile long appliedSequence;
+	private volatile long framesApplied;
+	private volatile long bytesReceived;
+	private volatile long snapshotsApplied;
+	private volatile boolean connected;
+	private volatile IOException failure;
+
+	/**
+	 * Connects to a primary and starts applying what it sends to the given list.
+	 *
+	 * @param list The list to keep in step with the primary's
+	 * @param codec The codec the primary encodes entries with
+	 * @param primary The address the primary listens on
+	 * @throws IOException if the primary cannot be reached.
+	 */
+	public CappedListReplica(FrontBackCappedListInterface<T> list, FixedWidthCodec<T> codec, InetSocketAddress primary)
+			throws IOException {
+		if (list == null || codec == null || primary == null) {
+			throw new IllegalArgumentException("List, codec, and address must not be null.");
+		}
+
+		this.list = list;
+		this.codec = codec;
+		serializer = new CappedListSerializer<>(codec);
+		progress = new Object();
+		appliedSequence = -1;
+		channel = SocketChannel.open(primary);
+		channel.socket().setTcpNoDelay(true);
+		connected = true;
+		applier = new Thread(this::applyFrames, "CappedListReplica-" + primary);
+		applier.setDaemon(true);
+		applier.start();
+	}
+
+
+	/**
+	 * Waits until the replica has applied the mutation with the given sequence number.
+	 *
+	 * @param sequence The sequence number to wait for, as reported by the primary's getPublishedSequence()
+	 * @param timeout How long to wait
+	 * @param unit The unit of timeout
+	 * @return True if the mutation was applied; false if the timeout passed or the connection was lost first.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public boolean awaitSequence(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (progress) {
+			while (appliedSequence < sequence && connected) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+			}
+			return appliedSequence >= sequence;
+		}
+	}
+
+
+	/**
+	 * Retrieves the sequence number of the last mutation applied to the list.
+	 *
+	 * @return The applied sequence, or -1 before the snapshot has arrived.
+	 */
+	public long getAppliedSequence() {
+		return appliedSequence;
+	}
+
+
+	/**
+	 * Retrieves the number of frames applied, snapshots included.
+	 *
+	 * @return The frames applied.
+	 */
+	public long getFramesApplied() {
+		return framesApplied;
+	}
+
+
+	/**
+	 * Retrieves the number of bytes received from the primary.
+	 *
+	 * @return The bytes received.
+	 */
+	public long getBytesReceived() {
+		return bytesReceived;
+	}
+
+
+	/**
+	 * Retrieves the number of snapshots applied; more than one means the list was caught up more than once.
+	 *
+	 * @return The snapshots applied.
+	 */
+	public long getSnapshotsApplied() {
+		return snapshotsApplied;
+	}
+
+
+	/**
+	 * Determines whether the replica is still connected to the primary.
+	 *
+	 * @return True if frames are still being received.
+	 */
+	public boolean isConnected() {
+		return connected;
+	}
+
+
+	/**
+	 * Retrieves the error that ended the connection, if one did.
+	 *
+	 * @return The error, or null if the connection is open or the primary closed it.
+	 */
+	public IOException getFailure() {
+		return failure;
+	}
+
+
+	/**
+	 * Disconnects from the primary. The list keeps the state it had.
+	 */
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// The connection is being abandoned anyway
+		}
+		applier.interrupt();
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Reads frames until the connection ends, applying each complete frame and acknowledging the last one applied
+	 * after every read.
+	 */
+	private void applyFrames() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+		ByteBuffer ack = ByteBuffer.allocate(8);
+		try {
+			while (true) {
+				int read = channel.read(buffer);
+				if (read < 0) {
+					break;
+				}
+				bytesReceived += read;
+				buffer.flip();
+
+				long sequence = -1;
+				while (buffer.remaining() >= 4 && buffer.remaining() >= 4 + buffer.getInt(buffer.position())) {
+					sequence = applyFrame(buffer);
+				}
+				buffer = makeRoom(buffer);
+
+				if (sequence >= 0) {
+					ack.clear();
+					ack.putLong(0, sequence);
+					while (ack.hasRemaining()) {
+						channel.write(ack);
+					}
+				}
+			}
+		} catch (IOException e) {
+			if (channel.isOpen()) {
+				failure = e;
+			}
+		} finally {
+			synchronized (progress) {
+				connected = false;
+				progress.notifyAll();
+			}
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// The connection is being abandoned anyway
+			}
+		}
+	}
+
+
+	/**
+	 * Applies the complete frame at the buffer's position and advances the buffer past it.
+	 *
+	 * @param buffer The buffer holding the frame
+	 * @return The sequence number of the frame.
+	 * @throws IOException if the frame is malformed.
+	 */
+	private long applyFrame(ByteBuffer buffer) throws IOException {
+		int start = buffer.position();
+		int end = start + 4 + buffer.getInt(start);
+		byte type = buffer.get(start + 4);
+		long sequence = buffer.getLong(start + 5);
+		int limit = buffer.limit();
+		buffer.limit(end);
+		buffer.position(start + CappedListPrimary.FRAME_HEADER_SIZE);
+
+		if (type == CappedListPrimary.SNAPSHOT_FRAME) {
+			list.clear();
+			serializer.decode(buffer, list);
+			snapshotsApplied++;
+		} else if (type == CappedListPrimary.BATCH_FRAME) {
+			applyBatch(buffer);
+		} else {
+			throw new StreamCorruptedException("Unknown frame type " + type + ".");
+		}
+
+		buffer.limit(limit);
+		buffer.position(end);
+		framesApplied++;
+		synchronized (progress) {
+			appliedSequence = sequence;
+			progress.notifyAll();
+		}
+		return sequence;
+	}
+
+
+	/**
+	 * Applies the mutations of a batch frame whose body starts at the buffer's position.
+	 *
+	 * @param buffer The buffer holding the batch
+	 * @throws IOException if the batch is malformed.
+	 */
+	private void applyBatch(ByteBuffer buffer) throws IOException {
+		int width = codec.width();
+		int count = buffer.getInt();
+		for (int index = 0; index < count; index++) {
+			int ordinal = buffer.get();
+			if (ordinal < 0 || ordinal >= MUTATIONS.length) {
+				throw new StreamCorruptedException("Unknown mutation " + ordinal + ".");
+			}
+			switch (MUTATIONS[ordinal]) {
+				case ADD_FRONT:
+					list.addFront(codec.read(buffer, buffer.position()));
+					buffer.position(buffer.position() + width);
+					break;
+				case ADD_BACK:
+					list.addBack(codec.read(buffer, buffer.position()));
+					buffer.position(buffer.position() + width);
+					break;
+				case REMOVE_FRONT:
+					list.removeFront();
+					break;
+				case REMOVE_BACK:
+					list.removeBack();
+					break;
+				case CLEAR:
+					list.clear();
+					break;
+			}
+		}
+	}
+
+
+	/**
+	 * Moves the unread bytes to the start of the buffer so the next read appends to them, replacing the buffer with
+	 * a larger one if they are the start of a frame that would not fit.
+	 *
+	 * @param buffer The buffer, ready to be read from
+	 * @return The buffer to read into next.
+	 */
+	private static ByteBuffer makeRoom(ByteBuffer buffer) {
+		if (buffer.remaining() >= 4) {
+			int frameLength = 4 + buffer.getInt(buffer.position());
+			if (frameLength > buffer.capacity()) {
+				ByteBuffer larger = ByteBuffer.allocateDirect(frameLength);
+				larger.put(buffer);
+				return larger;
+			}
+		}
+		buffer.compact();
+		return buffer;
+	}
+}
@@ -0,0 +1,332 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Writes the entries of a FrontBackCappedListInterface in a compact binary format and reads them back, using a
+ * FixedWidthCodec for the entries.
+ *
+ * The format is a 20-byte header followed by the entries from front to back, each exactly width() bytes, all
+ * big-endian:
+ *     int magic ("FBCL"), int version, int entry width, long number of entries
+ *
+ * Writing to a ByteBuffer encodes each entry straight into the buffer. Writing to a channel encodes entries into a
+ * small reusable staging buffer and sends it together with the header in gathering writes; an
+ * OffHeapFrontBackCappedList that uses the same codec already holds its entries in this encoding, so its buffer is
+ * sent as it is, with no copy at all. Reading from a channel decodes one staging buffer at a time and hands each
+ * entry to a Consumer, so a stream can hold more entries than fit in memory as long as the consumer does not keep
+ * them all.
+ *
+ * The staging buffer is direct, so channels read and write it without copying it first, and each serializer keeps
+ * one for all of its calls rather than allocating one per call. A call takes the buffer for as long as it runs; a
+ * call made while another thread holds it stages through a buffer of its own, so a serializer may still be shared.
+ *
+ * @param <T> The type of entry in the lists.
+ */
+public class CappedListSerializer<T> {
+
+	private static final int MAGIC = 0x4642434C; // "FBCL"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+	private static final int STAGING_BYTES = 64 * 1024;
+
+	private final FixedWidthCodec<T> codec;
+	private final int width;
+	private final AtomicReference<ByteBuffer> idleStaging; // Null while a call is using the staging buffer
+
+	/**
+	 * Creates a serializer that encodes entries with the given codec.
+	 *
+	 * @param codec The codec that encodes and decodes entries.
+	 */
+	public CappedListSerializer(FixedWidthCodec<T> codec) {
+		if (codec == null || codec.width() <= 0) {
+			throw new IllegalArgumentException("Codec must not be null and must have a positive width.");
+		}
+
+		this.codec = codec;
+		width = codec.width();
+		idleStaging = new AtomicReference<>();
+	}
+
+
+	/**
+	 * Gets the number of bytes the encoding of a list with the given number of entries takes.
+	 *
+	 * @param size The number of entries.
+	 * @return The encoded size in bytes.
+	 */
+	public long encodedSize(int size) {
+		return HEADER_SIZE + (long) size * width;
+	}
+
+
+	/**
+	 * Encodes a list into a buffer, starting at the buffer's position and advancing it past the encoding.
+	 *
+	 * @param list The list to encode.
+	 * @param buffer The buffer to write to.
+	 * @return The number of bytes written.
+	 * @throws BufferOverflowException if the buffer does not have room for the whole encoding; nothing is written.
+	 */
+	public int encode(FrontBackCappedListInterface<T> list, ByteBuffer buffer) {
+		int size = list.size();
+		long length = encodedSize(size);
+		if (length > buffer.remaining()) {
+			throw new BufferOverflowException();
+		}
+
+		int start = buffer.position();
+		putHeader(buffer, start, size);
+		int[] offset = {start + HEADER_SIZE};
+		list.forEach(entry -> {
+			codec.write(buffer, offset[0], entry);
+			offset[0] += width;
+		});
+		buffer.position(offset[0]);
+
+		return (int) length;
+	}
+
+
+	/**
+	 * Decodes a list from a buffer, starting at the buffer's position and advancing it past the encoding. Each entry
+	 * is added to the back of the given list; entries that do not fit are handled as that list's addBack handles
+	 * them.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @param list The list to add the entries to.
+	 * @return The number of entries read.
+	 * @throws StreamCorruptedException if the buffer does not start with a header written by this format and codec.
+	 * @throws EOFException if the buffer ends before the last entry.
+	 */
+	public long decode(ByteBuffer buffer, FrontBackCappedListInterface<T> list) throws IOException {
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new EOFException("Buffer ends inside the header.");
+		}
+
+		long size = readHeader(buffer, buffer.position());
+		if (size > (buffer.remaining() - HEADER_SIZE) / width) {
+			throw new EOFException("Buffer holds fewer entries than its header says.");
+		}
+
+		int offset = buffer.position() + HEADER_SIZE;
+		for (long index = 0; index < size; index++) {
+			list.addBack(codec.read(buffer, offset));
+			offset += width;
+		}
+		buffer.position(offset);
+
+		return size;
+	}
+
+
+	/**
+	 * Writes the encoding of a list to a channel. The list must not be changed while it is written.
+	 *
+	 * @param list The list to write.
+	 * @param channel The channel to write to.
+	 * @return The number of bytes written.
+	 * @throws IOException if the channel fails.
+	 */
+	@SuppressWarnings("unchecked")
+	public long write(FrontBackCappedListInterface<T> list, WritableByteChannel channel) throws IOException {
+		int size = list.size();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		putHeader(header, 0, size);
+
+		// The off-heap list already holds the bytes this format needs, so they go straight to the channel
+		if (list instanceof OffHeapFrontBackCappedList
+				&& ((OffHeapFrontBackCappedList<T>) list).codec() == codec) {
+			ByteBuffer[] runs = ((OffHeapFrontBackCappedList<T>) list).encodedRuns();
+			ByteBuffer[] buffers = new ByteBuffer[runs.length + 1];
+			buffers[0] = header;
+			System.arraycopy(runs, 0, buffers, 1, runs.length);
+			writeFully(channel, buffers);
+			return encodedSize(size);
+		}
+
+		ByteBuffer staging = takeStaging();
+		try {
+			ByteBuffer[] buffers = {header, staging};
+			for (T entry : list) {
+				if (staging.remaining() < width) {
+					staging.flip();
+					writeFully(channel, buffers);
+					staging.clear();
+				}
+				codec.write(staging, staging.position(), entry);
+				staging.position(staging.position() + width);
+			}
+			staging.flip();
+			writeFully(channel, buffers);
+		} finally {
+			idleStaging.set(staging);
+		}
+
+		return encodedSize(size);
+	}
+
+
+	/**
+	 * Reads an encoding from a channel and hands each entry, from front to back, to an action. Only one staging
+	 * buffer of entries is held at a time, so the encoding may be larger than memory.
+	 *
+	 * @param channel The channel to read from.
+	 * @param action The action to perform on each entry.
+	 * @return The number of entries read.
+	 * @throws StreamCorruptedException if the channel does not start with a header written by this format and codec.
+	 * @throws EOFException if the channel ends before the last entry.
+	 * @throws IOException if the channel fails.
+	 */
+	public long read(ReadableByteChannel channel, Consumer<? super T> action) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(channel, header);
+		long size = readHeader(header, 0);
+
+		ByteBuffer staging = takeStaging();
+		try {
+			long remaining = size;
+			while (remaining > 0) {
+				staging.clear();
+				staging.limit((int) Math.min(staging.capacity(), remaining * width));
+				readFully(channel, staging);
+				for (int offset = 0; offset < staging.limit(); offset += width) {
+					action.accept(codec.read(staging, offset));
+				}
+				remaining -= staging.limit() / width;
+			}
+		} finally {
+			idleStaging.set(staging);
+		}
+
+		return size;
+	}
+
+
+	/**
+	 * Reads an encoding from a channel, adding each entry to the back of a list. Entries that do not fit are handled
+	 * as that list's addBack handles them, so a list that evicts on overflow ends up holding the newest entries.
+	 *
+	 * @param channel The channel to read from.
+	 * @param list The list to add the entries to.
+	 * @return The number of entries read.
+	 * @throws IOException if the channel fails or does not hold a valid encoding.
+	 */
+	public long read(ReadableByteChannel channel, FrontBackCappedListInterface<T> list) throws IOException {
+		return read(channel, list::addBack);
+	}
+
+	/*
+	****************
+	PRIVATE METHODS:
+	****************
+	*/
+
+	/**
+	 * Takes the serializer's staging buffer, or allocates one if another call is using it. Whichever buffer the
+	 * caller ends up with is put back when it is done, so the serializer keeps the last one returned.
+	 *
+	 * @return An empty staging buffer that holds a whole number of entries.
+	 */
+	private ByteBuffer takeStaging() {
+		ByteBuffer staging = idleStaging.getAndSet(null);
+		if (staging == null) {
+			staging = ByteBuffer.allocateDirect(Math.max(width, STAGING_BYTES / width * width));
+		}
+		staging.clear();
+		return staging;
+	}
+
+
+	/**
+	 * Writes the header at an absolute offset, without changing the buffer's position.
+	 *
+	 * @param buffer The buffer to write to.
+	 * @param offset The index of the first byte to write.
+	 * @param size The number of entries that follow.
+	 */
+	private void putHeader(ByteBuffer buffer, int offset, long size) {
+		buffer.putInt(offset, MAGIC);
+		buffer.putInt(offset + 4, VERSION);
+		buffer.putInt(offset + 8, width);
+		buffer.putLong(offset + 12, size);
+	}
+
+
+	/**
+	 * Checks the header at an absolute offset and reads the number of entries from it.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @param offset The index of the first byte of the header.
+	 * @return The number of entries that follow the header.
+	 * @throws StreamCorruptedException if the header was not written by this format and codec.
+	 */
+	private long readHeader(ByteBuffer buffer, int offset) throws StreamCorruptedException {
+		if (buffer.getInt(offset) != MAGIC || buffer.getInt(offset + 4) != VERSION) {
+			throw new StreamCorruptedException("Not a capped list encoding, or an unsupported version.");
+		}
+		if (buffer.getInt(offset + 8) != width) {
+			throw new StreamCorruptedException("Entry width " + buffer.getInt(offset + 8) + " does not match the codec width "
+					+ width + ".");
+		}
+
+		long size = buffer.getLong(offset + 12);
+		if (size < 0) {
+			throw new StreamCorruptedException("Negative number of entries.");
+		}
+
+		return size;
+	}
+
+
+	/**
+	 * Writes every remaining byte of the buffers, with gathering writes when the channel supports them.
+	 *
+	 * @param channel The channel to write to.
+	 * @param buffers The buffers to write, in order.
+	 * @throws IOException if the channel fails.
+	 */
+	private static void writeFully(WritableByteChannel channel, ByteBuffer[] buffers) throws IOException {
+		if (channel instanceof GatheringByteChannel) {
+			GatheringByteChannel gathering = (GatheringByteChannel) channel;
+			long remaining = 0;
+			for (ByteBuffer buffer : buffers) {
+				remaining += buffer.remaining();
+			}
+			while (remaining > 0) {
+				remaining -= gathering.write(buffers);
+			}
+		} else {
+			for (ByteBuffer buffer : buffers) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Fills the rest of the buffer from the channel.
+	 *
+	 * @param channel The channel to read from.
+	 * @param buffer The buffer to fill up to its limit.
+	 * @throws EOFException if the channel ends first.
+	 * @throws IOException if the channel fails.
+	 */
+	private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Channel ends before the encoding does.");
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A Spliterator over a range of positions in a capped list. Entries are read through a function from position to
+ * entry, so a list can hand out a spliterator that reads its backing storage directly, without copying.
+ *
+ * Splitting cuts the remaining range exactly in half, so the pieces a parallel stream works on are always within
+ * one entry of each other in size. The spliterator is not fail-fast: the list must not change while it is in use.
+ *
+ * @param <T> The type of entry in the list.
+ */
+public class CappedListSpliterator<T> implements Spliterator<T> {
+
+	private final IntFunction<T> entryAt;
+	private int position;
+	private final int fence;
+
+	/**
+	 * Creates a spliterator over the positions from origin (inclusive) to fence (exclusive).
+	 * 
+	 * @param entryAt A function that returns the entry at a position in the list.
+	 * @param origin The first position to visit.
+	 * @param fence One past the last position to visit.
+	 */
+	public CappedListSpliterator(IntFunction<T> entryAt, int origin, int fence) {
+		this.entryAt = entryAt;
+		this.position = origin;
+		this.fence = fence;
+	}
+
+
+	/**
+	 * Creates a spliterator over every entry of a list, read with getEntry.
+	 * 
+	 * @param list The list to visit.
+	 */
+	public CappedListSpliterator(FrontBackCappedListInterface<T> list) {
+		this(list::getEntry, 0, list.size());
+	}
+
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		boolean advanced = false;
+
+		if (position < fence) {
+			action.accept(entryAt.apply(position));
+			position++;
+			advanced = true;
+		}
+
+		return advanced;
+	}
+
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		for (int index = position; index < fence; index++) {
+			action.accept(entryAt.apply(index));
+		}
+		position = fence;
+	}
+
+
+	@Override
+	public Spliterator<T> trySplit() {
+		CappedListSpliterator<T> prefix = null;
+		int middle = (position + fence) >>> 1;
+
+		if (middle > position) {
+			prefix = new CappedListSpliterator<>(entryAt, position, middle);
+			position = middle;
+		}
+
+		return prefix;
+	}
+
+
+	@Override
+	public long estimateSize() {
+		return fence - position;
+	}
+
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED;
+	}
+}
@@ -0,0 +1,683 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+public class CircularFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that implements the ADT list with front or back entry or removal and capped to a given capacity,
+ * using a circular array. The front of the list is tracked by a head index and positions wrap around the end of
+ * the array, so entries never have to be shifted and every add, remove, and getEntry runs in constant time.
+ *
+ * By default an add to a full list is rejected. A list created with another OverflowPolicy instead evicts an entry
+ * to make room, still in constant time, counts how many entries it has evicted, and reports each one to the
+ * eviction listener, if one is set. Evicted entries are only reported there, so an add still returns just whether
+ * the new entry went in, and a null entry that is evicted is never mistaken for an add that had room.
+ *
+ * The ring is held in fixed-size chunks (see CopyOnWriteChunks) so snapshot() can share them: taking a snapshot
+ * costs a pointer per chunk, and afterwards the list copies each chunk before its first change to it, so the
+ * snapshot never sees later changes and a write after a snapshot copies one chunk rather than the whole ring.
+ * snapshot() must be called on the thread that changes the list, or under the lock that guards its changes.
+ */
+
+    private CopyOnWriteChunks<T> slots;
+    private int capacity; // Never more than slots.length(); setCapacity can leave the ring longer
+    private int head;
+    private int numberOfElements;
+    private final OverflowPolicy overflowPolicy;
+    private long evictionCount;
+    private EvictionListener<? super T> evictionListener;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes empty list that rejects adds once it is full.
+     *
+     * @param capacity The capacity of the list
+     */
+    public CircularFrontBackCappedList(int capacity) {
+        this(capacity, OverflowPolicy.REJECT);
+    }
+
+
+    /**
+     * Creates and initializes empty list.
+     *
+     * @param capacity The capacity of the list
+     * @param overflowPolicy What an add does when the list is full
+     */
+    public CircularFrontBackCappedList(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Overflow policy must not be null.");
+        }
+
+        slots = new CopyOnWriteChunks<>(capacity);
+        this.capacity = capacity;
+        head = 0;
+        numberOfElements = 0;
+        this.overflowPolicy = overflowPolicy;
+        evictionCount = 0;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list. The head index is moved back one slot, so no entries are shifted.
+     * If the list is full, the overflow policy decides whether an entry is evicted to make room; an evicted entry
+     * is reported to the eviction listener, if there is one.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if array is full and the policy is REJECT.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull() && !(canEvict())) {
+            result = false;
+        } else { // Assertion: result is true
+            if (isFull()) {
+                evict(overflowPolicy == OverflowPolicy.EVICT_SAME_END);
+            }
+            head = previousIndex(head);
+            slots.set(head, newEntry);
+            numberOfElements++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list. The rest of the list is not impacted. If the list is full, the overflow
+     * policy decides whether an entry is evicted to make room; an evicted entry is reported to the eviction
+     * listener, if there is one.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if array is full and the policy is REJECT.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull() && !(canEvict())) {
+            result = false;
+        } else { // Assertion: result is true
+            if (isFull()) {
+                evict(overflowPolicy != OverflowPolicy.EVICT_SAME_END);
+            }
+            slots.set(physicalIndex(numberOfElements), newEntry);
+            numberOfElements++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty. The head index is moved forward one
+     * slot, and the list size is decreased by 1.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = slots.get(head); // Get entry to be removed in front of list
+            slots.set(head, null);    // Release reference so the entry can be garbage collected
+            head = nextIndex(head);
+            numberOfElements--;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty. The rest of the list is not impacted, and
+     * the list size is decreased by 1.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            int lastIndex = physicalIndex(numberOfElements - 1);
+            result = slots.get(lastIndex); // Get entry to be removed from back of list
+            slots.set(lastIndex, null);
+            numberOfElements--;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list if the list is not empty. Chunks a snapshot shares are replaced with new
+     * empty ones instead of being cleared.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        if (!(isEmpty())) {
+            int end = head + numberOfElements;
+
+            // Occupied slots are at most two runs: [head, end) or [head, length) and [0, end - length)
+            if (end <= slots.length()) {
+                slots.fill(head, end);
+            } else {
+                slots.fill(head, slots.length());
+                slots.fill(0, end - slots.length());
+            }
+        }
+
+        head = 0;
+        numberOfElements = 0;
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, after determining if the position is valid.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        T result = null;
+
+        if (validPosition(givenPosition)) { // Assertion: list is not empty
+            result = slots.get(physicalIndex(givenPosition));
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        int end = head + numberOfElements;
+        int length = slots.length();
+
+        // Searching from front of list: the run from the head, then the part that wraps around
+        int position = slots.indexOf(anEntry, head, Math.min(end, length));
+        if (position >= 0) {
+            position -= head;
+        } else if (end > length) {
+            position = slots.indexOf(anEntry, 0, end - length);
+            if (position >= 0) {
+                position += length - head;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        int end = head + numberOfElements;
+        int length = slots.length();
+        int position = -1;
+
+        // Searching from back of list: the part that wraps around, then the run from the head
+        if (end > length) {
+            position = slots.lastIndexOf(anEntry, 0, end - length);
+            if (position >= 0) {
+                position += length - head;
+            }
+        }
+        if (position < 0) {
+            position = slots.lastIndexOf(anEntry, head, Math.min(end, length));
+            if (position >= 0) {
+                position -= head;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return numberOfElements;
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (numberOfElements == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (numberOfElements >= capacity);
+    }
+
+
+    /**
+     * Adds the entries of an array to the beginning of the list until it is full. No existing entry moves; the
+     * new entries are written backwards from the head. A list that evicts on overflow adds them one at a time.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllFront(T[] newEntries) {
+        checkInitialization();
+
+        int added;
+
+        if (canEvict()) { // Every entry is added, evicting as it goes, exactly as single adds would
+            added = FrontBackCappedListInterface.super.addAllFront(newEntries);
+        } else {
+            added = Math.min(newEntries.length, capacity - numberOfElements);
+
+            // Each entry goes in front of the one before it, so the array is placed in reverse order
+            for (int index = 0; index < added; index++) {
+                head = previousIndex(head);
+                slots.set(head, newEntries[index]);
+            }
+            numberOfElements += added;
+        }
+
+        return added;
+    }
+
+
+    /**
+     * Adds the entries of an array to the end of the list until it is full, with at most two block copies (one
+     * up to the end of the ring and one for the part that wraps around). A list that evicts on overflow
+     * adds them one at a time.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllBack(T[] newEntries) {
+        checkInitialization();
+
+        int added;
+
+        if (canEvict()) { // Every entry is added, evicting as it goes, exactly as single adds would
+            added = FrontBackCappedListInterface.super.addAllBack(newEntries);
+        } else {
+            added = Math.min(newEntries.length, capacity - numberOfElements);
+        }
+
+        if (!(canEvict()) && added > 0) {
+            int start = physicalIndex(numberOfElements);
+            int firstRun = Math.min(added, slots.length() - start);
+            slots.copyIn(newEntries, 0, start, firstRun);
+            slots.copyIn(newEntries, firstRun, 0, added - firstRun);
+            numberOfElements += added;
+        }
+
+        return added;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list, with at most two block copies.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        int removed = Math.max(0, Math.min(count, numberOfElements));
+
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        T[] result = (T[]) new Object[removed]; // Unchecked cast
+        int firstRun = Math.min(removed, slots.length() - head);
+        slots.copyOut(head, result, 0, firstRun);
+        slots.copyOut(0, result, firstRun, removed - firstRun);
+        slots.fill(head, head + firstRun);
+        slots.fill(0, removed - firstRun);
+
+        head = physicalIndex(removed);
+        numberOfElements -= removed;
+
+        return Arrays.asList(result);
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the end of the list.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeBack would have returned them.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        checkInitialization();
+        int removed = Math.max(0, Math.min(count, numberOfElements));
+        List<T> result = new ArrayList<>(removed);
+
+        for (int position = numberOfElements - 1; position >= numberOfElements - removed; position--) {
+            int index = physicalIndex(position);
+            result.add(slots.get(index));
+            slots.set(index, null);
+        }
+        numberOfElements -= removed;
+
+        return result;
+    }
+
+
+    /**
+     * Retrieves the number of entries the list can hold.
+     *
+     * @return The capacity of the list.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Changes the number of entries the list can hold. If the list holds more entries than the new capacity, the
+     * extra entries are removed from the end the trim policy names and returned in one list.
+     *
+     * The ring only needs to be at least as long as the capacity, so raising the capacity within the ring moves
+     * nothing. A longer ring is only allocated when the ring is too short, and then it grows by half again, so
+     * raising the capacity a step at a time costs amortized constant time per added slot. The ring is also
+     * replaced, to release memory, when the new capacity is under a quarter of its length.
+     *
+     * @param newCapacity The new capacity of the list
+     * @param trimPolicy Which end to remove entries from if the list is over the new capacity
+     * @return The removed entries, in the order removeFront(int) or removeBack(int) returns them.
+     */
+    public List<T> setCapacity(int newCapacity, TrimPolicy trimPolicy) {
+        checkInitialization();
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (trimPolicy == null) {
+            throw new IllegalArgumentException("Trim policy must not be null.");
+        }
+
+        int excess = Math.max(0, numberOfElements - newCapacity);
+        List<T> removed = (trimPolicy == TrimPolicy.DROP_FRONT) ? removeFront(excess) : removeBack(excess);
+
+        int length = slots.length();
+        if (newCapacity > length) {
+            long grown = length + (length >> 1);
+            relocate((int) Math.max(newCapacity, Math.min(grown, Integer.MAX_VALUE - 8)));
+        } else if (newCapacity < length / 4) {
+            relocate(newCapacity);
+        }
+        capacity = newCapacity;
+
+        return removed;
+    }
+
+
+    /**
+     * Retrieves the policy applied when an entry is added to a full list.
+     *
+     * @return The overflow policy of the list.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+
+    /**
+     * Retrieves how many entries have been evicted to make room for new ones since the list was created.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+
+    /**
+     * Registers the listener told about each entry evicted to make room for an add. Entries removed by a remove
+     * method, clear, or setCapacity are not reported.
+     *
+     * @param listener The listener to report evicted entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        evictionListener = listener;
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the list in time proportional to the number of chunks. The snapshot shares
+     * the chunks, and the list copies each one before its next change to it. Must be called on the thread that
+     * changes the list, or under the lock that guards its changes; the snapshot itself may be read from any thread.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        return slots.share(head, numberOfElements, capacity);
+    }
+
+
+    /**
+     * Performs an action on each entry of the list, from front to back, reading the chunks directly.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+
+        for (int index = 0; index < numberOfElements; index++) {
+            action.accept(slots.get(physicalIndex(index)));
+        }
+    }
+
+
+    /**
+     * Creates a spliterator over the chunks that splits evenly in half, for sequential or parallel streams. The
+     * list must not be changed while the spliterator is in use.
+     *
+     * @return An ordered, sized spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        checkInitialization();
+        CopyOnWriteChunks<T> entries = slots;
+        int start = head;
+
+        return new CappedListSpliterator<>(position -> {
+            int index = start + position;
+            return entries.get((index >= entries.length()) ? index - entries.length() : index);
+        }, 0, numberOfElements);
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        StringJoiner entries = new StringJoiner(", ", "[", "]");
+        forEach(entry -> entries.add(String.valueOf(entry)));
+
+        return  "size=" + numberOfElements + "; capacity=" + capacity + ";\t" + entries;
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("CircularFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Determines if an add to a full list may evict an entry; a list with no capacity can never make room.
+     *
+     * @return True if the overflow policy evicts and the list has room for at least one entry.
+     */
+    private boolean canEvict() {
+        return overflowPolicy != OverflowPolicy.REJECT && capacity > 0;
+    }
+
+
+    /**
+     * Evicts the entry at one end of the full list to make room for an add, and reports it to the eviction
+     * listener.
+     *
+     * @param fromFront Whether the front entry is evicted rather than the back one
+     */
+    private void evict(boolean fromFront) {
+        int position = fromFront ? 0 : numberOfElements - 1;
+        T evicted = fromFront ? removeFront() : removeBack();
+        evictionCount++;
+
+        if (evictionListener != null) {
+            evictionListener.evicted(evicted, position);
+        }
+    }
+
+
+    /**
+     * Moves the entries, in order, to the start of a new ring of the given length. The new ring shares no chunk
+     * with a snapshot.
+     *
+     * @param length The length of the new ring; at least numberOfElements
+     */
+    private void relocate(int length) {
+        CopyOnWriteChunks<T> tempSlots = new CopyOnWriteChunks<>(length);
+        int firstRun = Math.min(numberOfElements, slots.length() - head);
+        slots.copyTo(head, tempSlots, 0, firstRun);
+        slots.copyTo(0, tempSlots, firstRun, numberOfElements - firstRun);
+        slots = tempSlots;
+        head = 0;
+    }
+
+
+    /**
+     * Converts a position in the list to its slot in the ring, wrapping around the end of the ring.
+     *
+     * Precondition: 0 <= position <= slots.length().
+     *
+     * @param position The position in the list
+     * @return The slot of that position in the ring.
+     */
+    private int physicalIndex(int position) {
+        int index = head + position;
+
+        // Subtract rather than use % so the hot path has no division
+        if (index >= slots.length()) {
+            index -= slots.length();
+        }
+
+        return index;
+    }
+
+
+    /**
+     * Finds the slot after the given one, wrapping to the start of the ring.
+     *
+     * @param index A slot in the ring
+     * @return The next slot in circular order.
+     */
+    private int nextIndex(int index) {
+        return (index + 1 == slots.length()) ? 0 : index + 1;
+    }
+
+
+    /**
+     * Finds the slot before the given one, wrapping to the end of the ring.
+     *
+     * @param index A slot in the ring
+     * @return The previous slot in circular order.
+     */
+    private int previousIndex(int index) {
+        return (index == 0) ? slots.length() - 1 : index - 1;
+    }
+
+
+    /**
+     * Determines if given position is a valid position within the bounds of the list.
+     *
+     * @param position The position in the list
+     * @return True if the position is valid; otherwise, returns false.
+     */
+    private boolean validPosition(int position) {
+        return position >= 0 && position < numberOfElements;
+    }
+
+}
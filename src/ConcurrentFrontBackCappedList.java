@@ -0,0 +1,460 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class ConcurrentFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A thread-safe, lock-free class that implements the ADT list with front or back entry or removal and capped to a
+ * given capacity, using a circular array.
+ *
+ * The head index and size live together in one immutable State object that is swapped with compareAndSet, so the
+ * capacity check and the size change of an add happen in a single atomic step and the list can never exceed its
+ * capacity. Each State also carries the one slot write that goes with it (a "pending" write). A thread that finds
+ * a pending write finishes it before doing its own work, so a thread that stalls halfway through an operation can
+ * never block the others.
+ *
+ * Slots hold single-use Node wrappers and every removal writes a fresh empty Node, so a slot never returns to a
+ * value it held before. That keeps late helpers from re-applying a write that has already happened.
+ */
+
+    private final AtomicReferenceArray<Node<T>> slots;
+    private final AtomicReference<State<T>> state;
+    private final int capacity;
+    private final boolean initialized;
+
+    /**
+     * Creates and initializes empty list.
+     *
+     * @param capacity The capacity of the list
+     */
+    public ConcurrentFrontBackCappedList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+
+        Node<T> empty = new Node<>(null);
+        slots = new AtomicReferenceArray<>(capacity);
+        for (int index = 0; index < capacity; index++) {
+            slots.set(index, empty);
+        }
+        state = new AtomicReference<>(new State<>(0, 0));
+        this.capacity = capacity;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        Node<T> node = new Node<>(newEntry);
+
+        while (true) {
+            State<T> current = currentState();
+            if (current.size >= capacity) {
+                return false;
+            }
+
+            int index = previousIndex(current.head);
+            State<T> next = new State<>(index, current.size + 1, index, slots.get(index), node);
+            if (state.compareAndSet(current, next)) {
+                help(next);
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        Node<T> node = new Node<>(newEntry);
+
+        while (true) {
+            State<T> current = currentState();
+            if (current.size >= capacity) {
+                return false;
+            }
+
+            int index = physicalIndex(current.head, current.size);
+            State<T> next = new State<>(current.head, current.size + 1, index, slots.get(index), node);
+            if (state.compareAndSet(current, next)) {
+                help(next);
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+
+        while (true) {
+            State<T> current = currentState();
+            if (current.size == 0) {
+                return null;
+            }
+
+            int index = current.head;
+            Node<T> removed = slots.get(index);
+            State<T> next = new State<>(nextIndex(index), current.size - 1, index, removed, new Node<>(null));
+            if (state.compareAndSet(current, next)) {
+                help(next);
+                return removed.entry;
+            }
+        }
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+
+        while (true) {
+            State<T> current = currentState();
+            if (current.size == 0) {
+                return null;
+            }
+
+            int index = physicalIndex(current.head, current.size - 1);
+            Node<T> removed = slots.get(index);
+            State<T> next = new State<>(current.head, current.size - 1, index, removed, new Node<>(null));
+            if (state.compareAndSet(current, next)) {
+                help(next);
+                return removed.entry;
+            }
+        }
+    }
+
+
+    /**
+     * Removes all entries from the list by removing from the front until the list is observed empty. Entries added
+     * by other threads while the list is being cleared may or may not remain afterwards.
+     *
+     * Postcondition: List was empty at some point during the call.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        while (!(isEmpty())) {
+            removeFront();
+        }
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, after determining if the position is valid.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+
+        while (true) {
+            State<T> current = currentState();
+            if (givenPosition < 0 || givenPosition >= current.size) {
+                return null;
+            }
+
+            T result = slots.get(physicalIndex(current.head, givenPosition)).entry;
+            if (state.get() == current) { // Assertion: slot was not reused while it was read
+                return result;
+            }
+        }
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned. The search is retried if the list changes while it runs.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+
+        while (true) {
+            State<T> current = currentState();
+            int position = -1;
+
+            // Searching from front of list
+            for (int index = 0; (position < 0) && (index < current.size); index++) {
+                if (anEntry.equals(slots.get(physicalIndex(current.head, index)).entry)) {
+                    position = index;
+                }
+            }
+
+            if (state.get() == current) {
+                return position;
+            }
+        }
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned. The search is retried if the list changes while it runs.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+
+        while (true) {
+            State<T> current = currentState();
+            int position = -1;
+
+            // Searching from back of list
+            for (int index = current.size - 1; (position < 0) && (index >= 0); index--) {
+                if (anEntry.equals(slots.get(physicalIndex(current.head, index)).entry)) {
+                    position = index;
+                }
+            }
+
+            if (state.get() == current) {
+                return position;
+            }
+        }
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return state.get().size;
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (size() == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (size() >= capacity);
+    }
+
+
+    /**
+     * Takes a read-only copy of the list from a single consistent view of it. The copy is retried if the list
+     * changes while it is made, so it never takes a lock and never holds up writers.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        while (true) {
+            State<T> current = currentState();
+            // The cast is safe because the new array contains null entries
+            @SuppressWarnings("unchecked")
+            T[] entries = (T[]) new Object[current.size]; // Unchecked cast
+            for (int index = 0; index < current.size; index++) {
+                entries[index] = slots.get(physicalIndex(current.head, index)).entry;
+            }
+
+            if (state.get() == current) {
+                return new SnapshotFrontBackCappedList<>(entries, 0, current.size, capacity);
+            }
+        }
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list, taken from a single consistent view of the list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        while (true) {
+            State<T> current = currentState();
+            Object[] entries = new Object[current.size];
+            for (int index = 0; index < current.size; index++) {
+                entries[index] = slots.get(physicalIndex(current.head, index)).entry;
+            }
+
+            if (state.get() == current) {
+                return "size=" + current.size + "; capacity=" + capacity + ";\t" + Arrays.toString(entries);
+            }
+        }
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("ConcurrentFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Reads the current state and completes its pending slot write, so the slots agree with the state.
+     *
+     * @return The current state.
+     */
+    private State<T> currentState() {
+        State<T> current = state.get();
+        help(current);
+        return current;
+    }
+
+
+    /**
+     * Completes the pending slot write of a state. The write is a compareAndSet from the node the slot held when
+     * the state was created, so it succeeds at most once no matter how many threads help.
+     *
+     * @param current The state whose pending write should be completed
+     */
+    private void help(State<T> current) {
+        if (current.pendingIndex >= 0) {
+            slots.compareAndSet(current.pendingIndex, current.expected, current.update);
+        }
+    }
+
+
+    /**
+     * Converts a position in the list to its index in the backing array, wrapping around the end of the array.
+     *
+     * @param head The index of the front of the list
+     * @param position The position in the list
+     * @return The index of that position in the backing array.
+     */
+    private int physicalIndex(int head, int position) {
+        int index = head + position;
+        return (index >= capacity) ? index - capacity : index;
+    }
+
+
+    /**
+     * Finds the array index after the given one, wrapping to the start of the array.
+     *
+     * @param index An index in the backing array
+     * @return The next index in circular order.
+     */
+    private int nextIndex(int index) {
+        return (index + 1 == capacity) ? 0 : index + 1;
+    }
+
+
+    /**
+     * Finds the array index before the given one, wrapping to the end of the array.
+     *
+     * @param index An index in the backing array
+     * @return The previous index in circular order.
+     */
+    private int previousIndex(int index) {
+        return (index == 0) ? capacity - 1 : index - 1;
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * A single-use holder for an entry, so that each slot write stores an object that was never stored before.
+     */
+    private static final class Node<T> {
+        private final T entry;
+
+        private Node(T entry) {
+            this.entry = entry;
+        }
+    }
+
+
+    /**
+     * An immutable view of the head index and size, plus the slot write that produced it.
+     */
+    private static final class State<T> {
+        private final int head;
+        private final int size;
+        private final int pendingIndex;
+        private final Node<T> expected;
+        private final Node<T> update;
+
+        private State(int head, int size) {
+            this(head, size, -1, null, null);
+        }
+
+        private State(int head, int size, int pendingIndex, Node<T> expected, Node<T> update) {
+            this.head = head;
+            this.size = size;
+            this.pendingIndex = pendingIndex;
+            this.expected = expected;
+            this.update = update;
+        }
+    }
+
+}
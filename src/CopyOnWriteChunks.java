@@ -0,0 +1,326 @@
+import java.util.Arrays;
+
+/**
+ * The slots of an array-backed capped list, held as a table of fixed-size chunks so that snapshots can share them
+ * and the list copies only the chunks it writes afterwards.
+ *
+ * A table of up to CHUNK_SIZE slots is a single chunk of exactly that length; a longer one is cut into chunks of
+ * CHUNK_SIZE slots, the last holding only the slots it needs. Slot i is slot (i & CHUNK_MASK) of chunk
+ * (i >>> CHUNK_SHIFT), so reads cost one extra load over a flat array.
+ *
+ * share() gives a snapshot its own copy of the chunk table, which is only a pointer per chunk, and starts a new
+ * epoch. A chunk may be written in place only if it was copied or created in the current epoch; otherwise the
+ * first write copies it (or, when the write covers the whole chunk, replaces it with a fresh one). So after a
+ * snapshot the list pays for at most one chunk copy per chunk it actually changes, rather than copying the whole
+ * table on its next write, and a snapshot never sees a later write.
+ *
+ * discard() drops whole chunks, so a list can give up every reference it holds in time proportional to the number
+ * of chunks instead of nulling each slot. A dropped chunk is created again, empty, by the first write to it; slots
+ * in it must not be read before then.
+ *
+ * Like the lists that use it, a table must only be used from one thread at a time.
+ */
+final class CopyOnWriteChunks<T> {
+
+	static final int CHUNK_SHIFT = 12;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final T[][] chunks;
+	private final long[] owners; // The epoch each chunk was copied or created in; only current chunks are written
+	private final int length;
+	private long epoch;
+
+	/**
+	 * Creates a table of the given number of null slots.
+	 *
+	 * @param length The number of slots
+	 */
+	CopyOnWriteChunks(int length) {
+		int chunkCount = Math.max(1, (int) (((long) length + CHUNK_MASK) >>> CHUNK_SHIFT));
+
+		// The casts are safe because the new arrays contain null entries
+		@SuppressWarnings("unchecked")
+		T[][] tempChunks = (T[][]) new Object[chunkCount][];  // Unchecked
+		chunks = tempChunks;
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			chunks[chunk] = newChunk(Math.min(CHUNK_SIZE, length - (chunk << CHUNK_SHIFT)));
+		}
+		owners = new long[chunkCount];
+		this.length = length;
+		epoch = 0;
+	}
+
+
+	/**
+	 * Retrieves the number of slots.
+	 *
+	 * @return The length of the table.
+	 */
+	int length() {
+		return length;
+	}
+
+
+	/**
+	 * Reads a slot.
+	 *
+	 * @param index The slot to read; 0 <= index < length()
+	 * @return The entry in the slot.
+	 */
+	T get(int index) {
+		return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+
+	/**
+	 * Writes a slot, first copying its chunk if a snapshot may share it.
+	 *
+	 * @param index The slot to write; 0 <= index < length()
+	 * @param entry The entry to store
+	 */
+	void set(int index, T entry) {
+		writable(index >>> CHUNK_SHIFT, true)[index & CHUNK_MASK] = entry;
+	}
+
+
+	/**
+	 * Finds the first slot in a run that holds an entry equal to the given one, scanning each chunk directly. The
+	 * run must not wrap around the end of the table.
+	 *
+	 * @param anEntry The entry to search for; its equals method is called with each slot's entry
+	 * @param from The first slot of the run
+	 * @param to One past the last slot of the run
+	 * @return The first matching slot, or -1 if the run does not hold the entry.
+	 */
+	int indexOf(T anEntry, int from, int to) {
+		while (from < to) {
+			T[] chunk = chunks[from >>> CHUNK_SHIFT];
+			int offset = from & CHUNK_MASK;
+			int end = offset + Math.min(to - from, chunk.length - offset);
+			for (int index = offset; index < end; index++) {
+				if (anEntry.equals(chunk[index])) {
+					return from + index - offset;
+				}
+			}
+			from += end - offset;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Finds the last slot in a run that holds an entry equal to the given one, scanning each chunk directly. The
+	 * run must not wrap around the end of the table.
+	 *
+	 * @param anEntry The entry to search for; its equals method is called with each slot's entry
+	 * @param from The first slot of the run
+	 * @param to One past the last slot of the run
+	 * @return The last matching slot, or -1 if the run does not hold the entry.
+	 */
+	int lastIndexOf(T anEntry, int from, int to) {
+		while (to > from) {
+			T[] chunk = chunks[(to - 1) >>> CHUNK_SHIFT];
+			int end = ((to - 1) & CHUNK_MASK) + 1;
+			int start = end - Math.min(to - from, end);
+			for (int index = end - 1; index >= start; index--) {
+				if (anEntry.equals(chunk[index])) {
+					return to - end + index;
+				}
+			}
+			to -= end - start;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Copies a run of slots into an array. The run must not wrap around the end of the table.
+	 *
+	 * @param from The first slot of the run
+	 * @param destination The array to copy to
+	 * @param destinationPosition Where in the array the first entry goes
+	 * @param count The number of slots to copy
+	 */
+	void copyOut(int from, Object[] destination, int destinationPosition, int count) {
+		while (count > 0) {
+			T[] chunk = chunks[from >>> CHUNK_SHIFT];
+			int offset = from & CHUNK_MASK;
+			int run = Math.min(count, chunk.length - offset);
+			System.arraycopy(chunk, offset, destination, destinationPosition, run);
+			from += run;
+			destinationPosition += run;
+			count -= run;
+		}
+	}
+
+
+	/**
+	 * Copies entries from an array into a run of slots. The run must not wrap around the end of the table.
+	 *
+	 * @param source The array to copy from
+	 * @param sourcePosition Where in the array the first entry is
+	 * @param to The first slot of the run
+	 * @param count The number of entries to copy
+	 */
+	void copyIn(Object[] source, int sourcePosition, int to, int count) {
+		while (count > 0) {
+			int chunk = to >>> CHUNK_SHIFT;
+			int offset = to & CHUNK_MASK;
+			int run = Math.min(count, chunkLength(chunk) - offset);
+			System.arraycopy(source, sourcePosition, writable(chunk, run < chunkLength(chunk)), offset, run);
+			to += run;
+			sourcePosition += run;
+			count -= run;
+		}
+	}
+
+
+	/**
+	 * Copies a run of slots into another table. Neither run may wrap around the end of its table.
+	 *
+	 * @param from The first slot of the run in this table
+	 * @param target The table to copy to
+	 * @param to The first slot of the run in the target table
+	 * @param count The number of slots to copy
+	 */
+	void copyTo(int from, CopyOnWriteChunks<T> target, int to, int count) {
+		while (count > 0) {
+			T[] chunk = chunks[from >>> CHUNK_SHIFT];
+			int offset = from & CHUNK_MASK;
+			int run = Math.min(count, chunk.length - offset);
+			target.copyIn(chunk, offset, to, run);
+			from += run;
+			to += run;
+			count -= run;
+		}
+	}
+
+
+	/**
+	 * Moves a run of slots to another place in the table, as System.arraycopy would within one array; the two runs
+	 * may overlap. Neither run may wrap around the end of the table.
+	 *
+	 * @param from The first slot of the run to move
+	 * @param to The slot the first entry moves to
+	 * @param count The number of slots to move
+	 */
+	void move(int from, int to, int count) {
+		if (to < from) {
+			// Moving towards the start, so copy forwards and never overwrite a slot before it is read
+			while (count > 0) {
+				int run = Math.min(count, Math.min(CHUNK_SIZE - (from & CHUNK_MASK), CHUNK_SIZE - (to & CHUNK_MASK)));
+				T[] target = writable(to >>> CHUNK_SHIFT, true);
+				System.arraycopy(chunks[from >>> CHUNK_SHIFT], from & CHUNK_MASK, target, to & CHUNK_MASK, run);
+				from += run;
+				to += run;
+				count -= run;
+			}
+		} else if (to > from) {
+			// Moving towards the end, so copy backwards from the ends of both runs
+			int fromEnd = from + count;
+			int toEnd = to + count;
+			while (count > 0) {
+				int run = Math.min(count, Math.min(((fromEnd - 1) & CHUNK_MASK) + 1, ((toEnd - 1) & CHUNK_MASK) + 1));
+				fromEnd -= run;
+				toEnd -= run;
+				T[] target = writable(toEnd >>> CHUNK_SHIFT, true);
+				System.arraycopy(chunks[fromEnd >>> CHUNK_SHIFT], fromEnd & CHUNK_MASK, target, toEnd & CHUNK_MASK, run);
+				count -= run;
+			}
+		}
+	}
+
+
+	/**
+	 * Nulls a run of slots. The run must not wrap around the end of the table. A shared chunk the run covers
+	 * completely is replaced with a fresh one rather than copied.
+	 *
+	 * @param from The first slot of the run
+	 * @param to One past the last slot of the run
+	 */
+	void fill(int from, int to) {
+		while (from < to) {
+			int chunk = from >>> CHUNK_SHIFT;
+			int offset = from & CHUNK_MASK;
+			int run = Math.min(to - from, chunkLength(chunk) - offset);
+			if (run == chunkLength(chunk) && owners[chunk] != epoch) {
+				writable(chunk, false);
+			} else {
+				Arrays.fill(writable(chunk, true), offset, offset + run, null);
+			}
+			from += run;
+		}
+	}
+
+
+	/**
+	 * Drops the chunks that hold the first slots of the table, releasing every entry in them, in time proportional
+	 * to the number of chunks. Each is created again, empty, by the next write to it, and must not be read before
+	 * then. A snapshot that shares a chunk keeps it.
+	 *
+	 * @param to One past the last slot to release; the whole chunk holding it is dropped
+	 */
+	void discard(int to) {
+		int chunkCount = (int) (((long) to + CHUNK_MASK) >>> CHUNK_SHIFT);
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			chunks[chunk] = null;
+			owners[chunk] = epoch - 1; // Not writable in place, so the next write creates the chunk
+		}
+	}
+
+
+	/**
+	 * Hands a run of slots to a new snapshot in time proportional to the number of chunks. The snapshot gets its
+	 * own copy of the chunk table, and every chunk becomes read-only to this table until it is copied again.
+	 *
+	 * @param head The slot of the snapshot's first entry
+	 * @param size The number of entries, wrapping around the end of the table
+	 * @param capacity The capacity of the list
+	 * @return A read-only list of the entries.
+	 */
+	SnapshotFrontBackCappedList<T> share(int head, int size, int capacity) {
+		epoch++;
+		return new SnapshotFrontBackCappedList<>(chunks.clone(), length, CHUNK_SHIFT, head, size, capacity);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Makes a chunk safe to write, copying it first if it belongs to an earlier epoch, or creating it if it was
+	 * dropped.
+	 *
+	 * @param chunk The chunk to write
+	 * @param keep Whether the chunk's entries must be kept; if not, a shared chunk is replaced with an empty one
+	 * @return The chunk, which may be written in place.
+	 */
+	private T[] writable(int chunk, boolean keep) {
+		if (owners[chunk] != epoch) {
+			boolean copy = keep && chunks[chunk] != null;
+			chunks[chunk] = copy ? chunks[chunk].clone() : newChunk(chunkLength(chunk));
+			owners[chunk] = epoch;
+		}
+		return chunks[chunk];
+	}
+
+
+	/**
+	 * Works out the length of a chunk from the length of the table, so it is known for a dropped chunk too.
+	 *
+	 * @param chunk The chunk
+	 * @return CHUNK_SIZE, or fewer for the last chunk of a table that is not a multiple of it.
+	 */
+	private int chunkLength(int chunk) {
+		return Math.min(CHUNK_SIZE, length - (chunk << CHUNK_SHIFT));
+	}
+
+
+	private static <T> T[] newChunk(int size) {
+		// The cast is safe because the new array contains null entries
+		@SuppressWarnings("unchecked")
+		T[] chunk = (T[]) new Object[Math.max(0, size)];  // Unchecked
+		return chunk;
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * Receives the entries a capped list drops on its own, rather than because a remove method, clear, or setCapacity
+ * was called: the entry a CircularFrontBackCappedList evicts to make room for an add, for example. Entries removed
+ * by a call are already handed to the caller and are not reported.
+ *
+ * @param <T> The type of entry in the list.
+ */
+@FunctionalInterface
+public interface EvictionListener<T> {
+
+	/**
+	 * Called once an entry has been dropped, before the method that dropped it returns. When the entry is dropped
+	 * to make room for an add, this is called before the new entry is in the list. The listener must not change
+	 * the list.
+	 *
+	 * @param entry The entry dropped, which is null only if a null entry was added
+	 * @param position The position the entry had in the list just before it was dropped
+	 */
+	void evicted(T entry, int position);
+}
@@ -0,0 +1,584 @@
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+public class ExpiringFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that implements the ADT list with front or back entry or removal and capped to a given capacity, in
+ * which every entry expires a fixed time after it was added.
+ *
+ * Every entry is stamped with its deadline when it is added. Because every entry lives for the same time, the
+ * entries added at the front expire from the middle of the list outwards, and so do the entries added at the back.
+ * The list is therefore kept as two runs: the front run holds the entries added with addFront, newest first, and
+ * the back run holds the entries added with addBack, oldest first, and the list is the front run followed by the
+ * back run. The entries to expire are always at the inner ends of the two runs, where the runs meet, so they are
+ * found without a timer wheel or a scan: every method first drops expired entries from those two ends, which
+ * costs amortized constant time per entry ever added. Removing from an end whose run is empty takes from the
+ * outer end of the other run, which keeps this layout.
+ *
+ * Expired entries are dropped, and their references released, before any method reads the list, so getEntry,
+ * indexOf, size, isFull, iteration, and toString never see them. Each one is reported to the eviction listener,
+ * if one is set, with the position it had where the runs meet; expiry drops entries from the middle of the list,
+ * so changesOnlyAtEnds is false. The clock is System.nanoTime unless another is given to the constructor.
+ */
+
+    private final Run<T> frontRun;
+    private final Run<T> backRun;
+    private final int capacity;
+    private final long timeToLive;
+    private final LongSupplier clock;
+    private long expiredCount;
+    private EvictionListener<? super T> evictionListener;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes an empty list whose entries expire after the given time.
+     *
+     * @param capacity The capacity of the list
+     * @param timeToLive How long each entry stays in the list
+     * @param unit The unit of timeToLive
+     */
+    public ExpiringFrontBackCappedList(int capacity, long timeToLive, TimeUnit unit) {
+        this(capacity, timeToLive, unit, System::nanoTime);
+    }
+
+
+    /**
+     * Creates and initializes an empty list whose entries expire after the given time, as measured by the given
+     * clock.
+     *
+     * @param capacity The capacity of the list
+     * @param timeToLive How long each entry stays in the list
+     * @param unit The unit of timeToLive
+     * @param clock A source of nanosecond timestamps that never go backwards, such as System::nanoTime
+     */
+    public ExpiringFrontBackCappedList(int capacity, long timeToLive, TimeUnit unit, LongSupplier clock) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (timeToLive <= 0 || unit == null) {
+            throw new IllegalArgumentException("Time to live must be positive.");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must not be null.");
+        }
+
+        frontRun = new Run<>(capacity);
+        backRun = new Run<>(capacity);
+        this.capacity = capacity;
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.clock = clock;
+        expiredCount = 0;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full once expired entries are dropped.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        long now = clock.getAsLong();
+        expire(now);
+        boolean result = true;
+
+        if (isFullNow()) {
+            result = false;
+        } else { // Assertion: result is true
+            frontRun.addFirst(newEntry, now + timeToLive);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full once expired entries are dropped.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        long now = clock.getAsLong();
+        expire(now);
+        boolean result = true;
+
+        if (isFullNow()) {
+            result = false;
+        } else { // Assertion: result is true
+            backRun.addLast(newEntry, now + timeToLive);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes the first entry that has not expired, if there is one.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        expire(clock.getAsLong());
+
+        if (!(frontRun.isEmpty())) {
+            return frontRun.removeFirst();
+        }
+        return backRun.isEmpty() ? null : backRun.removeFirst();
+    }
+
+
+    /**
+     * Removes the last entry that has not expired, if there is one.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        expire(clock.getAsLong());
+
+        if (!(backRun.isEmpty())) {
+            return backRun.removeLast();
+        }
+        return frontRun.isEmpty() ? null : frontRun.removeLast();
+    }
+
+
+    /**
+     * Removes all entries from the list.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        frontRun.clear();
+        backRun.clear();
+    }
+
+
+    /**
+     * Drops every entry that has expired. Every other method already does this, so calling it is only needed to
+     * release the references of expired entries when the list is not otherwise used.
+     *
+     * @return The number of entries dropped.
+     */
+    public int purgeExpired() {
+        checkInitialization();
+        return expire(clock.getAsLong());
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, after determining if the position is valid.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        expire(clock.getAsLong());
+        T result = null;
+
+        if (givenPosition >= 0 && givenPosition < frontRun.size()) {
+            result = frontRun.get(givenPosition);
+        } else if (givenPosition >= frontRun.size() && givenPosition < sizeNow()) {
+            result = backRun.get(givenPosition - frontRun.size());
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        expire(clock.getAsLong());
+        int position = -1;
+
+        // Searching from front of list
+        for (int index = 0; (position < 0) && (index < sizeNow()); index++) {
+            if (anEntry.equals(entryAt(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        expire(clock.getAsLong());
+        int position = -1;
+
+        // Searching from back of list
+        for (int index = sizeNow() - 1; (position < 0) && (index >= 0); index--) {
+            if (anEntry.equals(entryAt(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves the number of entries that have not expired.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        checkInitialization();
+        expire(clock.getAsLong());
+        return sizeNow();
+    }
+
+
+    /**
+     * Determines if the list is empty once expired entries are dropped.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (size() == 0);
+    }
+
+
+    /**
+     * Determines if the list is full once expired entries are dropped.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (size() >= capacity);
+    }
+
+
+    /**
+     * Performs an action on each entry that has not expired, from front to back. Entries are expired once, before
+     * the first one is passed on.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+        expire(clock.getAsLong());
+        for (int index = 0; index < frontRun.size(); index++) {
+            action.accept(frontRun.get(index));
+        }
+        for (int index = 0; index < backRun.size(); index++) {
+            action.accept(backRun.get(index));
+        }
+    }
+
+
+    /**
+     * Creates a spliterator over a snapshot of the list, so entries that expire while it is in use do not change
+     * its size.
+     *
+     * @return A spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return snapshot().spliterator();
+    }
+
+
+    /**
+     * Retrieves how long each entry stays in the list.
+     *
+     * @param unit The unit to express the time in
+     * @return The time to live, in the given unit.
+     */
+    public long getTimeToLive(TimeUnit unit) {
+        return unit.convert(timeToLive, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * Retrieves the number of entries that have expired since the list was created.
+     *
+     * @return The number of entries dropped because they expired.
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+
+    /**
+     * Registers the listener told about each entry that expires.
+     *
+     * @param listener The listener to report expired entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        evictionListener = listener;
+    }
+
+
+    /**
+     * Determines whether entries only enter and leave the list at its ends, which they do not: entries expire
+     * from where the two runs meet.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean changesOnlyAtEnds() {
+        return false;
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        StringJoiner entries = new StringJoiner(", ", "[", "]");
+        forEach(entry -> entries.add(String.valueOf(entry)));
+
+        return "size=" + sizeNow() + "; capacity=" + capacity + ";\t" + entries;
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("ExpiringFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Drops the expired entries, which are at the inner ends of the two runs: the oldest entry added at the front
+     * is the last of the front run, and the oldest entry added at the back is the first of the back run.
+     *
+     * @param now The current time of the clock
+     * @return The number of entries dropped.
+     */
+    private int expire(long now) {
+        int expired = 0;
+
+        // Deadlines are compared by difference so the clock may wrap around
+        while (!(frontRun.isEmpty()) && now - frontRun.lastDeadline() >= 0) {
+            report(frontRun.removeLast());
+            expired++;
+        }
+        while (!(backRun.isEmpty()) && now - backRun.firstDeadline() >= 0) {
+            report(backRun.removeFirst());
+            expired++;
+        }
+        expiredCount += expired;
+
+        return expired;
+    }
+
+
+    /**
+     * Reports an expired entry to the eviction listener. The entry has just left the inner end of its run, so the
+     * position it had is the length of the front run.
+     *
+     * @param entry The entry that expired
+     */
+    private void report(T entry) {
+        if (evictionListener != null) {
+            evictionListener.evicted(entry, frontRun.size());
+        }
+    }
+
+
+    /**
+     * Retrieves the number of entries without expiring any. Used after the entries have just been expired.
+     *
+     * @return The number of entries in the two runs.
+     */
+    private int sizeNow() {
+        return frontRun.size() + backRun.size();
+    }
+
+
+    /**
+     * Determines if the list is full without expiring any entries.
+     *
+     * @return True if the two runs together hold capacity entries.
+     */
+    private boolean isFullNow() {
+        return sizeNow() >= capacity;
+    }
+
+
+    /**
+     * Retrieves the entry at a valid position without expiring any entries.
+     *
+     * @param position The position in the list
+     * @return The entry at that position.
+     */
+    private T entryAt(int position) {
+        return (position < frontRun.size()) ? frontRun.get(position) : backRun.get(position - frontRun.size());
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * A circular deque of entries with a parallel array of their deadlines. It starts small and doubles when it
+     * runs out of room, up to the capacity of the list, so two runs together use memory in proportion to the
+     * entries they hold.
+     */
+    private static final class Run<T> {
+        private final int maximumLength;
+        private T[] entries;
+        private long[] deadlines;
+        private int head;
+        private int count;
+
+        private Run(int maximumLength) {
+            this.maximumLength = maximumLength;
+            // The cast is safe because the new array contains null entries
+            @SuppressWarnings("unchecked")
+            T[] tempEntries = (T[]) new Object[Math.min(maximumLength, 16)];  // Unchecked
+            entries = tempEntries;
+            deadlines = new long[entries.length];
+        }
+
+        private void addFirst(T entry, long deadline) {
+            ensureRoom();
+            head = (head == 0) ? entries.length - 1 : head - 1;
+            entries[head] = entry;
+            deadlines[head] = deadline;
+            count++;
+        }
+
+        private void addLast(T entry, long deadline) {
+            ensureRoom();
+            int index = physicalIndex(count);
+            entries[index] = entry;
+            deadlines[index] = deadline;
+            count++;
+        }
+
+        private T removeFirst() {
+            T result = entries[head];
+            entries[head] = null;
+            head = (head + 1 == entries.length) ? 0 : head + 1;
+            count--;
+            return result;
+        }
+
+        private T removeLast() {
+            int index = physicalIndex(count - 1);
+            T result = entries[index];
+            entries[index] = null;
+            count--;
+            return result;
+        }
+
+        private T get(int position) {
+            return entries[physicalIndex(position)];
+        }
+
+        private long firstDeadline() {
+            return deadlines[head];
+        }
+
+        private long lastDeadline() {
+            return deadlines[physicalIndex(count - 1)];
+        }
+
+        private int size() {
+            return count;
+        }
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private void clear() {
+            Arrays.fill(entries, null);
+            head = 0;
+            count = 0;
+        }
+
+        private int physicalIndex(int position) {
+            int index = head + position;
+            return (index >= entries.length) ? index - entries.length : index;
+        }
+
+        private void ensureRoom() {
+            if (count == entries.length) {
+                int length = (int) Math.min(maximumLength, 2L * entries.length);
+                // The cast is safe because the new array contains null entries
+                @SuppressWarnings("unchecked")
+                T[] larger = (T[]) new Object[length];  // Unchecked
+                long[] largerDeadlines = new long[length];
+                for (int position = 0; position < count; position++) {
+                    larger[position] = entries[physicalIndex(position)];
+                    largerDeadlines[position] = deadlines[physicalIndex(position)];
+                }
+                entries = larger;
+                deadlines = largerDeadlines;
+                head = 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+import java.nio.ByteBuffer;
+
+/**
+ * An interface for turning list entries into a fixed number of bytes and back, so a list can store them outside the
+ * Java heap. Every entry written by a codec takes exactly width() bytes.
+ *
+ * @param <T> The type of entry the codec reads and writes.
+ */
+public interface FixedWidthCodec<T> {
+
+	/** A codec for Integer entries, 4 bytes each. Null entries cannot be written. */
+	public static final FixedWidthCodec<Integer> INTEGER = new FixedWidthCodec<Integer>() {
+		public int width() {
+			return Integer.BYTES;
+		}
+
+		public void write(ByteBuffer buffer, int offset, Integer entry) {
+			buffer.putInt(offset, entry);
+		}
+
+		public Integer read(ByteBuffer buffer, int offset) {
+			return buffer.getInt(offset);
+		}
+	};
+
+	/** A codec for Long entries, 8 bytes each. Null entries cannot be written. */
+	public static final FixedWidthCodec<Long> LONG = new FixedWidthCodec<Long>() {
+		public int width() {
+			return Long.BYTES;
+		}
+
+		public void write(ByteBuffer buffer, int offset, Long entry) {
+			buffer.putLong(offset, entry);
+		}
+
+		public Long read(ByteBuffer buffer, int offset) {
+			return buffer.getLong(offset);
+		}
+	};
+
+	/** A codec for Double entries, 8 bytes each. Null entries cannot be written. */
+	public static final FixedWidthCodec<Double> DOUBLE = new FixedWidthCodec<Double>() {
+		public int width() {
+			return Double.BYTES;
+		}
+
+		public void write(ByteBuffer buffer, int offset, Double entry) {
+			buffer.putDouble(offset, entry);
+		}
+
+		public Double read(ByteBuffer buffer, int offset) {
+			return buffer.getDouble(offset);
+		}
+	};
+
+
+	/**
+	 * Gets the number of bytes every encoded entry takes.
+	 * 
+	 * @return The width of one entry in bytes.
+	 */
+	public int width();
+
+
+	/**
+	 * Encodes an entry into the buffer at an absolute offset, without changing the buffer's position.
+	 * 
+	 * @param buffer The buffer to write to.
+	 * @param offset The index of the first byte to write.
+	 * @param entry The entry to encode.
+	 */
+	public void write(ByteBuffer buffer, int offset, T entry);
+
+
+	/**
+	 * Decodes an entry from the buffer at an absolute offset, without changing the buffer's position.
+	 * 
+	 * @param buffer The buffer to read from.
+	 * @param offset The index of the first byte to read.
+	 * @return The decoded entry.
+	 */
+	public T read(ByteBuffer buffer, int offset);
+}
@@ -1,14 +1,19 @@
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * An interface for a list. 
  * Entries in a list have positions that begin with 0. 
  * Entries can only be removed or added to the beginning (front) or end (back) of the list.
  * Entries can be accessed from any position. 
  * The size of the list is limited ("capped"). When the limit is reached, no more entries can be added.
+ * Iterating over a list visits its entries from the front to the back.
  * 
  * @author Jessica Masters
  */
 
-public interface FrontBackCappedListInterface<T> {
+public interface FrontBackCappedListInterface<T> extends Iterable<T> {
 	
 	/**
 	 * Adds a new entry to the beginning of the list if the list is not full. 
@@ -116,5 +121,169 @@ public interface FrontBackCappedListInterface<T> {
 	 * @return True if the list is full, or false otherwise.
 	 */
 	public boolean isFull();
+
+
+	/**
+	 * Adds the entries of an array to the beginning of the list, one after another, until the list is full.
+	 * The result is the same as calling addFront for each entry in array order, so the last entry added
+	 * ends up at the front of the list.
+	 * 
+	 * @param newEntries The objects to be added as new entries.
+	 * @return the number of entries that were added before the list became full.
+	 */
+	public default int addAllFront(T[] newEntries) {
+		int added = 0;
+		while (added < newEntries.length && addFront(newEntries[added])) {
+			added++;
+		}
+		return added;
+	}
+
+
+	/**
+	 * Adds the entries of an array to the end of the list, in array order, until the list is full.
+	 * 
+	 * @param newEntries The objects to be added as new entries.
+	 * @return the number of entries that were added before the list became full.
+	 */
+	public default int addAllBack(T[] newEntries) {
+		int added = 0;
+		while (added < newEntries.length && addBack(newEntries[added])) {
+			added++;
+		}
+		return added;
+	}
+
+
+	/**
+	 * Adds the entries of a collection to the beginning of the list, in iteration order, until the list is full.
+	 * 
+	 * @param newEntries The objects to be added as new entries.
+	 * @return the number of entries that were added before the list became full.
+	 */
+	@SuppressWarnings("unchecked")
+	public default int addAllFront(Collection<? extends T> newEntries) {
+		return addAllFront((T[]) newEntries.toArray()); // Array is only read, so the unchecked cast is safe
+	}
+
+
+	/**
+	 * Adds the entries of a collection to the end of the list, in iteration order, until the list is full.
+	 * 
+	 * @param newEntries The objects to be added as new entries.
+	 * @return the number of entries that were added before the list became full.
+	 */
+	@SuppressWarnings("unchecked")
+	public default int addAllBack(Collection<? extends T> newEntries) {
+		return addAllBack((T[]) newEntries.toArray()); // Array is only read, so the unchecked cast is safe
+	}
+
+
+	/**
+	 * Removes up to the given number of entries from the beginning of the list.
+	 * 
+	 * @param count The number of entries to remove.
+	 * @return the removed entries, in the order repeated calls to removeFront would have returned them.
+	 */
+	public default List<T> removeFront(int count) {
+		List<T> removed = new ArrayList<>(Math.max(0, Math.min(count, size())));
+		while (removed.size() < count && !isEmpty()) {
+			removed.add(removeFront());
+		}
+		return removed;
+	}
+
+
+	/**
+	 * Removes up to the given number of entries from the end of the list.
+	 * 
+	 * @param count The number of entries to remove.
+	 * @return the removed entries, in the order repeated calls to removeBack would have returned them.
+	 */
+	public default List<T> removeBack(int count) {
+		List<T> removed = new ArrayList<>(Math.max(0, Math.min(count, size())));
+		while (removed.size() < count && !isEmpty()) {
+			removed.add(removeBack());
+		}
+		return removed;
+	}
+
+
+	/**
+	 * Registers the listener that is told about each entry the list drops on its own (see EvictionListener).
+	 * A list has at most one; a later call replaces it, and null removes it.
+	 * A list that never drops entries on its own has nothing to report, so by default the listener is ignored.
+	 * 
+	 * @param listener The listener to report dropped entries to, or null for none.
+	 */
+	public default void setEvictionListener(EvictionListener<? super T> listener) {
+	}
+
+
+	/**
+	 * Determines whether entries only enter and leave the list at its ends: each add puts its entry at the end it
+	 * names, and every entry that is removed or dropped is at the front or the back when it goes.
+	 * Decorators that track the position of every entry, such as IndexedFrontBackCappedList, require this of the
+	 * list they wrap. A list that orders its entries itself or drops them from the middle overrides this.
+	 * 
+	 * @return true unless entries can be added or dropped away from the ends.
+	 */
+	public default boolean changesOnlyAtEnds() {
+		return true;
+	}
+
+
+	/**
+	 * Takes a read-only copy of the list as it is now. Later changes to the list do not show in the snapshot,
+	 * so once taken it can be handed to and read from other threads without locking the list.
+	 * Taking the snapshot reads the list, so unless the list is thread-safe it must be called on the thread that
+	 * changes the list, or under the lock that guards its changes (BlockingFrontBackCappedList does this); a
+	 * snapshot taken from another thread while the list changes may be torn.
+	 * This default copies every entry; array-backed lists share their chunks and copy each one only on their next
+	 * change to it.
+	 * 
+	 * @return a read-only list of the current entries.
+	 */
+	public default FrontBackCappedListInterface<T> snapshot() {
+		// The cast is safe because the new array contains null entries
+		@SuppressWarnings("unchecked")
+		T[] entries = (T[]) new Object[size()]; // Unchecked cast
+		int[] position = {0};
+		forEach(entry -> entries[position[0]++] = entry);
+		return new SnapshotFrontBackCappedList<>(entries, 0, position[0], isFull() ? position[0] : -1);
+	}
+
+
+	/**
+	 * Creates an iterator over the entries of the list, from front to back.
+	 * The list must not be changed while the iterator is in use.
+	 * 
+	 * @return an iterator over the entries.
+	 */
+	public default Iterator<T> iterator() {
+		return Spliterators.iterator(spliterator());
+	}
+
+
+	/**
+	 * Creates an ordered, sized spliterator over the entries of the list that splits evenly in half,
+	 * so parallel streams divide the work equally.
+	 * 
+	 * @return a spliterator over the entries.
+	 */
+	public default Spliterator<T> spliterator() {
+		return new CappedListSpliterator<>(this);
+	}
+
+
+	/**
+	 * Creates a stream of the entries of the list, from front to back. Call parallel() on the result
+	 * to process the entries on several threads.
+	 * 
+	 * @return a stream of the entries.
+	 */
+	public default Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
 	
 } 
@@ -0,0 +1,430 @@
+import java.util.*;
+
+public class IndexedFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that adds a hash index to another FrontBackCappedListInterface, so contains, indexOf, and lastIndexOf
+ * run in constant expected time instead of scanning the list.
+ *
+ * Every entry gets a sequence number when it is added: adding to the back uses the number after the last entry,
+ * adding to the front uses the number before the first entry. The index maps each entry to the sorted sequence
+ * numbers of its copies, and an entry's position is its sequence number minus the sequence number of the front.
+ * Front operations only move that front number, so no position ever has to be renumbered.
+ *
+ * Positions are only stable while entries enter and leave at the ends, so the wrapped list must be one whose
+ * changesOnlyAtEnds is true; a TopKFrontBackCappedList or ExpiringFrontBackCappedList is refused. The index
+ * registers itself as the wrapped list's eviction listener, so an entry the list drops on its own, such as the one
+ * an evicting CircularFrontBackCappedList evicts to make room, leaves the index like a remove. A listener set on
+ * this object is told about those entries in turn. All changes must go through this object; changing the wrapped
+ * list directly, or replacing its eviction listener, leaves the index out of date.
+ */
+
+    private final FrontBackCappedListInterface<T> list;
+    private final Map<T, Positions> index;
+    private long firstSequence;
+    private EvictionListener<? super T> evictionListener;
+    private boolean initialized = false;
+
+    /**
+     * Creates an index over the given list, indexing any entries it already holds.
+     *
+     * @param list The list to index, which must only change at its ends
+     */
+    public IndexedFrontBackCappedList(FrontBackCappedListInterface<T> list) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must not be null.");
+        }
+        if (!(list.changesOnlyAtEnds())) {
+            throw new IllegalArgumentException("List must only change at its ends to be indexed.");
+        }
+
+        this.list = list;
+        index = new HashMap<>();
+        firstSequence = 0;
+        for (int position = 0; position < list.size(); position++) {
+            positionsOf(list.getEntry(position)).addLast(position);
+        }
+        list.setEvictionListener(this::evicted);
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full, and records it in the index. If the wrapped
+     * list evicts an entry to make room, the eviction listener has already dropped it from the index.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        boolean result = list.addFront(newEntry);
+
+        if (result) {
+            firstSequence--;
+            positionsOf(newEntry).addFirst(firstSequence);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full, and records it in the index. If the wrapped list
+     * evicts an entry to make room, the eviction listener has already dropped it from the index.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        boolean result = list.addBack(newEntry);
+
+        if (result) {
+            // The new entry is now the last, whether or not one was evicted
+            positionsOf(newEntry).addLast(firstSequence + list.size() - 1);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty, and drops it from the index.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = list.removeFront();
+            dropFront(result);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty, and drops it from the index.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = list.removeBack();
+            dropBack(result);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list and the index.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        list.clear();
+        index.clear();
+        firstSequence = 0;
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+
+        return list.getEntry(givenPosition);
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry by looking up the first of its sequence numbers.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        int position = -1;
+        Positions positions = index.get(anEntry);
+
+        if (positions != null) {
+            position = (int) (positions.first() - firstSequence);
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry by looking up the last of its sequence numbers.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        int position = -1;
+        Positions positions = index.get(anEntry);
+
+        if (positions != null) {
+            position = (int) (positions.last() - firstSequence);
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        checkInitialization();
+
+        return index.containsKey(anEntry);
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return list.isFull();
+    }
+
+
+    /**
+     * Registers the listener told about each entry the wrapped list drops on its own, after it has left the index.
+     *
+     * @param listener The listener to report dropped entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        evictionListener = listener;
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the wrapped list. The snapshot has no index of its own.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        return list.snapshot();
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the wrapped list.
+     */
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("IndexedFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Finds the sequence numbers recorded for an entry, creating an empty record if there is none yet.
+     *
+     * @param anEntry The entry to look up
+     * @return The sequence numbers of every copy of the entry.
+     */
+    private Positions positionsOf(T anEntry) {
+        Positions positions = index.get(anEntry);
+
+        if (positions == null) {
+            positions = new Positions();
+            index.put(anEntry, positions);
+        }
+
+        return positions;
+    }
+
+
+    /**
+     * Drops the front entry of the list from the index after it has left the wrapped list.
+     *
+     * @param entry The entry that was at the front
+     */
+    private void dropFront(T entry) {
+        // The front entry has the lowest sequence number of all, so it is the first of its copies
+        Positions positions = index.get(entry);
+        positions.removeFirst();
+        if (positions.isEmpty()) {
+            index.remove(entry);
+        }
+        firstSequence++;
+    }
+
+
+    /**
+     * Drops the back entry of the list from the index after it has left the wrapped list.
+     *
+     * @param entry The entry that was at the back
+     */
+    private void dropBack(T entry) {
+        // The back entry has the highest sequence number of all, so it is the last of its copies
+        Positions positions = index.get(entry);
+        positions.removeLast();
+        if (positions.isEmpty()) {
+            index.remove(entry);
+        }
+    }
+
+
+    /**
+     * Drops an entry the wrapped list dropped on its own from the index. The list only changes at its ends, so the
+     * entry was at the front if its position was 0 and at the back otherwise.
+     *
+     * @param entry The entry that was dropped
+     * @param position The position it had
+     */
+    private void evicted(T entry, int position) {
+        if (position == 0) {
+            dropFront(entry);
+        } else {
+            dropBack(entry);
+        }
+
+        if (evictionListener != null) {
+            evictionListener.evicted(entry, position);
+        }
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * A small circular deque of sorted sequence numbers that stores them unboxed. Most entries appear once, so it
+     * starts with room for two numbers and doubles when it runs out.
+     */
+    private static final class Positions {
+        private long[] sequences = new long[2];
+        private int head;
+        private int count;
+
+        private void addFirst(long sequence) {
+            ensureRoom();
+            head = (head == 0) ? sequences.length - 1 : head - 1;
+            sequences[head] = sequence;
+            count++;
+        }
+
+        private void addLast(long sequence) {
+            ensureRoom();
+            sequences[(head + count) % sequences.length] = sequence;
+            count++;
+        }
+
+        private void removeFirst() {
+            head = (head + 1) % sequences.length;
+            count--;
+        }
+
+        private void removeLast() {
+            count--;
+        }
+
+        private long first() {
+            return sequences[head];
+        }
+
+        private long last() {
+            return sequences[(head + count - 1) % sequences.length];
+        }
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private void ensureRoom() {
+            if (count == sequences.length) {
+                long[] larger = new long[sequences.length * 2];
+                for (int position = 0; position < count; position++) {
+                    larger[position] = sequences[(head + position) % sequences.length];
+                }
+                sequences = larger;
+                head = 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,770 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class InstrumentedFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that adds counters and latency histograms to another FrontBackCappedListInterface, so its behaviour can
+ * be watched in production.
+ *
+ * For every operation it counts the calls, the calls that were rejected because the list was full or empty, and
+ * the time each call took. indexOf and lastIndexOf also add to an estimate of the equals comparisons they cost,
+ * worked out from the position found as if the wrapped list scanned for it; contains is passed to the wrapped
+ * list's own contains and adds nothing, since its answer does not say how far a scan went.
+ * The bulk adds and removes, forEach, and spliterator are passed to the wrapped list whole, so its block copies
+ * are kept, and each counts as one call. Counters are striped LongAdders and each histogram keeps a stripe of
+ * buckets per group of threads, so threads that share an instrumented thread-safe list do not contend on the
+ * counters. Call metrics() to read the data.
+ *
+ * Instrumentation starts disabled. While it is disabled every call goes straight to the wrapped list after one
+ * volatile read, and the clock is never read.
+ */
+
+    private final FrontBackCappedListInterface<T> list;
+    private final EnumMap<Operation, Counters> counters;
+    private final LongAdder comparisons;
+    private volatile boolean enabled;
+    private boolean initialized = false;
+
+    /**
+     * Creates an instrumented view of the given list with instrumentation disabled.
+     *
+     * @param list The list to instrument
+     */
+    public InstrumentedFrontBackCappedList(FrontBackCappedListInterface<T> list) {
+        this(list, false);
+    }
+
+
+    /**
+     * Creates an instrumented view of the given list.
+     *
+     * @param list The list to instrument
+     * @param enabled Whether to start recording right away
+     */
+    public InstrumentedFrontBackCappedList(FrontBackCappedListInterface<T> list, boolean enabled) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must not be null.");
+        }
+
+        this.list = list;
+        counters = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            counters.put(operation, new Counters());
+        }
+        comparisons = new LongAdder();
+        this.enabled = enabled;
+        initialized = true;
+    }
+
+
+    /**
+     * Turns recording on or off. Data recorded so far is kept.
+     *
+     * @param enabled Whether to record calls from now on
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+
+    /**
+     * Determines if calls are being recorded.
+     *
+     * @return True if instrumentation is enabled; otherwise, returns false.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full, counting a rejection if it is.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        if (!enabled) {
+            return list.addFront(newEntry);
+        }
+
+        long start = System.nanoTime();
+        boolean result = list.addFront(newEntry);
+        record(Operation.ADD_FRONT, start, !result);
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full, counting a rejection if it is.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        if (!enabled) {
+            return list.addBack(newEntry);
+        }
+
+        long start = System.nanoTime();
+        boolean result = list.addBack(newEntry);
+        record(Operation.ADD_BACK, start, !result);
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty, counting a rejection if it is.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        if (!enabled) {
+            return list.removeFront();
+        }
+
+        long start = System.nanoTime();
+        boolean empty = list.isEmpty();
+        T result = list.removeFront();
+        record(Operation.REMOVE_FRONT, start, empty);
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty, counting a rejection if it is.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        if (!enabled) {
+            return list.removeBack();
+        }
+
+        long start = System.nanoTime();
+        boolean empty = list.isEmpty();
+        T result = list.removeBack();
+        record(Operation.REMOVE_BACK, start, empty);
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+        if (!enabled) {
+            list.clear();
+            return;
+        }
+
+        long start = System.nanoTime();
+        list.clear();
+        record(Operation.CLEAR, start, false);
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, counting a rejection if the position is out of bounds.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        if (!enabled) {
+            return list.getEntry(givenPosition);
+        }
+
+        long start = System.nanoTime();
+        T result = list.getEntry(givenPosition);
+        record(Operation.GET_ENTRY, start, givenPosition < 0 || givenPosition >= list.size());
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry, adding the comparisons a front-to-back scan would make
+     * to the estimate.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        if (!enabled) {
+            return list.indexOf(anEntry);
+        }
+
+        long start = System.nanoTime();
+        int result = list.indexOf(anEntry);
+        record(Operation.INDEX_OF, start, false);
+        comparisons.add((result < 0) ? list.size() : result + 1);
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry, adding the comparisons a back-to-front scan would make
+     * to the estimate.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        if (!enabled) {
+            return list.lastIndexOf(anEntry);
+        }
+
+        long start = System.nanoTime();
+        int result = list.lastIndexOf(anEntry);
+        record(Operation.LAST_INDEX_OF, start, false);
+        int size = list.size();
+        comparisons.add((result < 0) ? size : size - result);
+
+        return result;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list with the wrapped list's own contains, which may answer without
+     * finding the position. It adds nothing to the comparisons estimate.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        checkInitialization();
+        if (!enabled) {
+            return list.contains(anEntry);
+        }
+
+        long start = System.nanoTime();
+        boolean result = list.contains(anEntry);
+        record(Operation.CONTAINS, start, false);
+
+        return result;
+    }
+
+
+    /**
+     * Adds the entries of an array to the beginning of the list until it is full, counting a rejection if any
+     * entry did not fit.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllFront(T[] newEntries) {
+        checkInitialization();
+        if (!enabled) {
+            return list.addAllFront(newEntries);
+        }
+
+        long start = System.nanoTime();
+        int added = list.addAllFront(newEntries);
+        record(Operation.ADD_ALL_FRONT, start, added < newEntries.length);
+
+        return added;
+    }
+
+
+    /**
+     * Adds the entries of an array to the end of the list until it is full, counting a rejection if any entry did
+     * not fit.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllBack(T[] newEntries) {
+        checkInitialization();
+        if (!enabled) {
+            return list.addAllBack(newEntries);
+        }
+
+        long start = System.nanoTime();
+        int added = list.addAllBack(newEntries);
+        record(Operation.ADD_ALL_BACK, start, added < newEntries.length);
+
+        return added;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list, counting a rejection if the list
+     * ran out first.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        if (!enabled) {
+            return list.removeFront(count);
+        }
+
+        long start = System.nanoTime();
+        List<T> removed = list.removeFront(count);
+        record(Operation.REMOVE_FRONT_COUNT, start, removed.size() < count);
+
+        return removed;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the end of the list, counting a rejection if the list ran out
+     * first.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeBack would have returned them.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        checkInitialization();
+        if (!enabled) {
+            return list.removeBack(count);
+        }
+
+        long start = System.nanoTime();
+        List<T> removed = list.removeBack(count);
+        record(Operation.REMOVE_BACK_COUNT, start, removed.size() < count);
+
+        return removed;
+    }
+
+
+    /**
+     * Performs an action on each entry of the list, from front to back. The time recorded includes the action's.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+        if (!enabled) {
+            list.forEach(action);
+            return;
+        }
+
+        long start = System.nanoTime();
+        list.forEach(action);
+        record(Operation.FOR_EACH, start, false);
+    }
+
+
+    /**
+     * Creates the wrapped list's spliterator, so iterator() and stream() use it too. Only its creation is
+     * recorded; traversing it is not.
+     *
+     * @return A spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        checkInitialization();
+        if (!enabled) {
+            return list.spliterator();
+        }
+
+        long start = System.nanoTime();
+        Spliterator<T> result = list.spliterator();
+        record(Operation.SPLITERATOR, start, false);
+
+        return result;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return list.isFull();
+    }
+
+
+    /**
+     * Copies the data recorded so far. Counters keep running while the copy is made, so the numbers of a busy
+     * list may be off by the few calls that finished during the copy.
+     *
+     * @return The recorded counters and histograms.
+     */
+    public Snapshot metrics() {
+        EnumMap<Operation, OperationSnapshot> operations = new EnumMap<>(Operation.class);
+        for (Map.Entry<Operation, Counters> entry : counters.entrySet()) {
+            operations.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        return new Snapshot(operations, comparisons.sum());
+    }
+
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public void reset() {
+        for (Counters operationCounters : counters.values()) {
+            operationCounters.reset();
+        }
+        comparisons.reset();
+    }
+
+
+    /**
+     * Registers the listener the wrapped list reports its evictions to. Evictions are not recorded.
+     *
+     * @param listener The listener to report dropped entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+
+        list.setEvictionListener(listener);
+    }
+
+
+    /**
+     * Determines whether entries only enter and leave the wrapped list at its ends.
+     *
+     * @return True if the wrapped list only changes at its ends.
+     */
+    @Override
+    public boolean changesOnlyAtEnds() {
+        return list.changesOnlyAtEnds();
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the wrapped list. Calls on the snapshot are not recorded.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        return list.snapshot();
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the wrapped list.
+     */
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("InstrumentedFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Records one finished call.
+     *
+     * @param operation The operation that was called
+     * @param start The System.nanoTime() reading taken before the call
+     * @param rejected Whether the call was turned away because the list was full, empty, or out of bounds
+     */
+    private void record(Operation operation, long start, boolean rejected) {
+        Counters operationCounters = counters.get(operation);
+
+        operationCounters.calls.increment();
+        if (rejected) {
+            operationCounters.rejections.increment();
+        }
+        operationCounters.latency.record(System.nanoTime() - start);
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * The operations that are counted.
+     */
+    public static enum Operation {
+        ADD_FRONT, ADD_BACK, REMOVE_FRONT, REMOVE_BACK, CLEAR, GET_ENTRY, INDEX_OF, LAST_INDEX_OF, CONTAINS,
+        ADD_ALL_FRONT, ADD_ALL_BACK, REMOVE_FRONT_COUNT, REMOVE_BACK_COUNT, FOR_EACH, SPLITERATOR;
+
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+
+    /**
+     * The live counters of one operation.
+     */
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private OperationSnapshot snapshot() {
+            return new OperationSnapshot(calls.sum(), rejections.sum(), latency.counts());
+        }
+
+        private void reset() {
+            calls.reset();
+            rejections.reset();
+            latency.reset();
+        }
+    }
+
+
+    /**
+     * A histogram of latencies in nanoseconds laid out the way HdrHistogram lays out its buckets. Values below 64
+     * get one bucket each; above that, every power of two is split into 32 equal buckets, so any recorded value is
+     * off by at most 1/32 (about 3%) whatever its size.
+     *
+     * The buckets are striped: each thread records into the stripe its id maps to, so threads on different stripes
+     * never write the same cache line, and reading the histogram adds the stripes up. A stripe is created the first
+     * time a thread that maps to it records, so a list used from one thread holds a single stripe. After that,
+     * recording is one atomic increment and never allocates.
+     */
+    private static final class LatencyHistogram {
+        private static final int LINEAR_BUCKETS = 64;
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int FIRST_EXPONENT = 6;
+        private static final int BUCKETS = LINEAR_BUCKETS + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+        private static final int STRIPES =
+                Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+        private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+        private void record(long nanos) {
+            int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            AtomicLongArray buckets = stripes.get(stripe);
+            if (buckets == null) {
+                stripes.compareAndSet(stripe, null, new AtomicLongArray(BUCKETS));
+                buckets = stripes.get(stripe);
+            }
+            buckets.incrementAndGet(bucketOf(Math.max(0, nanos)));
+        }
+
+        private long[] counts() {
+            long[] counts = new long[BUCKETS];
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                AtomicLongArray buckets = stripes.get(stripe);
+                for (int bucket = 0; buckets != null && bucket < BUCKETS; bucket++) {
+                    counts[bucket] += buckets.get(bucket);
+                }
+            }
+            return counts;
+        }
+
+        private void reset() {
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                AtomicLongArray buckets = stripes.get(stripe);
+                for (int bucket = 0; buckets != null && bucket < BUCKETS; bucket++) {
+                    buckets.set(bucket, 0);
+                }
+            }
+        }
+
+        private static int bucketOf(long value) {
+            if (value < LINEAR_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long highestValueIn(int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket;
+            }
+            int exponent = FIRST_EXPONENT + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+            long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (1L << exponent) + (subBucket + 1) * width - 1;
+        }
+    }
+
+
+    /**
+     * The counters and latency histogram of one operation at the moment a snapshot was taken.
+     */
+    public static final class OperationSnapshot {
+        private final long calls;
+        private final long rejections;
+        private final long[] latencyCounts;
+
+        private OperationSnapshot(long calls, long rejections, long[] latencyCounts) {
+            this.calls = calls;
+            this.rejections = rejections;
+            this.latencyCounts = latencyCounts;
+        }
+
+        /**
+         * @return The number of recorded calls.
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return The number of calls rejected because the list was full, empty, or the position was out of bounds.
+         */
+        public long getRejections() {
+            return rejections;
+        }
+
+        /**
+         * Finds the latency that the given fraction of calls did not exceed, to within about 3%.
+         *
+         * @param fraction A number from 0 to 1, such as 0.99 for the 99th percentile
+         * @return The latency in nanoseconds, or 0 if nothing was recorded.
+         */
+        public long getLatencyPercentile(double fraction) {
+            long total = 0;
+            for (long count : latencyCounts) {
+                total += count;
+            }
+            long rank = (long) Math.ceil(total * Math.min(1.0, Math.max(0.0, fraction)));
+            long seen = 0;
+            for (int bucket = 0; bucket < latencyCounts.length; bucket++) {
+                seen += latencyCounts[bucket];
+                if (seen > 0 && seen >= rank) {
+                    return LatencyHistogram.highestValueIn(bucket);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return The highest recorded latency in nanoseconds, to within about 3%, or 0 if nothing was recorded.
+         */
+        public long getMaxLatency() {
+            return getLatencyPercentile(1.0);
+        }
+
+        public String toString() {
+            return "calls=" + calls + "; rejections=" + rejections + "; p50=" + getLatencyPercentile(0.50) +
+                    "ns; p99=" + getLatencyPercentile(0.99) + "ns; p99.9=" + getLatencyPercentile(0.999) +
+                    "ns; max=" + getMaxLatency() + "ns";
+        }
+    }
+
+
+    /**
+     * All of the data of an instrumented list at the moment a snapshot was taken.
+     */
+    public static final class Snapshot {
+        private final Map<Operation, OperationSnapshot> operations;
+        private final long comparisons;
+
+        private Snapshot(EnumMap<Operation, OperationSnapshot> operations, long comparisons) {
+            this.operations = Collections.unmodifiableMap(operations);
+            this.comparisons = comparisons;
+        }
+
+        /**
+         * @param operation The operation to look up
+         * @return The counters and latencies of the operation.
+         */
+        public OperationSnapshot get(Operation operation) {
+            return operations.get(operation);
+        }
+
+        /**
+         * @return The counters and latencies of every operation, in declaration order.
+         */
+        public Map<Operation, OperationSnapshot> getOperations() {
+            return operations;
+        }
+
+        /**
+         * @return An estimate of the equals comparisons made by the recorded indexOf and lastIndexOf calls: the
+         *         number a front-to-back or back-to-front scan would make to reach the position found. A list
+         *         with an index, or one that scans in blocks, does different work.
+         */
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        public String toString() {
+            StringBuilder result = new StringBuilder("comparisons=" + comparisons);
+            for (Map.Entry<Operation, OperationSnapshot> entry : operations.entrySet()) {
+                if (entry.getValue().getCalls() > 0) {
+                    result.append("\n").append(entry.getKey()).append(": ").append(entry.getValue());
+                }
+            }
+            return result.toString();
+        }
+    }
+
+}
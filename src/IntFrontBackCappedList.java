@@ -0,0 +1,322 @@
+public class IntFrontBackCappedList {
+
+/**
+ * A class that implements the ADT list with front or back entry or removal and capped to a given capacity,
+ * specialized for int entries. Entries are stored unboxed in a circular int array, so adds, removes, and searches
+ * never allocate and never call equals. Searches scan the run up to the end of the array and the wrapped run with
+ * PrimitiveSearch, testing eight slots per branch.
+ *
+ * Because an int cannot be null, removeFront, removeBack, and getEntry return the list's "no entry" value when the
+ * list is empty or the position is invalid. It is 0 unless another value is given to the constructor.
+ */
+
+    private int[] list;
+    private int head;
+    private int numberOfElements;
+    private final int noEntryValue;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes empty list that reports missing entries as 0.
+     *
+     * @param capacity The capacity of the list
+     */
+    public IntFrontBackCappedList(int capacity) {
+        this(capacity, 0);
+    }
+
+
+    /**
+     * Creates and initializes empty list.
+     *
+     * @param capacity The capacity of the list
+     * @param noEntryValue The value returned in place of an entry when there is none to return
+     */
+    public IntFrontBackCappedList(int capacity, int noEntryValue) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+
+        list = new int[capacity];
+        head = 0;
+        numberOfElements = 0;
+        this.noEntryValue = noEntryValue;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full.
+     *
+     * @param newEntry The value to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if array is full.
+     */
+    public boolean addFront(int newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull()) {
+            result = false;
+        } else { // Assertion: result is true
+            head = (head == 0) ? list.length - 1 : head - 1;
+            list[head] = newEntry;
+            numberOfElements++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full.
+     *
+     * @param newEntry The value to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if array is full.
+     */
+    public boolean addBack(int newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull()) {
+            result = false;
+        } else { // Assertion: result is true
+            list[physicalIndex(numberOfElements)] = newEntry;
+            numberOfElements++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty.
+     *
+     * @return The removed entry or the no entry value if the list is empty.
+     */
+    public int removeFront() {
+        checkInitialization();
+        int result = noEntryValue;
+
+        if (!(isEmpty())) {
+            result = list[head];
+            head = (head + 1 == list.length) ? 0 : head + 1;
+            numberOfElements--;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty.
+     *
+     * @return The removed entry or the no entry value if the list is empty.
+     */
+    public int removeBack() {
+        checkInitialization();
+        int result = noEntryValue;
+
+        if (!(isEmpty())) {
+            result = list[physicalIndex(numberOfElements - 1)];
+            numberOfElements--;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list. There are no references to release, so this runs in constant time.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    public void clear() {
+        checkInitialization();
+
+        head = 0;
+        numberOfElements = 0;
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, after determining if the position is valid.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return The indicated entry or the no entry value if the index is out of bounds.
+     */
+    public int getEntry(int givenPosition) {
+        checkInitialization();
+        int result = noEntryValue;
+
+        if (validPosition(givenPosition)) { // Assertion: list is not empty
+            result = list[physicalIndex(givenPosition)];
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the value to search for in the list.
+     * @return The first position that the entry was found or -1 if the value is not found.
+     */
+    public int indexOf(int anEntry) {
+        checkInitialization();
+        int position = -1;
+        int firstRun = Math.min(numberOfElements, list.length - head);
+
+        // Searching from front of list: first the run up to the end of the array, then the wrapped run
+        int index = PrimitiveSearch.indexOf(list, head, head + firstRun, anEntry);
+        if (index >= 0) {
+            position = index - head;
+        } else {
+            index = PrimitiveSearch.indexOf(list, 0, numberOfElements - firstRun, anEntry);
+            if (index >= 0) {
+                position = index + firstRun;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the value to search for in the list.
+     * @return The last position that the entry was found or -1 if the value is not found.
+     */
+    public int lastIndexOf(int anEntry) {
+        checkInitialization();
+        int position = -1;
+        int firstRun = Math.min(numberOfElements, list.length - head);
+
+        // Searching from back of list: first the wrapped run, then the run up to the end of the array
+        int index = PrimitiveSearch.lastIndexOf(list, 0, numberOfElements - firstRun, anEntry);
+        if (index >= 0) {
+            position = index + firstRun;
+        } else {
+            index = PrimitiveSearch.lastIndexOf(list, head, head + firstRun, anEntry);
+            if (index >= 0) {
+                position = index - head;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the value to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    public boolean contains(int anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    public int size() {
+        return numberOfElements;
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    public boolean isEmpty() {
+        return (numberOfElements == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    public boolean isFull() {
+        return (numberOfElements >= list.length);
+    }
+
+
+    /**
+     * Retrieves the value that stands in for a missing entry.
+     *
+     * @return The value returned by removes and getEntry when there is no entry to return.
+     */
+    public int getNoEntryValue() {
+        return noEntryValue;
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("size=" + numberOfElements + "; capacity=" + list.length + ";\t[");
+        for (int index = 0; index < numberOfElements; index++) {
+            if (index > 0) {
+                result.append(", ");
+            }
+            result.append(list[physicalIndex(index)]);
+        }
+
+        return result.append(']').toString();
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("IntFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Converts a position in the list to its index in the backing array, wrapping around the end of the array.
+     *
+     * @param position The position in the list
+     * @return The index of that position in the backing array.
+     */
+    private int physicalIndex(int position) {
+        int index = head + position;
+        return (index >= list.length) ? index - list.length : index;
+    }
+
+
+    /**
+     * Determines if given position is a valid position within the bounds of the list.
+     *
+     * @param position The position in the list
+     * @return True if the position is valid; otherwise, returns false.
+     */
+    private boolean validPosition(int position) {
+        return position >= 0 && position < numberOfElements;
+    }
+
+}
@@ -13,7 +13,7 @@ public class ListFrontBackCappedList<T> implements FrontBackCappedListInterface<
 
     private List<T> list;
     private boolean initialized = false;
-    private final int capacity;
+    private int capacity;
 
 
     /**
@@ -221,6 +221,121 @@ public class ListFrontBackCappedList<T> implements FrontBackCappedListInterface<
     }
 
 
+    /**
+     * Adds the entries of an array to the beginning of the list until it is full. The existing entries are shifted
+     * once for the whole batch rather than once per entry.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllFront(T[] newEntries) {
+        checkInitialization();
+        int added = Math.max(0, Math.min(newEntries.length, capacity - list.size()));
+
+        // Each entry goes in front of the one before it, so the batch is inserted in reverse order
+        List<T> batch = new ArrayList<>(Arrays.asList(newEntries).subList(0, added));
+        Collections.reverse(batch);
+        list.addAll(0, batch);
+
+        return added;
+    }
+
+
+    /**
+     * Adds the entries of an array to the end of the list until it is full.
+     *
+     * @param newEntries The objects to be added as new entries.
+     * @return The number of entries that were added before the list became full.
+     */
+    @Override
+    public int addAllBack(T[] newEntries) {
+        checkInitialization();
+        int added = Math.max(0, Math.min(newEntries.length, capacity - list.size()));
+
+        list.addAll(Arrays.asList(newEntries).subList(0, added));
+
+        return added;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list, shifting the remaining entries once.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        List<T> front = list.subList(0, Math.max(0, Math.min(count, list.size())));
+        List<T> result = new ArrayList<>(front);
+
+        front.clear();
+
+        return result;
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the end of the list.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeBack would have returned them.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        checkInitialization();
+        List<T> back = list.subList(list.size() - Math.max(0, Math.min(count, list.size())), list.size());
+        List<T> result = new ArrayList<>(back);
+
+        Collections.reverse(result);
+        back.clear();
+
+        return result;
+    }
+
+
+    /**
+     * Retrieves the number of entries the list can hold.
+     *
+     * @return The capacity of the list.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Changes the number of entries the list can hold. If the list holds more entries than the new capacity, the
+     * extra entries are removed from the end the trim policy names and returned in one list. Raising the capacity
+     * allocates nothing; the ArrayList grows as entries are added. Lowering it trims the ArrayList to its size.
+     *
+     * @param newCapacity The new capacity of the list
+     * @param trimPolicy Which end to remove entries from if the list is over the new capacity
+     * @return The removed entries, in the order removeFront(int) or removeBack(int) returns them.
+     */
+    public List<T> setCapacity(int newCapacity, TrimPolicy trimPolicy) {
+        checkInitialization();
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (trimPolicy == null) {
+            throw new IllegalArgumentException("Trim policy must not be null.");
+        }
+
+        int excess = Math.max(0, list.size() - newCapacity);
+        List<T> removed = (trimPolicy == TrimPolicy.DROP_FRONT) ? removeFront(excess) : removeBack(excess);
+
+        if (newCapacity < capacity && list instanceof ArrayList) {
+            ((ArrayList<T>) list).trimToSize();
+        }
+        capacity = newCapacity;
+
+        return removed;
+    }
+
+
     /**
      * Retrieves number of entries and capacity of list.
      *
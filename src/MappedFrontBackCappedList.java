@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedFrontBackCappedList<T> extends OffHeapFrontBackCappedList<T> {
+
+/**
+ * A class that implements the ADT list with front or back entry or removal and capped to a given capacity, storing
+ * its entries in a memory-mapped file so the list survives a restart of the program.
+ *
+ * The file starts with a header holding the capacity, the entry width, and the head index and size of the list;
+ * the slots follow it. Every add or remove writes its entry first and then rewrites the head index and size as a
+ * single 8-byte value, so a process that dies between two operations leaves a consistent file. Opening an existing
+ * file reads the header and uses the slots where they are, without replaying anything. A new file gets its magic
+ * number last, so a file a crash left with an unfinished header is set up afresh on the next open, not refused.
+ *
+ * Changes reach the operating system's page cache immediately, which is enough to survive the program crashing.
+ * To survive the machine losing power they must also be forced to disk: either call force() or give a force
+ * interval, and the list forces itself after that many changes.
+ */
+
+    private static final int MAGIC = 0x46424346; // "FBCF"
+    private static final int VERSION = 1;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int WIDTH_OFFSET = 12;
+    private static final int STATE_OFFSET = 16;
+    private static final int HEADER_SIZE = 32;
+
+    private final int forceInterval;
+    private int unforcedChanges;
+
+    /**
+     * Opens the list stored in a file, creating the file with an empty list if it does not exist yet. Changes are
+     * only forced to disk by force() and close().
+     *
+     * @param file The file holding the list
+     * @param capacity The capacity of the list; must match the capacity stored in an existing file
+     * @param codec The codec that encodes and decodes entries; must match the width stored in an existing file
+     */
+    public MappedFrontBackCappedList(Path file, int capacity, FixedWidthCodec<T> codec) {
+        this(file, capacity, codec, 0);
+    }
+
+
+    /**
+     * Opens the list stored in a file, creating the file with an empty list if it does not exist yet.
+     *
+     * @param file The file holding the list
+     * @param capacity The capacity of the list; must match the capacity stored in an existing file
+     * @param codec The codec that encodes and decodes entries; must match the width stored in an existing file
+     * @param forceInterval The number of changes after which the list forces itself to disk, or 0 to never do so
+     *                      automatically
+     */
+    public MappedFrontBackCappedList(Path file, int capacity, FixedWidthCodec<T> codec, int forceInterval) {
+        this(map(file, capacity, codec), capacity, codec, forceInterval);
+    }
+
+
+    /**
+     * Creates the list over a file that has already been mapped and checked.
+     *
+     * @param buffer The mapped file
+     * @param capacity The capacity of the list
+     * @param codec The codec that encodes and decodes entries
+     * @param forceInterval The number of changes after which the list forces itself to disk, or 0 for never
+     */
+    private MappedFrontBackCappedList(MappedByteBuffer buffer, int capacity, FixedWidthCodec<T> codec,
+                                      int forceInterval) {
+        super(buffer, HEADER_SIZE, capacity, codec, headOf(buffer.getLong(STATE_OFFSET)),
+                sizeOf(buffer.getLong(STATE_OFFSET)));
+        if (forceInterval < 0) {
+            throw new IllegalArgumentException("Force interval must not be negative.");
+        }
+
+        this.forceInterval = forceInterval;
+        unforcedChanges = 0;
+    }
+
+
+    /**
+     * Writes every change made so far to the storage device.
+     */
+    public void force() {
+        ByteBuffer buffer = buffer();
+
+        if (buffer == null) {
+            throw new SecurityException("MappedFrontBackCappedList object is not initialized properly or is closed.");
+        }
+        ((MappedByteBuffer) buffer).force();
+        unforcedChanges = 0;
+    }
+
+
+    /**
+     * Forces every change to disk and unmaps the file. The list cannot be used afterwards. Closing a list twice has
+     * no further effect.
+     */
+    @Override
+    public void close() {
+        if (buffer() != null) {
+            force();
+        }
+        super.close();
+    }
+
+    /*
+    ************************
+    PACKAGE-PRIVATE METHODS:
+    ************************
+    */
+
+    /**
+     * Records the new head index and size in the file header, and forces the file to disk if the force interval
+     * has been reached.
+     */
+    @Override
+    void stateChanged() {
+        buffer().putLong(STATE_OFFSET, ((long) head() << 32) | (size() & 0xFFFFFFFFL));
+        unforcedChanges++;
+
+        if (forceInterval > 0 && unforcedChanges >= forceInterval) {
+            force();
+        }
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Maps a list file, writing a fresh header if the file is new and checking the header if it is not.
+     *
+     * @param file The file holding the list
+     * @param capacity The capacity of the list
+     * @param codec The codec that encodes and decodes entries
+     * @return The whole file, mapped read-write.
+     * @throws UncheckedIOException if the file cannot be opened or mapped.
+     * @throws IllegalArgumentException if the file does not hold a list with this capacity and entry width.
+     */
+    private static <T> MappedByteBuffer map(Path file, int capacity, FixedWidthCodec<T> codec) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (codec == null || codec.width() <= 0) {
+            throw new IllegalArgumentException("Codec must not be null and must have a positive width.");
+        }
+        long length = HEADER_SIZE + (long) capacity * codec.width();
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity times entry width must fit in a single mapping.");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() != 0 && channel.size() != length) {
+                throw new IllegalArgumentException("File " + file + " does not hold a list of this capacity.");
+            }
+
+            // Mapping extends a new file to its full length before the header is written, so a crash in between
+            // leaves a file of the right length whose header is unfinished; that file is set up as if it were new
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (unfinishedHeader(buffer, capacity, codec.width())) {
+                buffer.putInt(4, VERSION);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                buffer.putInt(WIDTH_OFFSET, codec.width());
+                buffer.putLong(STATE_OFFSET, 0L);
+                buffer.force();
+                buffer.putInt(0, MAGIC); // Written last, once the rest of the header is on disk
+                buffer.force();
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(CAPACITY_OFFSET) != capacity || buffer.getInt(WIDTH_OFFSET) != codec.width()
+                    || !validState(buffer.getLong(STATE_OFFSET), capacity)) {
+                release(buffer);
+                throw new IllegalArgumentException("File " + file + " does not hold a list with this capacity "
+                        + "and entry width.");
+            }
+
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map " + file, e);
+        }
+    }
+
+
+    /**
+     * Determines if a mapped file holds a header this class started but did not finish writing. The magic is written
+     * last, so such a header has no magic yet, and each other field is either still zero or already holds the value
+     * that was being written; a brand new file, all zeros, is the simplest case.
+     *
+     * @param buffer The mapped file
+     * @param capacity The capacity of the list
+     * @param width The width of an entry
+     * @return True if the header should be written from scratch; otherwise, returns false.
+     */
+    private static boolean unfinishedHeader(MappedByteBuffer buffer, int capacity, int width) {
+        int version = buffer.getInt(4);
+        int storedCapacity = buffer.getInt(CAPACITY_OFFSET);
+        int storedWidth = buffer.getInt(WIDTH_OFFSET);
+
+        return buffer.getInt(0) == 0 && (version == 0 || version == VERSION)
+                && (storedCapacity == 0 || storedCapacity == capacity) && (storedWidth == 0 || storedWidth == width)
+                && buffer.getLong(STATE_OFFSET) == 0L;
+    }
+
+
+    /**
+     * Determines if a stored head index and size describe a list that fits in the file.
+     *
+     * @param state The head index and size packed into one value
+     * @param capacity The capacity of the list
+     * @return True if the state is usable; otherwise, returns false.
+     */
+    private static boolean validState(long state, int capacity) {
+        int head = headOf(state);
+        int size = sizeOf(state);
+
+        return size >= 0 && size <= capacity && head >= 0 && (head < capacity || (capacity == 0 && head == 0));
+    }
+
+
+    /**
+     * Unpacks the head index from a stored state.
+     *
+     * @param state The head index and size packed into one value
+     * @return The head index.
+     */
+    private static int headOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+
+    /**
+     * Unpacks the size from a stored state.
+     *
+     * @param state The head index and size packed into one value
+     * @return The size.
+     */
+    private static int sizeOf(long state) {
+        return (int) state;
+    }
+
+}
@@ -0,0 +1,517 @@
+import java.util.*;
+
+public class ObservableFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that publishes every change made to another FrontBackCappedListInterface as a stream of mutation events,
+ * so other components can keep an exact replica of the list without comparing copies of it.
+ *
+ * Each successful add or remove is recorded as one event holding its mutation type and the entry added or
+ * removed; rejected adds and removes from an empty list record nothing. The events only describe changes at the
+ * ends, so the wrapped list must be one whose changesOnlyAtEnds is true; a TopKFrontBackCappedList or
+ * ExpiringFrontBackCappedList is refused. This object registers as the wrapped list's eviction listener, so an
+ * entry the list drops on its own, such as the one an evicting CircularFrontBackCappedList evicts to make room, is
+ * recorded as the remove it is, before the add; a listener set with setEvictionListener is told about it in turn.
+ * Events are written into arrays allocated once, when the list is created, and are handed to the listeners
+ * in batches: when the buffer is full, or when flush() is called. Recording an event therefore never allocates.
+ *
+ * A listener sees the mutations made after it was added. Replaying them in order with Batch.applyTo on a copy taken
+ * with snapshot() right after adding the listener keeps that copy equal to this list after every flush. Listeners
+ * are called on the thread that fills the buffer or calls flush, and must not change this list. Like the lists it
+ * wraps, this class is not thread-safe. All changes must go through this object; changes made to the wrapped list
+ * directly, or after its eviction listener is replaced, are not published.
+ */
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final FrontBackCappedListInterface<T> list;
+    private final List<Listener<? super T>> listeners;
+    private final Mutation[] mutations;
+    private final T[] entries;
+    private final Batch<T> batch;
+    private int pending;
+    private EvictionListener<? super T> evictionListener;
+    private boolean initialized = false;
+
+    /**
+     * Creates an observable view of the given list that publishes in batches of up to 256 events.
+     *
+     * @param list The list to observe
+     */
+    public ObservableFrontBackCappedList(FrontBackCappedListInterface<T> list) {
+        this(list, DEFAULT_BATCH_SIZE);
+    }
+
+
+    /**
+     * Creates an observable view of the given list.
+     *
+     * @param list The list to observe, which must only change at its ends
+     * @param batchSize The number of events buffered before they are published
+     */
+    public ObservableFrontBackCappedList(FrontBackCappedListInterface<T> list, int batchSize) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must not be null.");
+        }
+        if (!(list.changesOnlyAtEnds())) {
+            throw new IllegalArgumentException("List must only change at its ends to be observed.");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than zero.");
+        }
+
+        this.list = list;
+        listeners = new ArrayList<>();
+        mutations = new Mutation[batchSize];
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        T[] tempEntries = (T[]) new Object[batchSize];  // Unchecked
+        entries = tempEntries;
+        batch = new Batch<>(mutations, entries);
+        pending = 0;
+        list.setEvictionListener(this::evicted);
+        initialized = true;
+    }
+
+
+    /**
+     * Registers a listener for the mutations made from now on. Events already buffered are published to the
+     * existing listeners first, so a snapshot taken right after this call is where the new listener's events
+     * start.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(Listener<? super T> listener) {
+        checkInitialization();
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null.");
+        }
+
+        flush();
+        listeners.add(listener);
+    }
+
+
+    /**
+     * Unregisters a listener after publishing the events already buffered to it.
+     *
+     * @param listener The listener to remove
+     * @return True if the listener was registered.
+     */
+    public boolean removeListener(Listener<? super T> listener) {
+        checkInitialization();
+        flush();
+        return listeners.remove(listener);
+    }
+
+
+    /**
+     * Publishes the buffered events to every listener, as one batch, and empties the buffer.
+     */
+    public void flush() {
+        checkInitialization();
+        if (pending == 0) {
+            return;
+        }
+
+        batch.size = pending;
+        try {
+            for (int index = 0; index < listeners.size(); index++) {
+                listeners.get(index).onBatch(batch);
+            }
+        } finally {
+            Arrays.fill(entries, 0, pending, null);
+            pending = 0;
+            batch.size = 0;
+        }
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full, and records the mutation. If the wrapped list
+     * evicts an entry to make room, the eviction listener has already recorded its remove.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        boolean result = list.addFront(newEntry);
+
+        if (result) {
+            record(Mutation.ADD_FRONT, newEntry);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full, and records the mutation. If the wrapped list evicts
+     * an entry to make room, the eviction listener has already recorded its remove.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        boolean result = list.addBack(newEntry);
+
+        if (result) {
+            record(Mutation.ADD_BACK, newEntry);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty, and records the mutation.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        T result = null;
+
+        if (!(list.isEmpty())) {
+            result = list.removeFront();
+            record(Mutation.REMOVE_FRONT, result);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty, and records the mutation.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        T result = null;
+
+        if (!(list.isEmpty())) {
+            result = list.removeBack();
+            record(Mutation.REMOVE_BACK, result);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list and records the mutation.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        list.clear();
+        record(Mutation.CLEAR, null);
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the wrapped list.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        return list.getEntry(givenPosition);
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        return list.indexOf(anEntry);
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        return list.lastIndexOf(anEntry);
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        checkInitialization();
+        return list.contains(anEntry);
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return list.isFull();
+    }
+
+
+    /**
+     * Registers the listener told about each entry the wrapped list drops on its own, after its remove has been
+     * recorded.
+     *
+     * @param listener The listener to report dropped entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        evictionListener = listener;
+    }
+
+
+    /**
+     * Takes a read-only snapshot of the wrapped list.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        return list.snapshot();
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the wrapped list.
+     */
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("ObservableFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Appends an event to the buffer, publishing the buffer first if it is full. Nothing is recorded while there
+     * are no listeners.
+     *
+     * @param mutation The kind of change
+     * @param entry The entry added or removed, or null for CLEAR
+     */
+    private void record(Mutation mutation, T entry) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (pending == mutations.length) {
+            flush();
+        }
+
+        mutations[pending] = mutation;
+        entries[pending] = entry;
+        pending++;
+    }
+
+
+    /**
+     * Records an entry the wrapped list dropped on its own as a remove. The list only changes at its ends, so the
+     * entry was at the front if its position was 0 and at the back otherwise.
+     *
+     * @param entry The entry that was dropped
+     * @param position The position it had
+     */
+    private void evicted(T entry, int position) {
+        record((position == 0) ? Mutation.REMOVE_FRONT : Mutation.REMOVE_BACK, entry);
+
+        if (evictionListener != null) {
+            evictionListener.evicted(entry, position);
+        }
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * The kinds of change that are published.
+     */
+    public static enum Mutation {
+        ADD_FRONT, ADD_BACK, REMOVE_FRONT, REMOVE_BACK, CLEAR;
+
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+
+    /**
+     * Receives the mutations of an observable list in batches.
+     *
+     * @param <T> The type of entry in the list.
+     */
+    @FunctionalInterface
+    public interface Listener<T> {
+
+        /**
+         * Called with each batch of mutations, in the order they were made. The batch is only valid during the
+         * call; its contents are replaced by the next batch.
+         *
+         * @param batch The mutations.
+         */
+        void onBatch(Batch<? extends T> batch);
+    }
+
+
+    /**
+     * A read-only view of the buffered events, reused for every batch so publishing does not allocate.
+     *
+     * @param <T> The type of entry in the list.
+     */
+    public static final class Batch<T> {
+        private final Mutation[] mutations;
+        private final T[] entries;
+        private int size;
+
+        private Batch(Mutation[] mutations, T[] entries) {
+            this.mutations = mutations;
+            this.entries = entries;
+        }
+
+        /**
+         * Retrieves the number of events in the batch.
+         *
+         * @return The number of events.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Retrieves the kind of one event.
+         *
+         * @param index The position of the event in the batch
+         * @return The kind of change.
+         */
+        public Mutation getMutation(int index) {
+            Objects.checkIndex(index, size);
+            return mutations[index];
+        }
+
+        /**
+         * Retrieves the entry of one event.
+         *
+         * @param index The position of the event in the batch
+         * @return The entry added or removed, or null for CLEAR.
+         */
+        public T getEntry(int index) {
+            Objects.checkIndex(index, size);
+            return entries[index];
+        }
+
+        /**
+         * Replays every event of the batch, in order, on a replica of the observed list.
+         *
+         * @param replica The list to change
+         */
+        public void applyTo(FrontBackCappedListInterface<? super T> replica) {
+            for (int index = 0; index < size; index++) {
+                switch (mutations[index]) {
+                    case ADD_FRONT:
+                        replica.addFront(entries[index]);
+                        break;
+                    case ADD_BACK:
+                        replica.addBack(entries[index]);
+                        break;
+                    case REMOVE_FRONT:
+                        replica.removeFront();
+                        break;
+                    case REMOVE_BACK:
+                        replica.removeBack();
+                        break;
+                    default:
+                        replica.clear();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner events = new StringJoiner(", ", "[", "]");
+            for (int index = 0; index < size; index++) {
+                events.add(mutations[index] + (mutations[index] == Mutation.CLEAR ? "" : " " + entries[index]));
+            }
+            return events.toString();
+        }
+    }
+
+}
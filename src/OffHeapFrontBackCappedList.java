@@ -0,0 +1,478 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+public class OffHeapFrontBackCappedList<T> implements FrontBackCappedListInterface<T>, AutoCloseable {
+
+/**
+ * A class that implements the ADT list with front or back entry or removal and capped to a given capacity, storing
+ * its entries outside the Java heap in a direct ByteBuffer. Entries are written and read by a FixedWidthCodec, so
+ * the garbage collector never has to trace them, and the slots are used as a circular array so every add and
+ * remove runs in constant time.
+ *
+ * Entries read back from the list are new objects decoded from the buffer, so they are equal to, but not the same
+ * objects as, the entries that were added.
+ *
+ * The memory is released by close(); after that every operation throws a SecurityException.
+ */
+
+    private ByteBuffer buffer;
+    private final FixedWidthCodec<T> codec;
+    private final int width;
+    private final int dataOffset;
+    private final int capacity;
+    private int head;
+    private int numberOfElements;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes empty list in newly allocated direct memory.
+     *
+     * @param capacity The capacity of the list
+     * @param codec The codec that encodes and decodes entries
+     */
+    public OffHeapFrontBackCappedList(int capacity, FixedWidthCodec<T> codec) {
+        this(allocate(capacity, codec), 0, capacity, codec, 0, 0);
+    }
+
+
+    /**
+     * Creates and initializes a list over a buffer that already holds its entries. Used by subclasses that keep
+     * the entries somewhere other than freshly allocated memory.
+     *
+     * @param buffer The buffer holding the slots
+     * @param dataOffset The index in the buffer of the first slot
+     * @param capacity The capacity of the list
+     * @param codec The codec that encodes and decodes entries
+     * @param head The slot holding the front of the list
+     * @param numberOfElements The number of entries already in the list
+     */
+    OffHeapFrontBackCappedList(ByteBuffer buffer, int dataOffset, int capacity, FixedWidthCodec<T> codec,
+                               int head, int numberOfElements) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (codec == null || codec.width() <= 0) {
+            throw new IllegalArgumentException("Codec must not be null and must have a positive width.");
+        }
+
+        this.buffer = buffer;
+        this.codec = codec;
+        width = codec.width();
+        this.dataOffset = dataOffset;
+        this.capacity = capacity;
+        this.head = head;
+        this.numberOfElements = numberOfElements;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull()) {
+            result = false;
+        } else { // Assertion: result is true
+            int newHead = (head == 0) ? capacity - 1 : head - 1;
+            codec.write(buffer, offsetOf(newHead), newEntry); // Encode first so a codec failure changes nothing
+            head = newHead;
+            numberOfElements++;
+            stateChanged();
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull()) {
+            result = false;
+        } else { // Assertion: result is true
+            codec.write(buffer, offsetOf(physicalIndex(numberOfElements)), newEntry);
+            numberOfElements++;
+            stateChanged();
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty.
+     *
+     * @return The removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = codec.read(buffer, offsetOf(head));
+            head = (head + 1 == capacity) ? 0 : head + 1;
+            numberOfElements--;
+            stateChanged();
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty.
+     *
+     * @return The removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            result = codec.read(buffer, offsetOf(physicalIndex(numberOfElements - 1)));
+            numberOfElements--;
+            stateChanged();
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list. The slots hold no references, so this runs in constant time.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        head = 0;
+        numberOfElements = 0;
+        stateChanged();
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, after determining if the position is valid.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return The indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        T result = null;
+
+        if (validPosition(givenPosition)) { // Assertion: list is not empty
+            result = codec.read(buffer, offsetOf(physicalIndex(givenPosition)));
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        int position = -1;
+
+        // Searching from front of list
+        for (int index = 0; (position < 0) && (index < numberOfElements); index++) {
+            if (anEntry.equals(getEntry(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        int position = -1;
+
+        // Searching from back of list
+        for (int index = numberOfElements - 1; (position < 0) && (index >= 0); index--) {
+            if (anEntry.equals(getEntry(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return numberOfElements;
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (numberOfElements == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (numberOfElements >= capacity);
+    }
+
+
+    /**
+     * Releases the memory holding the entries. The list cannot be used afterwards. Closing a list twice has no
+     * further effect.
+     */
+    @Override
+    public void close() {
+        if (initialized) {
+            initialized = false;
+            release(buffer);
+            buffer = null;
+        }
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        checkInitialization();
+        StringBuilder result = new StringBuilder("size=" + numberOfElements + "; capacity=" + capacity + ";\t[");
+        for (int index = 0; index < numberOfElements; index++) {
+            if (index > 0) {
+                result.append(", ");
+            }
+            result.append(getEntry(index));
+        }
+
+        return result.append(']').toString();
+    }
+
+    /*
+    ************************
+    PACKAGE-PRIVATE METHODS:
+    ************************
+    */
+
+    /**
+     * Called after every change to the head index or size. Does nothing here; subclasses that keep the list state
+     * outside this object record it.
+     */
+    void stateChanged() {
+    }
+
+
+    /**
+     * Retrieves the slot holding the front of the list.
+     *
+     * @return The head index.
+     */
+    int head() {
+        return head;
+    }
+
+
+    /**
+     * Retrieves the buffer holding the slots, for subclasses that manage it directly.
+     *
+     * @return The buffer, or null once the list is closed.
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+
+    /**
+     * Retrieves the codec the entries are stored with.
+     *
+     * @return The codec of the list.
+     */
+    FixedWidthCodec<T> codec() {
+        return codec;
+    }
+
+
+    /**
+     * Creates read-only views of the bytes of the entries, from front to back, without copying them. The entries
+     * are at most two runs of the buffer: one up to the end of the buffer and one for the part that wraps around.
+     * The views are only valid until the list is next changed or closed.
+     *
+     * @return One or two buffers that hold the encoded entries between their position and limit.
+     */
+    ByteBuffer[] encodedRuns() {
+        checkInitialization();
+        int firstRun = Math.min(numberOfElements, capacity - head);
+        ByteBuffer first = buffer.asReadOnlyBuffer();
+        first.limit(offsetOf(head + firstRun)).position(offsetOf(head));
+
+        if (firstRun == numberOfElements) {
+            return new ByteBuffer[] {first};
+        }
+
+        ByteBuffer second = buffer.asReadOnlyBuffer();
+        second.limit(offsetOf(numberOfElements - firstRun)).position(offsetOf(0));
+        return new ByteBuffer[] {first, second};
+    }
+
+
+    /**
+     * Finds the byte offset of a slot in the buffer.
+     *
+     * @param slot The index of the slot
+     * @return The index in the buffer of the slot's first byte.
+     */
+    int offsetOf(int slot) {
+        return dataOffset + slot * width;
+    }
+
+
+    /**
+     * Frees a direct or mapped buffer right away instead of waiting for the garbage collector to find it. The
+     * buffer must not be used afterwards. If the JVM does not allow this, the memory is freed when the buffer is
+     * collected instead.
+     *
+     * @param buffer The buffer to release
+     */
+    static void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect()) {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall back to the buffer's cleaner running when it is garbage collected
+            }
+        }
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized and has not been closed.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("OffHeapFrontBackCappedList object is not initialized properly or is closed.");
+        }
+    }
+
+
+    /**
+     * Allocates direct memory for the given number of entries.
+     *
+     * @param capacity The capacity of the list
+     * @param codec The codec whose width sets the size of each slot
+     * @return A direct buffer with room for every slot.
+     */
+    private static <T> ByteBuffer allocate(int capacity, FixedWidthCodec<T> codec) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (codec == null || codec.width() <= 0) {
+            throw new IllegalArgumentException("Codec must not be null and must have a positive width.");
+        }
+        if ((long) capacity * codec.width() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity times entry width must fit in a single buffer.");
+        }
+
+        return ByteBuffer.allocateDirect(capacity * codec.width());
+    }
+
+
+    /**
+     * Converts a position in the list to its slot index, wrapping around the end of the buffer.
+     *
+     * @param position The position in the list
+     * @return The index of the slot holding that position.
+     */
+    private int physicalIndex(int position) {
+        int index = head + position;
+        return (index >= capacity) ? index - capacity : index;
+    }
+
+
+    /**
+     * Determines if given position is a valid position within the bounds of the list.
+     *
+     * @param position The position in the list
+     * @return True if the position is valid; otherwise, returns false.
+     */
+    private boolean validPosition(int position) {
+        return position >= 0 && position < numberOfElements;
+    }
+
+}
@@ -0,0 +1,18 @@
+/**
+ * The ways a capped list can respond to an add when it is already full.
+ */
+public enum OverflowPolicy {
+
+	/** The new entry is not added and the add reports failure. This is how every capped list behaves by default. */
+	REJECT,
+
+	/** The entry at the other end of the list is removed to make room, so the list works as a sliding window. */
+	EVICT_OPPOSITE_END,
+
+	/** The entry at the end being added to is replaced by the new entry. */
+	EVICT_SAME_END;
+
+	public String toString() {
+		return super.toString().toLowerCase();
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * Linear searches over a run of an int or long array, used by the primitive capped lists for indexOf,
+ * lastIndexOf, and contains.
+ *
+ * The run is scanned in blocks of eight slots. Each block is tested with non-short-circuit ORs of the eight
+ * comparisons, which compile to flag-setting compares and no branches, so there is one well-predicted branch per
+ * block instead of one per slot and the eight loads are independent of each other. Only the block that holds a
+ * match is scanned again slot by slot, and so is the short tail of the run that does not fill a block.
+ */
+final class PrimitiveSearch {
+
+	private static final int BLOCK = 8;
+
+	private PrimitiveSearch() {
+	}
+
+
+	/**
+	 * Finds the first slot in a run of an int array that holds a value.
+	 *
+	 * @param array The array to search.
+	 * @param from The first slot of the run.
+	 * @param to One past the last slot of the run.
+	 * @param key The value to search for.
+	 * @return The index in the array of the first match, or -1 if the run does not hold the value.
+	 */
+	static int indexOf(int[] array, int from, int to, int key) {
+		int index = from;
+		for (; index <= to - BLOCK; index += BLOCK) {
+			if ((array[index] == key) | (array[index + 1] == key) | (array[index + 2] == key)
+					| (array[index + 3] == key) | (array[index + 4] == key) | (array[index + 5] == key)
+					| (array[index + 6] == key) | (array[index + 7] == key)) {
+				break;
+			}
+		}
+		for (; index < to; index++) {
+			if (array[index] == key) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+
+	/**
+	 * Finds the last slot in a run of an int array that holds a value.
+	 *
+	 * @param array The array to search.
+	 * @param from The first slot of the run.
+	 * @param to One past the last slot of the run.
+	 * @param key The value to search for.
+	 * @return The index in the array of the last match, or -1 if the run does not hold the value.
+	 */
+	static int lastIndexOf(int[] array, int from, int to, int key) {
+		int index = to;
+		for (; index - BLOCK >= from; index -= BLOCK) {
+			int start = index - BLOCK;
+			if ((array[start] == key) | (array[start + 1] == key) | (array[start + 2] == key)
+					| (array[start + 3] == key) | (array[start + 4] == key) | (array[start + 5] == key)
+					| (array[start + 6] == key) | (array[start + 7] == key)) {
+				break;
+			}
+		}
+		for (index--; index >= from; index--) {
+			if (array[index] == key) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+
+	/**
+	 * Finds the first slot in a run of a long array that holds a value.
+	 *
+	 * @param array The array to search.
+	 * @param from The first slot of the run.
+	 * @param to One past the last slot of the run.
+	 * @param key The value to search for.
+	 * @return The index in the array of the first match, or -1 if the run does not hold the value.
+	 */
+	static int indexOf(long[] array, int from, int to, long key) {
+		int index = from;
+		for (; index <= to - BLOCK; index += BLOCK) {
+			if ((array[index] == key) | (array[index + 1] == key) | (array[index + 2] == key)
+					| (array[index + 3] == key) | (array[index + 4] == key) | (array[index + 5] == key)
+					| (array[index + 6] == key) | (array[index + 7] == key)) {
+				break;
+			}
+		}
+		for (; index < to; index++) {
+			if (array[index] == key) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+
+	/**
+	 * Finds the last slot in a run of a long array that holds a value.
+	 *
+	 * @param array The array to search.
+	 * @param from The first slot of the run.
+	 * @param to One past the last slot of the run.
+	 * @param key The value to search for.
+	 * @return The index in the array of the last match, or -1 if the run does not hold the value.
+	 */
+	static int lastIndexOf(long[] array, int from, int to, long key) {
+		int index = to;
+		for (; index - BLOCK >= from; index -= BLOCK) {
+			int start = index - BLOCK;
+			if ((array[start] == key) | (array[start + 1] == key) | (array[start + 2] == key)
+					| (array[start + 3] == key) | (array[start + 4] == key) | (array[start + 5] == key)
+					| (array[start + 6] == key) | (array[start + 7] == key)) {
+				break;
+			}
+		}
+		for (index--; index >= from; index--) {
+			if (array[index] == key) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+}
@@ -0,0 +1,693 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A benchmark harness for the FrontBackCappedListInterface implementations, for the scenarios that are not single
+ * calls on one thread: footprint and GC pauses, bulk operations, persistence, handoffs between threads, and
+ * replication. Each section prints a header and then one line per scenario it measures.
+ *
+ * Worker threads keep what they compute in a Sink of their own and publish it once when they finish, so the results
+ * that keep the JIT from discarding their work are never written to a field another thread writes too.
+ *
+ * These are quick comparisons. The jmh module of the Maven build runs the rest under JMH: the single operations of
+ * each list at each capacity and fill level, the primitive search, contention and ingestion from many threads, and
+ * the single-producer handoff, with throughput, average time, and latency percentiles, and allocation through
+ * -prof gc.
+ *
+ * Run with no arguments to run every section, or name the sections to run, for example:
+ *     java ProjectBBenchmark bulk
+ */
+public class ProjectBBenchmark {
+
+	private static final int[] CAPACITIES = {16, 256, 4_096, 65_536, 1_048_576};
+	private static final long MEASURE_NANOS = 50_000_000L;
+	private static final int CONTENDED_CAPACITY = 1_024;
+	private static final int FOOTPRINT_CAPACITY = 1_048_576;
+	private static final int BULK_CAPACITY = 65_536;
+	private static final int BULK_REPETITIONS = 5;
+	private static final int GC_CAPACITY = 4_194_304;
+	private static final int GC_REPETITIONS = 5;
+	private static final int[] FORCE_INTERVALS = {0, 10_000, 100, 1};
+	private static final int[] PRODUCER_COUNTS = {1, 2, 4, 8};
+	private static final int HANDOFF_CAPACITY = 1_024;
+	private static final int HANDOFFS_PER_PRODUCER = 500_000;
+	private static final int PIPELINE_CAPACITY = 1_024;
+	private static final int SEGMENTED_CAPACITY = 16_777_216;
+	private static final double[] SEGMENTED_FILL_LEVELS = {0.0, 0.001, 0.01, 0.1, 0.5, 1.0};
+	private static final long SEARCH_SLOTS = 1L << 24;
+	private static final int INGEST_CAPACITY = 65_536;
+	private static final int INGEST_BATCH = 1_024;
+	private static final int[] REPLICA_COUNTS = {1, 2, 4};
+	private static final int[] IN_FLIGHT_WINDOWS = {1_024, 65_536};
+	private static final int REPLICATED_ADDS = 2_000_000;
+
+	private static final Map<String, IntFunction<FrontBackCappedListInterface<Integer>>> IMPLEMENTATIONS =
+			new LinkedHashMap<>();
+
+	static {
+		IMPLEMENTATIONS.put("Array", ArrayFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("List", ListFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("Circular", CircularFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("Concurrent", ConcurrentFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("Indexed", capacity -> new IndexedFrontBackCappedList<>(new CircularFrontBackCappedList<>(capacity)));
+		IMPLEMENTATIONS.put("OffHeap", capacity -> new OffHeapFrontBackCappedList<>(capacity, FixedWidthCodec.INTEGER));
+		IMPLEMENTATIONS.put("Segmented", SegmentedFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("Expiring", capacity -> new ExpiringFrontBackCappedList<>(capacity, 1, TimeUnit.HOURS));
+		IMPLEMENTATIONS.put("Observable", capacity -> {
+			ObservableFrontBackCappedList<Integer> observable = new ObservableFrontBackCappedList<>(new CircularFrontBackCappedList<>(capacity));
+			observable.addListener(batch -> ProjectBBenchmark.blackhole += batch.size());
+			return observable;
+		});
+		IMPLEMENTATIONS.put("Instr-off", capacity -> new InstrumentedFrontBackCappedList<>(new CircularFrontBackCappedList<>(capacity)));
+		IMPLEMENTATIONS.put("Instr-on", capacity -> new InstrumentedFrontBackCappedList<>(new CircularFrontBackCappedList<>(capacity), true));
+	}
+
+	private static Integer[] values = new Integer[0];
+	private static final Random random = new Random(42);
+	private static int blackhole; // Written only by the main thread
+	private static final AtomicLong published = new AtomicLong(); // Where worker threads' sinks end up
+
+
+	public static void main(String[] args) {
+		Set<String> sections = new HashSet<>(Arrays.asList(args));
+
+		if (sections.isEmpty() || sections.contains("footprint")) {
+			benchmarkFootprint();
+		}
+		if (sections.isEmpty() || sections.contains("bulk")) {
+			benchmarkBulk();
+		}
+		if (sections.isEmpty() || sections.contains("offheap")) {
+			benchmarkOffHeap();
+		}
+		if (sections.isEmpty() || sections.contains("mapped")) {
+			benchmarkMapped();
+		}
+		if (sections.isEmpty() || sections.contains("blocking")) {
+			benchmarkBlocking();
+		}
+		if (sections.isEmpty() || sections.contains("segmented")) {
+			benchmarkSegmented();
+		}
+		if (sections.isEmpty() || sections.contains("serialize")) {
+			benchmarkSerialize();
+		}
+		if (sections.isEmpty() || sections.contains("aggregate")) {
+			benchmarkAggregate();
+		}
+		if (sections.isEmpty() || sections.contains("topk")) {
+			benchmarkTopK();
+		}
+		if (sections.isEmpty() || sections.contains("replication")) {
+			benchmarkReplication();
+		}
+	}
+
+	/*
+	 * Sections. Each one prints a header followed by one line per measured scenario.
+	 */
+
+	public static void benchmarkFootprint() {
+		System.out.println("*****************************BENCHMARKING FOOTPRINT*****************************");
+		System.out.printf("%-26s %9s %14s %14s%n", "impl", "entries", "retained MB", "allocated MB");
+		int count = FOOTPRINT_CAPACITY;
+		measureFootprint("Circular<Integer>", count, () -> {
+			FrontBackCappedListInterface<Integer> list = new CircularFrontBackCappedList<>(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index + 1_000); // Outside the Integer cache, like real metric values
+			}
+			return list;
+		});
+		measureFootprint("IntFrontBackCappedList", count, () -> {
+			IntFrontBackCappedList list = new IntFrontBackCappedList(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index + 1_000);
+			}
+			return list;
+		});
+		measureFootprint("Circular<Long>", count, () -> {
+			FrontBackCappedListInterface<Long> list = new CircularFrontBackCappedList<>(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index + 1_000L);
+			}
+			return list;
+		});
+		measureFootprint("LongFrontBackCappedList", count, () -> {
+			LongFrontBackCappedList list = new LongFrontBackCappedList(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index + 1_000L);
+			}
+			return list;
+		});
+		measureFootprint("Circular<Double>", count, () -> {
+			FrontBackCappedListInterface<Double> list = new CircularFrontBackCappedList<>(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index * 0.5);
+			}
+			return list;
+		});
+		measureFootprint("DoubleFrontBackCappedList", count, () -> {
+			DoubleFrontBackCappedList list = new DoubleFrontBackCappedList(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index * 0.5);
+			}
+			return list;
+		});
+	}
+
+	public static void benchmarkBulk() {
+		System.out.println("*****************************BENCHMARKING BULK OPERATIONS*****************************");
+		System.out.printf("%-10s %9s %-16s %14s %14s %9s%n", "impl", "entries", "operation", "loop us", "bulk us", "speedup");
+		Integer[] entries = Arrays.copyOf(values(BULK_CAPACITY), BULK_CAPACITY);
+		for (Map.Entry<String, IntFunction<FrontBackCappedListInterface<Integer>>> implementation : IMPLEMENTATIONS.entrySet()) {
+			FrontBackCappedListInterface<Integer> list = implementation.getValue().apply(BULK_CAPACITY);
+			String name = implementation.getKey();
+
+			reportBulk(name, "fill front", bestOf(() -> {
+				list.clear();
+				for (Integer entry : entries) {
+					list.addFront(entry);
+				}
+			}), bestOf(() -> {
+				list.clear();
+				list.addAllFront(entries);
+			}));
+			reportBulk(name, "fill back", bestOf(() -> {
+				list.clear();
+				for (Integer entry : entries) {
+					list.addBack(entry);
+				}
+			}), bestOf(() -> {
+				list.clear();
+				list.addAllBack(entries);
+			}));
+			reportBulk(name, "drain front", bestOf(() -> {
+				refill(list, BULK_CAPACITY);
+				while (!list.isEmpty()) {
+					list.removeFront();
+				}
+			}), bestOf(() -> {
+				refill(list, BULK_CAPACITY);
+				list.removeFront(BULK_CAPACITY);
+			}));
+		}
+	}
+
+	public static void benchmarkOffHeap() {
+		System.out.println("*****************************BENCHMARKING OFF-HEAP STORAGE*****************************");
+		System.out.printf("%-26s %9s %14s %14s %14s%n", "impl", "entries", "retained MB", "full GC ms", "max GC ms");
+		int count = GC_CAPACITY;
+		measureGcPauses("Circular<Long>", count, () -> {
+			FrontBackCappedListInterface<Long> list = new CircularFrontBackCappedList<>(count);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index + 1_000L);
+			}
+			return list;
+		});
+		measureGcPauses("OffHeap<Long>", count, () -> {
+			OffHeapFrontBackCappedList<Long> list = new OffHeapFrontBackCappedList<>(count, FixedWidthCodec.LONG);
+			for (int index = 0; index < count; index++) {
+				list.addBack(index + 1_000L);
+			}
+			return list;
+		});
+	}
+
+	public static void benchmarkMapped() {
+		System.out.println("*****************************BENCHMARKING MEMORY-MAPPED PERSISTENCE*****************************");
+		System.out.printf("%-14s %9s %16s%n", "force every", "entries", "ops/s");
+		for (int forceInterval : FORCE_INTERVALS) {
+			try {
+				Path file = Files.createTempFile("ProjectBBenchmark", ".list");
+				Files.delete(file);
+				try (MappedFrontBackCappedList<Integer> list =
+						new MappedFrontBackCappedList<>(file, CONTENDED_CAPACITY, FixedWidthCodec.INTEGER, forceInterval)) {
+					refill(list, CONTENDED_CAPACITY / 2);
+					long count = 0;
+					long start = System.nanoTime();
+					while ((count & 0xFF) != 0 || System.nanoTime() - start < MEASURE_NANOS * 4) {
+						list.addBack(list.removeFront());
+						count += 2;
+					}
+					System.out.printf("%-14s %9d %16.1f%n", (forceInterval == 0) ? "never" : forceInterval + " ops",
+							CONTENDED_CAPACITY / 2, count * 1_000_000_000.0 / (System.nanoTime() - start));
+				} finally {
+					Files.deleteIfExists(file);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	public static void benchmarkBlocking() {
+		System.out.println("*****************************BENCHMARKING BLOCKING HANDOFF*****************************");
+		System.out.printf("%-20s %9s %9s %16s%n", "impl", "producers", "consumers", "handoffs/s");
+		for (int producers : PRODUCER_COUNTS) {
+			BlockingFrontBackCappedList<Integer> list = new BlockingFrontBackCappedList<>(HANDOFF_CAPACITY);
+			runHandoff(list::putBack, list::takeFront, producers); // Warm-up pass, discarded
+			reportHandoff("Blocking", producers, runHandoff(list::putBack, list::takeFront, producers));
+
+			BlockingDeque<Integer> deque = new LinkedBlockingDeque<>(HANDOFF_CAPACITY);
+			runHandoff(deque::putLast, deque::takeFirst, producers);
+			reportHandoff("LinkedBlockingDeque", producers, runHandoff(deque::putLast, deque::takeFirst, producers));
+		}
+	}
+
+	public static void benchmarkSegmented() {
+		System.out.println("*****************************BENCHMARKING FOOTPRINT BY FILL LEVEL*****************************");
+		System.out.printf("%-26s %9s %14s %14s%n", "impl", "entries", "retained MB", "allocated MB");
+		Map<String, IntFunction<FrontBackCappedListInterface<Integer>>> implementations = new LinkedHashMap<>();
+		implementations.put("Array", ArrayFrontBackCappedList::new);
+		implementations.put("List", ListFrontBackCappedList::new);
+		implementations.put("Circular", CircularFrontBackCappedList::new);
+		implementations.put("Segmented", SegmentedFrontBackCappedList::new);
+		Integer[] entries = values(PIPELINE_CAPACITY);
+
+		for (double fillLevel : SEGMENTED_FILL_LEVELS) {
+			int fill = (int) (SEGMENTED_CAPACITY * fillLevel);
+			for (Map.Entry<String, IntFunction<FrontBackCappedListInterface<Integer>>> implementation : implementations.entrySet()) {
+				// Every entry is one of a few shared Integers, so only the list's own structure is measured
+				measureFootprint(implementation.getKey(), fill, () -> {
+					FrontBackCappedListInterface<Integer> list = implementation.getValue().apply(SEGMENTED_CAPACITY);
+					for (int index = 0; index < fill; index++) {
+						list.addBack(entries[index % PIPELINE_CAPACITY]);
+					}
+					return list;
+				});
+			}
+		}
+	}
+
+	public static void benchmarkSerialize() {
+		System.out.println("*****************************BENCHMARKING EXPORT*****************************");
+		System.out.printf("%-26s %9s %14s%n", "export", "entries", "best us");
+		CappedListSerializer<Integer> serializer = new CappedListSerializer<>(FixedWidthCodec.INTEGER);
+		FrontBackCappedListInterface<Integer> circular = new CircularFrontBackCappedList<>(BULK_CAPACITY);
+		OffHeapFrontBackCappedList<Integer> offHeap = new OffHeapFrontBackCappedList<>(BULK_CAPACITY, FixedWidthCodec.INTEGER);
+		refill(circular, BULK_CAPACITY);
+		refill(offHeap, BULK_CAPACITY);
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) serializer.encodedSize(BULK_CAPACITY));
+
+		reportExport("Circular toString", bestOf(() -> blackhole += circular.toString().length()));
+		reportExport("Circular encode", bestOf(() -> {
+			buffer.clear();
+			blackhole += serializer.encode(circular, buffer);
+		}));
+		try {
+			Path file = Files.createTempFile("ProjectBBenchmark", ".bin");
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				reportExport("Circular write channel", bestOf(() -> writeQuietly(serializer, circular, channel)));
+				reportExport("OffHeap write channel", bestOf(() -> writeQuietly(serializer, offHeap, channel)));
+			} finally {
+				Files.deleteIfExists(file);
+				offHeap.close();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static void benchmarkAggregate() {
+		System.out.println("*****************************BENCHMARKING SLIDING WINDOW AGGREGATES*****************************");
+		System.out.printf("%9s %14s %14s %9s%n", "capacity", "rescan ns", "rolling ns", "speedup");
+		for (int capacity : CAPACITIES) {
+			// Each tick slides a full window by one entry and reads sum, min, and max
+			int ticks = (int) Math.max(1, SEARCH_SLOTS / capacity);
+			Integer[] entries = values(capacity);
+			CircularFrontBackCappedList<Integer> plain = new CircularFrontBackCappedList<>(capacity);
+			AggregatingFrontBackCappedList<Integer> rolling = new AggregatingFrontBackCappedList<>(capacity);
+			refill(plain, capacity);
+			refill(rolling, capacity);
+
+			long rescan = bestOf(() -> {
+				for (int tick = 0; tick < ticks; tick++) {
+					plain.removeFront();
+					plain.addBack(entries[tick % capacity]);
+					long sum = 0;
+					int min = Integer.MAX_VALUE;
+					int max = Integer.MIN_VALUE;
+					for (int position = 0; position < plain.size(); position++) {
+						int entry = plain.getEntry(position);
+						sum += entry;
+						min = Math.min(min, entry);
+						max = Math.max(max, entry);
+					}
+					blackhole += (int) sum + min + max;
+				}
+			});
+			long incremental = bestOf(() -> {
+				for (int tick = 0; tick < ticks; tick++) {
+					rolling.removeFront();
+					rolling.addBack(entries[tick % capacity]);
+					blackhole += (int) (rolling.getSum() + rolling.getMin() + rolling.getMax());
+				}
+			});
+			System.out.printf("%9d %14d %14d %8.1fx%n", capacity, rescan / ticks, incremental / ticks,
+					(double) rescan / Math.max(1, incremental));
+		}
+	}
+
+	public static void benchmarkTopK() {
+		System.out.println("*****************************BENCHMARKING TOP-K*****************************");
+		System.out.printf("%9s %14s %14s %9s %14s %14s%n", "capacity", "sort ns", "heap ns", "speedup",
+				"sort+get ns", "heap+get ns");
+		for (int capacity : CAPACITIES) {
+			// Each insert offers a random entry to a full list of the best capacity entries seen so far; the +get
+			// columns then read the middle entry, which the top-k list answers from its sorted copy
+			int inserts = (int) Math.max(1_000, SEARCH_SLOTS / capacity);
+			Integer[] entries = new Integer[inserts];
+			for (int index = 0; index < inserts; index++) {
+				entries[index] = random.nextInt();
+			}
+			Comparator<Integer> order = Comparator.reverseOrder();
+			List<Integer> sortedList = new ArrayList<>(capacity + 1);
+			TopKFrontBackCappedList<Integer> topK = new TopKFrontBackCappedList<>(capacity, order);
+			for (int index = 0; index < capacity; index++) {
+				sortedList.add(random.nextInt());
+				topK.addBack(random.nextInt());
+			}
+			sortedList.sort(order);
+
+			long sortAfterInsert = bestOf(() -> {
+				for (Integer entry : entries) {
+					sortedList.add(entry);
+					sortedList.sort(order);
+					sortedList.remove(sortedList.size() - 1);
+				}
+				blackhole += sortedList.get(0);
+			});
+			long heap = bestOf(() -> {
+				for (Integer entry : entries) {
+					topK.addBack(entry);
+				}
+				blackhole += topK.peekBest();
+			});
+			long sortThenGet = bestOf(() -> {
+				for (Integer entry : entries) {
+					sortedList.add(entry);
+					sortedList.sort(order);
+					sortedList.remove(sortedList.size() - 1);
+					blackhole += sortedList.get(capacity / 2);
+				}
+			});
+			long heapThenGet = bestOf(() -> {
+				for (Integer entry : entries) {
+					topK.addBack(entry);
+					blackhole += topK.getEntry(capacity / 2);
+				}
+			});
+			System.out.printf("%9d %14d %14d %8.1fx %14d %14d%n", capacity, sortAfterInsert / inserts, heap / inserts,
+					(double) sortAfterInsert / Math.max(1, heap), sortThenGet / inserts, heapThenGet / inserts);
+		}
+	}
+
+	public static void benchmarkReplication() {
+		System.out.println("*****************************BENCHMARKING REPLICATION*****************************");
+		System.out.printf("%9s %9s %14s %14s %12s %12s %11s%n", "replicas", "window", "mutations/s", "MB/s",
+				"max lag", "max lag us", "consistent");
+		for (int window : IN_FLIGHT_WINDOWS) {
+			for (int replicaCount : REPLICA_COUNTS) {
+				try {
+					runReplication(replicaCount, window);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/*
+	 * The methods below run and report a single scenario.
+	 */
+
+	/**
+	 * Fills a list, starts replicas so they catch up from a snapshot, then adds REPLICATED_ADDS entries to the back
+	 * of the full list, flushing every INGEST_BATCH adds and sampling the replicas' lag after each flush. Each add
+	 * evicts the front entry, so it publishes two mutations.
+	 */
+	public static void runReplication(int replicaCount, int window) throws IOException, InterruptedException {
+		ObservableFrontBackCappedList<Integer> list = new ObservableFrontBackCappedList<>(
+				new CircularFrontBackCappedList<>(INGEST_CAPACITY, OverflowPolicy.EVICT_OPPOSITE_END));
+		refill(list, INGEST_CAPACITY);
+		List<FrontBackCappedListInterface<Integer>> copies = new ArrayList<>();
+		List<CappedListReplica<Integer>> replicas = new ArrayList<>();
+		try (CappedListPrimary<Integer> primary = new CappedListPrimary<>(list, FixedWidthCodec.INTEGER,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), window, 10, TimeUnit.SECONDS)) {
+			InetSocketAddress address = (InetSocketAddress) primary.getLocalAddress();
+			for (int index = 0; index < replicaCount; index++) {
+				FrontBackCappedListInterface<Integer> copy =
+						new CircularFrontBackCappedList<>(INGEST_CAPACITY, OverflowPolicy.EVICT_OPPOSITE_END);
+				copies.add(copy);
+				replicas.add(new CappedListReplica<>(copy, FixedWidthCodec.INTEGER, address));
+			}
+			while (primary.getReplicaCount() < replicaCount) {
+				primary.flush();
+				Thread.yield();
+			}
+
+			long maxLag = 0;
+			long maxLagNanos = 0;
+			long bytesBefore = primary.getBytesSent();
+			long sequenceBefore = primary.getPublishedSequence();
+			long start = System.nanoTime();
+			for (int add = 1; add <= REPLICATED_ADDS; add++) {
+				list.addBack(add);
+				if (add % INGEST_BATCH == 0) {
+					primary.flush();
+					for (CappedListPrimary.ReplicaStatus status : primary.getReplicaStatus()) {
+						maxLag = Math.max(maxLag, status.getLag());
+						maxLagNanos = Math.max(maxLagNanos, status.getLagNanos());
+					}
+				}
+			}
+			primary.flush();
+			for (CappedListReplica<Integer> replica : replicas) {
+				replica.awaitSequence(primary.getPublishedSequence(), 10, TimeUnit.SECONDS);
+			}
+			long elapsed = System.nanoTime() - start;
+
+			boolean consistent = true;
+			for (FrontBackCappedListInterface<Integer> copy : copies) {
+				consistent &= copy.toString().equals(list.toString());
+			}
+			double seconds = elapsed / 1e9;
+			System.out.printf("%9d %9d %14.0f %14.1f %12d %12d %11s%n", replicaCount, window,
+					(primary.getPublishedSequence() - sequenceBefore) / seconds,
+					(primary.getBytesSent() - bytesBefore) / seconds / 1e6, maxLag, maxLagNanos / 1_000, consistent);
+		} finally {
+			for (CappedListReplica<Integer> replica : replicas) {
+				replica.close();
+			}
+		}
+	}
+
+
+	private static void writeQuietly(CappedListSerializer<Integer> serializer, FrontBackCappedListInterface<Integer> list,
+			FileChannel channel) {
+		try {
+			channel.position(0);
+			blackhole += (int) serializer.write(list, channel);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void reportExport(String name, long nanos) {
+		System.out.printf("%-26s %9d %14.1f%n", name, BULK_CAPACITY, nanos / 1_000.0);
+	}
+
+	public static long runHandoff(Put put, Take take, int producerCount) {
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[producerCount * 2];
+		Integer[] entries = values(HANDOFF_CAPACITY);
+
+		for (int thread = 0; thread < producerCount; thread++) {
+			threads[thread] = new Thread(() -> {
+				try {
+					start.await();
+					for (int handoff = 0; handoff < HANDOFFS_PER_PRODUCER; handoff++) {
+						put.put(entries[handoff % HANDOFF_CAPACITY]);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			threads[producerCount + thread] = new Thread(() -> {
+				Sink sink = new Sink();
+				try {
+					start.await();
+					for (int handoff = 0; handoff < HANDOFFS_PER_PRODUCER; handoff++) {
+						sink.add(take.take());
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				sink.publish();
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		return System.nanoTime() - begin;
+	}
+
+	private static void reportHandoff(String name, int producers, long nanos) {
+		System.out.printf("%-20s %9d %9d %16.1f%n", name, producers, producers,
+				(long) producers * HANDOFFS_PER_PRODUCER * 1_000_000_000.0 / Math.max(1, nanos));
+	}
+
+	public static void measureGcPauses(String name, int entries, Supplier<Object> build) {
+		long usedBefore = usedHeap();
+		Object built = build.get();
+		long retained = usedHeap() - usedBefore;
+
+		// Full collections have to trace everything the list keeps on the heap
+		long totalMillis = 0;
+		long maxMillis = 0;
+		for (int repetition = 0; repetition < GC_REPETITIONS; repetition++) {
+			long before = collectionMillis();
+			System.gc();
+			long pause = collectionMillis() - before;
+			totalMillis += pause;
+			maxMillis = Math.max(maxMillis, pause);
+		}
+
+		System.out.printf("%-26s %9d %14.1f %14.1f %14d%n", name, entries, retained / 1_048_576.0,
+				(double) totalMillis / GC_REPETITIONS, maxMillis);
+		blackhole += built.hashCode();
+		if (built instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) built).close();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static long collectionMillis() {
+		long total = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			total += Math.max(0, collector.getCollectionTime());
+		}
+		return total;
+	}
+
+	private static long bestOf(Runnable scenario) {
+		long best = Long.MAX_VALUE;
+		for (int repetition = 0; repetition < BULK_REPETITIONS; repetition++) {
+			long start = System.nanoTime();
+			scenario.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	private static void reportBulk(String name, String operation, long loopNanos, long bulkNanos) {
+		System.out.printf("%-10s %9d %-16s %14.1f %14.1f %8.1fx%n", name, BULK_CAPACITY, operation,
+				loopNanos / 1_000.0, bulkNanos / 1_000.0, (double) loopNanos / Math.max(1, bulkNanos));
+	}
+
+	public static void measureFootprint(String name, int entries, Supplier<Object> build) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		long usedBefore = usedHeap();
+		long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+		Object built = build.get();
+		long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		long retained = usedHeap() - usedBefore;
+
+		System.out.printf("%-26s %9d %14.1f %14.1f%n", name, entries, retained / 1_048_576.0, allocated / 1_048_576.0);
+		blackhole += built.hashCode();
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int pass = 0; pass < 3; pass++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public static Integer[] values(int count) {
+		if (values.length < count) {
+			values = new Integer[count];
+			for (int index = 0; index < count; index++) {
+				values[index] = index; // Boxed once up front so the timed loop does not allocate
+			}
+		}
+		return values;
+	}
+
+	public static void refill(FrontBackCappedListInterface<Integer> list, int fill) {
+		Integer[] entries = values(fill);
+		list.clear();
+		for (int index = 0; index < fill; index++) {
+			list.addBack(entries[index]);
+		}
+	}
+
+	@FunctionalInterface
+	public interface Put {
+		void put(Integer entry) throws InterruptedException;
+	}
+
+	@FunctionalInterface
+	public interface Take {
+		Integer take() throws InterruptedException;
+	}
+
+	/**
+	 * Where one worker thread puts the results it computes, so the JIT cannot discard the work that produced them.
+	 * Each thread allocates its own rather than adding to a shared field, which would make the threads contend for
+	 * its cache line, and publishes the total once when it is done.
+	 */
+	public static final class Sink implements Consumer<Integer> {
+		private long value;
+
+		public void add(long result) {
+			value += result;
+		}
+
+		@Override
+		public void accept(Integer entry) {
+			value += entry;
+		}
+
+		public void publish() {
+			published.addAndGet(value);
+		}
+	}
+}
@@ -1,4 +1,21 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 public class ProjectBDriver {
 
@@ -10,6 +27,87 @@ public class ProjectBDriver {
 		list = new ListFrontBackCappedList<Integer>(10);
 		System.out.println("********************DRIVER BEING RUN WITH EXTRA CREDIT CLASS***********************************");
 
+		testBaseline(list);
+
+
+		System.out.println("\n********************DRIVER BEING RUN WITH CIRCULAR CLASS***********************************");
+		testBaseline(new CircularFrontBackCappedList<Integer>(10));
+
+
+		System.out.println("\n*****************************TESTING WITH STRINGS*****************************");
+		FrontBackCappedListInterface<String> wordList = new ArrayFrontBackCappedList<String>(20);
+		testAdd(wordList, AddRemovePosition.FRONT, new String[] {"job!", "Nice", "it!", "did", "You"}, true, "test with Strings");
+		testAdd(wordList, AddRemovePosition.BACK, new String[] {"You", "rock!"}, true, "test with Strings");
+		testDisplayMatch(wordList, "size=7; capacity=20;	[You, did, it!, Nice, job!, You, rock!]");
+		testContains(wordList, new String("it!"), true, "test with Strings");
+		testIndexOf(wordList, IndexPosition.FIRST, new String("You"), 0, "test with Strings");
+		testIndexOf(wordList, IndexPosition.LAST, new String("You"), 5, "test with Strings");
+
+
+		System.out.println("\n*****************************TESTING OVERFLOW POLICIES*****************************");
+		testOverflowPolicies();
+
+
+		System.out.println("\n*****************************TESTING INDEXED LIST*****************************");
+		testIndexed();
+
+
+		System.out.println("\n*****************************TESTING INSTRUMENTED LIST*****************************");
+		testInstrumented();
+
+
+		System.out.println("\n*****************************TESTING SNAPSHOTS*****************************");
+		testSnapshot(new ArrayFrontBackCappedList<Integer>(10000));
+		testSnapshot(new CircularFrontBackCappedList<Integer>(10000));
+
+
+		System.out.println("\n*****************************TESTING REPLICATION*****************************");
+		testReplication();
+
+
+		System.out.println("\n*****************************TESTING OFF-HEAP LIST*****************************");
+		testOffHeap();
+
+
+		System.out.println("\n*****************************TESTING MEMORY-MAPPED LIST*****************************");
+		testMapped();
+
+
+		System.out.println("\n*****************************TESTING SINGLE-PRODUCER SINGLE-CONSUMER LIST*****************************");
+		testSpsc();
+
+
+		System.out.println("\n*****************************TESTING SEGMENTED LIST*****************************");
+		testSegmented();
+
+
+		System.out.println("\n*****************************TESTING SERIALIZER*****************************");
+		testSerializer();
+
+
+		System.out.println("\n*****************************TESTING AGGREGATING LIST*****************************");
+		testAggregating();
+
+
+		System.out.println("\n*****************************TESTING EXPIRING LIST*****************************");
+		testExpiring();
+
+
+		System.out.println("\n*****************************TESTING TOP-K LIST*****************************");
+		testTopK();
+
+
+		System.out.println("\n*****************************TESTING OBSERVABLE LIST*****************************");
+		testObservable();
+
+	}
+
+	/*
+	 * The method below runs the scenarios of the original assignment on one list. main runs it once for the list
+	 * chosen above and once for the circular list.
+	 */
+
+	public static void testBaseline(FrontBackCappedListInterface<Integer> list) {
 		System.out.println("*****************************TESTING ISEMPTY AND EMPTY DISPLAY*****************************");
 		// parameter 1: the list
 		// parameter 2: the expected result for if the list is empty
@@ -207,17 +305,647 @@ public class ProjectBDriver {
 		testGetEntry(list, 11,   "invalid index");
 		testGetEntry(list, 5,   "invalid index");
 		testGetEntry(list, 7,    "invalid index");
-	
-			
-		System.out.println("\n*****************************TESTING WITH STRINGS*****************************");
-		FrontBackCappedListInterface<String> wordList = new ArrayFrontBackCappedList<String>(20);
-		testAdd(wordList, AddRemovePosition.FRONT, new String[] {"job!", "Nice", "it!", "did", "You"}, true, "test with Strings");
-		testAdd(wordList, AddRemovePosition.BACK, new String[] {"You", "rock!"}, true, "test with Strings");
-		testDisplayMatch(wordList, "size=7; capacity=20;	[You, did, it!, Nice, job!, You, rock!]");
-		testContains(wordList, new String("it!"), true, "test with Strings");
-		testIndexOf(wordList, IndexPosition.FIRST, new String("You"), 0, "test with Strings");
-		testIndexOf(wordList, IndexPosition.LAST, new String("You"), 5, "test with Strings");
+	}
+
+	/*
+	 * The methods below run the tests of the classes added after the original assignment. Each one builds its own
+	 * lists and reports through the same helpers as the tests above.
+	 */
+
+	public static void testOverflowPolicies() {
+		FrontBackCappedListInterface<Integer> rejecting = new CircularFrontBackCappedList<Integer>(3);
+		testAdd(rejecting, AddRemovePosition.BACK, new Integer[] {1, 2, 3}, true, "fill a circular list");
+		testAdd(rejecting, AddRemovePosition.BACK, new Integer[] {4}, false, "addBack to full list rejects");
+		testAdd(rejecting, AddRemovePosition.FRONT, new Integer[] {0}, false, "addFront to full list rejects");
+		testEntries(rejecting, "size=3; capacity=3;	[1, 2, 3]", "rejected adds leave the list alone");
+
+		FrontBackCappedListInterface<Integer> window = new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_OPPOSITE_END);
+		clearAndRefillTheList(window, new Integer[] {1, 2, 3});
+		testEvictingAdd(window, AddRemovePosition.BACK, 4, "size=3; capacity=3;	[2, 3, 4]", "addBack evicts the front");
+		testEvictingAdd(window, AddRemovePosition.FRONT, 0, "size=3; capacity=3;	[0, 2, 3]", "addFront evicts the back");
+		testRemove(window, AddRemovePosition.BACK, 3, "remove after eviction");
+
+		FrontBackCappedListInterface<Integer> replacing = new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_SAME_END);
+		clearAndRefillTheList(replacing, new Integer[] {1, 2, 3});
+		testEvictingAdd(replacing, AddRemovePosition.BACK, 4, "size=3; capacity=3;	[1, 2, 4]", "addBack replaces the back");
+		testEvictingAdd(replacing, AddRemovePosition.FRONT, 0, "size=3; capacity=3;	[0, 2, 4]", "addFront replaces the front");
+
+		// Evicted entries are only reported to the listener, so an evicted null is told apart from an add with room
+		StringBuilder evicted = new StringBuilder();
+		FrontBackCappedListInterface<Integer> reported = new CircularFrontBackCappedList<Integer>(2, OverflowPolicy.EVICT_OPPOSITE_END);
+		reported.setEvictionListener((entry, position) -> evicted.append(entry).append(" at ").append(position).append("; "));
+		reported.addBack(null);
+		reported.addBack(1);
+		testEvictingAdd(reported, AddRemovePosition.BACK, 2, "size=2; capacity=2;	[1, 2]", "addBack evicts a null front");
+		testEvictingAdd(reported, AddRemovePosition.FRONT, 3, "size=2; capacity=2;	[3, 1]", "addFront evicts the back");
+		System.out.println("Evictions reported: " + evicted);
+		if (!evicted.toString().equals("null at 0; 2 at 1; ")) {
+			System.out.println("*****Test failed: the listener was not told about each eviction");
+		}
+
+		FrontBackCappedListInterface<Integer> zero = new CircularFrontBackCappedList<Integer>(0, OverflowPolicy.EVICT_OPPOSITE_END);
+		testAdd(zero, AddRemovePosition.BACK, new Integer[] {1}, false, "evicting list with no capacity still rejects");
+	}
+
+	public static void testIndexed() {
+		FrontBackCappedListInterface<Integer> indexed = new IndexedFrontBackCappedList<Integer>(new ArrayFrontBackCappedList<Integer>(10));
+		clearAndRefillTheList(indexed, new Integer[] {1, 8, 3, 4, 5, 9, 7, 3, 4, 2});
+		testIndexOf(indexed, IndexPosition.FIRST, 3, 2, "repeated element in an indexed list");
+		testIndexOf(indexed, IndexPosition.LAST, 3, 7, "repeated element in an indexed list");
+		testRemove(indexed, AddRemovePosition.FRONT, 1, "remove from an indexed list");
+		testIndexOf(indexed, IndexPosition.FIRST, 3, 1, "positions shift after a front remove");
+		testAdd(indexed, AddRemovePosition.FRONT, new Integer[] {3}, true, "addFront to an indexed list");
+		testIndexOf(indexed, IndexPosition.FIRST, 3, 0, "front copy found first");
+		testIndexOf(indexed, IndexPosition.LAST, 3, 7, "back copy found last");
+		testContains(indexed, 1, false, "removed element is gone from the index");
+
+		FrontBackCappedListInterface<Integer> window = new IndexedFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_OPPOSITE_END));
+		for (int value = 0; value < 5; value++) {
+			window.addBack(value);
+		}
+		testEntries(window, "size=3; capacity=3;	[2, 3, 4]", "indexed sliding window");
+		testIndexOf(window, IndexPosition.FIRST, 0, "evicted element not in an indexed list");
+		testContains(window, 1, false, "evicted element not in an indexed list");
+		testIndexOf(window, IndexPosition.FIRST, 3, 1, "element after evictions");
+		testIndexOf(window, IndexPosition.LAST, 4, 2, "element after evictions");
+		testEvictingAdd(window, AddRemovePosition.FRONT, 4, "size=3; capacity=3;	[4, 2, 3]", "indexed addFront evicts the back");
+		testIndexOf(window, IndexPosition.FIRST, 4, 0, "copy added to the front");
+		testIndexOf(window, IndexPosition.LAST, 4, 0, "copy evicted from the back");
+
+		FrontBackCappedListInterface<Integer> replacing = new IndexedFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_SAME_END));
+		clearAndRefillTheList(replacing, new Integer[] {1, 2, 3});
+		testEvictingAdd(replacing, AddRemovePosition.BACK, 4, "size=3; capacity=3;	[1, 2, 4]", "indexed addBack replaces the back");
+		testContains(replacing, 3, false, "replaced element not in an indexed list");
+		testIndexOf(replacing, IndexPosition.FIRST, 4, 2, "replacing element");
+
+		// Positions only hold while the wrapped list changes at its ends, so lists that change in the middle are refused
+		try {
+			new IndexedFrontBackCappedList<Integer>(new TopKFrontBackCappedList<Integer>(3, Comparator.reverseOrder()));
+			System.out.println("*****Test failed: a top-k list was indexed");
+		} catch (IllegalArgumentException e) {
+			System.out.println("\nTop-k list was refused by the index, as expected.");
+		}
+		try {
+			new IndexedFrontBackCappedList<Integer>(new ExpiringFrontBackCappedList<Integer>(3, 1, TimeUnit.SECONDS));
+			System.out.println("*****Test failed: an expiring list was indexed");
+		} catch (IllegalArgumentException e) {
+			System.out.println("\nExpiring list was refused by the index, as expected.");
+		}
+	}
+
+	public static void testInstrumented() {
+		InstrumentedFrontBackCappedList<Integer> instrumented = new InstrumentedFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(5), true);
+		testCount(3, instrumented.addAllBack(new Integer[] {1, 2, 3}), "addAllBack through an instrumented list");
+		testCount(2, instrumented.addAllFront(new Integer[] {0, 9, 8}), "addAllFront past the capacity");
+		testEntries(instrumented, "size=5; capacity=5;	[9, 0, 1, 2, 3]", "bulk adds reach the wrapped list");
+		System.out.println("\nRemoved " + instrumented.removeBack(2) + " from the back and " + instrumented.removeFront(4) + " from the front");
+		testEntries(instrumented, "size=0; capacity=5;	[]", "bulk removes reach the wrapped list");
+		instrumented.addBack(4);
+		int[] seen = {0};
+		instrumented.forEach(entry -> seen[0]++);
+		testCount(1, instrumented.stream().count(), "stream through an instrumented list");
+
+		InstrumentedFrontBackCappedList.Snapshot metrics = instrumented.metrics();
+		testCount(1, metrics.get(InstrumentedFrontBackCappedList.Operation.ADD_ALL_BACK).getCalls(), "addAllBack counted once");
+		testCount(1, metrics.get(InstrumentedFrontBackCappedList.Operation.ADD_BACK).getCalls(), "only the single addBack counted, not the bulk adds");
+		testCount(1, metrics.get(InstrumentedFrontBackCappedList.Operation.ADD_ALL_FRONT).getRejections(), "addAllFront that did not fit");
+		testCount(0, metrics.get(InstrumentedFrontBackCappedList.Operation.REMOVE_BACK_COUNT).getRejections(), "removeBack(2) of five");
+		testCount(1, metrics.get(InstrumentedFrontBackCappedList.Operation.REMOVE_FRONT_COUNT).getRejections(), "removeFront(4) of three");
+		testCount(1, metrics.get(InstrumentedFrontBackCappedList.Operation.FOR_EACH).getCalls(), "forEach counted");
+		testCount(1, seen[0], "forEach visits each entry");
+		testCount(1, metrics.get(InstrumentedFrontBackCappedList.Operation.SPLITERATOR).getCalls(), "spliterator counted for stream");
+
+		// contains must reach the wrapped list's own contains, which an indexed list answers from its index
+		InstrumentedFrontBackCappedList<Integer> inner = new InstrumentedFrontBackCappedList<Integer>(
+				new IndexedFrontBackCappedList<Integer>(new CircularFrontBackCappedList<Integer>(5)), true);
+		InstrumentedFrontBackCappedList<Integer> outer = new InstrumentedFrontBackCappedList<Integer>(inner, true);
+		outer.addBack(7);
+		testContains(outer, 7, true, "contains through an instrumented list");
+		testCount(1, inner.metrics().get(InstrumentedFrontBackCappedList.Operation.CONTAINS).getCalls(), "contains passed on as contains");
+		testCount(0, inner.metrics().get(InstrumentedFrontBackCappedList.Operation.INDEX_OF).getCalls(), "contains not answered with indexOf");
+		testCount(0, outer.metrics().getComparisons(), "contains adds nothing to the comparisons estimate");
+
+		// Threads record into their own stripes of the histogram; every call must still be counted once
+		InstrumentedFrontBackCappedList<Integer> shared = new InstrumentedFrontBackCappedList<Integer>(
+				new ConcurrentFrontBackCappedList<Integer>(64), true);
+		Thread[] threads = new Thread[4];
+		for (int thread = 0; thread < threads.length; thread++) {
+			threads[thread] = new Thread(() -> {
+				for (int call = 0; call < 1000; call++) {
+					shared.getEntry(0);
+				}
+			});
+			threads[thread].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		InstrumentedFrontBackCappedList.OperationSnapshot getEntry = shared.metrics().get(InstrumentedFrontBackCappedList.Operation.GET_ENTRY);
+		testCount(4000, getEntry.getCalls(), "calls from four threads");
+		testCount(4000, getEntry.getRejections(), "getEntry of an empty list rejected");
+		System.out.println("\ngetEntry from four threads: " + getEntry);
+		if (getEntry.getMaxLatency() == 0) {
+			System.out.println("*****Test failed reading the striped latency histogram");
+		}
+	}
+
+	public static void testSnapshot(FrontBackCappedListInterface<Integer> list) {
+		// Enough entries to span several chunks, so writes after the snapshot copy only some of them
+		for (int value = 0; value < 9000; value++) {
+			list.addBack(value);
+		}
+		FrontBackCappedListInterface<Integer> snapshot = list.snapshot();
+		list.removeFront();
+		list.addBack(-1);
+		list.addFront(-2);
+		testSize(snapshot, 9000);
+		testGetEntry(snapshot, 0, 0, "snapshot keeps the old front");
+		testGetEntry(snapshot, 8999, 8999, "snapshot keeps the old back");
+		testIndexOf(snapshot, IndexPosition.FIRST, -1, "snapshot does not see a later add");
+		testGetEntry(list, 0, -2, "list sees its own add after a snapshot");
+		testGetEntry(list, 9000, -1, "list sees its own add after a snapshot");
+
+		list.clear();
+		testSize(snapshot, 9000);
+		testGetEntry(snapshot, 4500, 4500, "snapshot survives a clear of the list");
+		for (int value = 0; value < 5000; value++) {
+			list.addBack(-value);
+		}
+		testGetEntry(list, 4999, -4999, "list refills past its first chunk after a clear");
+		testGetEntry(snapshot, 4999, 4999, "snapshot keeps its entries after the list refills");
+		try {
+			snapshot.addBack(1);
+			System.out.println("*****Test failed: a snapshot accepted an add");
+		} catch (UnsupportedOperationException e) {
+			System.out.println("\nSnapshot rejected an add, as expected.");
+		}
+	}
+
+	public static void testReplication() {
+		ObservableFrontBackCappedList<Integer> primaryList = new ObservableFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(5, OverflowPolicy.EVICT_OPPOSITE_END), 4);
+		FrontBackCappedListInterface<Integer> early = new BlockingFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(5, OverflowPolicy.EVICT_OPPOSITE_END));
+		FrontBackCappedListInterface<Integer> late = new BlockingFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(5, OverflowPolicy.EVICT_OPPOSITE_END));
+		try (CappedListPrimary<Integer> primary = new CappedListPrimary<Integer>(primaryList, FixedWidthCodec.INTEGER,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+			InetSocketAddress address = (InetSocketAddress) primary.getLocalAddress();
+			try (CappedListReplica<Integer> earlyReplica = new CappedListReplica<Integer>(early, FixedWidthCodec.INTEGER, address)) {
+				awaitReplicas(primary, 1);
+				for (int value = 0; value < 4; value++) {
+					primaryList.addBack(value);
+				}
+				primary.flush();
+				testReplicaMatch(primaryList, primary, earlyReplica, early, "replica connected to an empty primary");
+
+				// The late replica connects while the buffer holds mutations and fills again before the next flush
+				try (CappedListReplica<Integer> lateReplica = new CappedListReplica<Integer>(late, FixedWidthCodec.INTEGER, address)) {
+					Thread.sleep(200);
+					primaryList.addBack(4);
+					primaryList.addBack(5);
+					primaryList.addFront(6);
+					primaryList.removeBack();
+					primaryList.addBack(7);
+					primary.flush();
+					testReplicaMatch(primaryList, primary, lateReplica, late, "replica caught up from a snapshot mid-stream");
+					testReplicaMatch(primaryList, primary, earlyReplica, early, "replica streamed evictions");
+
+					primaryList.clear();
+					primaryList.addFront(8);
+					primary.flush();
+					testReplicaMatch(primaryList, primary, lateReplica, late, "replica applied a clear");
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("*****Test failed to replicate over localhost: " + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// A replica that connects and then never reads nor acknowledges must not hold up the list for long
+		ObservableFrontBackCappedList<Integer> busyList = new ObservableFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(5, OverflowPolicy.EVICT_OPPOSITE_END), 256);
+		try (CappedListPrimary<Integer> primary = new CappedListPrimary<Integer>(busyList, FixedWidthCodec.INTEGER,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Integer.MAX_VALUE, 200, TimeUnit.MILLISECONDS);
+				SocketChannel silent = SocketChannel.open(primary.getLocalAddress())) {
+			awaitReplicas(primary, 1);
+			System.out.println("\nSilent replica connected from " + silent.getLocalAddress());
+			long start = System.nanoTime();
+			for (int value = 0; value < 2_000_000 && primary.getReplicaCount() > 0; value++) {
+				busyList.addBack(value);
+			}
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			testCount(0, primary.getReplicaCount(), "silent replica dropped");
+			if (elapsedMillis > 5_000) {
+				System.out.println("*****Test failed: a silent replica held up the list for " + elapsedMillis + " ms");
+			}
+		} catch (IOException e) {
+			System.out.println("*****Test failed to replicate over localhost: " + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public static void testOffHeap() {
+		OffHeapFrontBackCappedList<Integer> offHeap = new OffHeapFrontBackCappedList<Integer>(3, FixedWidthCodec.INTEGER);
+		testAdd(offHeap, AddRemovePosition.BACK, new Integer[] {1, 2}, true, "addBack to an off-heap list");
+		testAdd(offHeap, AddRemovePosition.FRONT, new Integer[] {0}, true, "addFront to an off-heap list");
+		testAdd(offHeap, AddRemovePosition.BACK, new Integer[] {3}, false, "addBack to a full off-heap list");
+		testRemove(offHeap, AddRemovePosition.FRONT, 0, "removeFront from an off-heap list");
+		testAdd(offHeap, AddRemovePosition.BACK, new Integer[] {3}, true, "addBack wraps around the slots");
+		testEntries(offHeap, "size=3; capacity=3;	[1, 2, 3]", "entries decoded after wrapping");
+		testGetEntry(offHeap, 2, 3, "getEntry after wrapping");
+		testIndexOf(offHeap, IndexPosition.LAST, 2, 1, "indexOf decodes each slot");
+		testRemove(offHeap, AddRemovePosition.BACK, 3, "removeBack from an off-heap list");
+
+		offHeap.close();
+		try {
+			offHeap.addBack(4);
+			System.out.println("*****Test failed: a closed off-heap list accepted an add");
+		} catch (SecurityException e) {
+			System.out.println("\nClosed off-heap list rejected an add, as expected.");
+		}
+	}
+
+	public static void testMapped() {
+		Path file = null;
+		try {
+			file = Files.createTempFile("ProjectBDriver", ".list");
+			Files.delete(file);
+			try (MappedFrontBackCappedList<Integer> mapped = new MappedFrontBackCappedList<Integer>(file, 4, FixedWidthCodec.INTEGER, 1)) {
+				clearAndRefillTheList(mapped, new Integer[] {1, 2, 3});
+				mapped.addFront(0);
+				mapped.removeBack();
+				mapped.addBack(9);
+				testEntries(mapped, "size=4; capacity=4;	[0, 1, 2, 9]", "changes to a memory-mapped list");
+			}
+			try (MappedFrontBackCappedList<Integer> reopened = new MappedFrontBackCappedList<Integer>(file, 4, FixedWidthCodec.INTEGER)) {
+				testEntries(reopened, "size=4; capacity=4;	[0, 1, 2, 9]", "entries survive closing and reopening the file");
+				testAdd(reopened, AddRemovePosition.BACK, new Integer[] {5}, false, "reopened list is still full");
+				testRemove(reopened, AddRemovePosition.FRONT, 0, "removeFront from a reopened list");
+			}
+			try (MappedFrontBackCappedList<Integer> wrong = new MappedFrontBackCappedList<Integer>(file, 8, FixedWidthCodec.INTEGER)) {
+				System.out.println("*****Test failed: a file was reopened with another capacity: " + wrong);
+			} catch (IllegalArgumentException e) {
+				System.out.println("\nFile reopened with another capacity was refused, as expected.");
+			}
+
+			// A crash after the file was extended but before its header was written leaves it all zeros
+			Files.write(file, new byte[32 + 4 * Integer.BYTES]);
+			try (MappedFrontBackCappedList<Integer> recovered = new MappedFrontBackCappedList<Integer>(file, 4, FixedWidthCodec.INTEGER)) {
+				testEntries(recovered, "size=0; capacity=4;	[]", "file with an unwritten header opens as an empty list");
+				testAdd(recovered, AddRemovePosition.BACK, new Integer[] {7}, true, "addBack to a recovered file");
+			} catch (IllegalArgumentException e) {
+				System.out.println("*****Test failed: a file with an unwritten header was refused: " + e.getMessage());
+			}
+			try (MappedFrontBackCappedList<Integer> reopened = new MappedFrontBackCappedList<Integer>(file, 4, FixedWidthCodec.INTEGER)) {
+				testEntries(reopened, "size=1; capacity=4;	[7]", "recovered file reopens with its entries");
+			}
+		} catch (IOException e) {
+			System.out.println("*****Test failed to create a temporary file: " + e);
+		} finally {
+			deleteQuietly(file);
+		}
+	}
+
+	public static void testSpsc() {
+		SpscFrontBackCappedList<Integer> spsc = new SpscFrontBackCappedList<Integer>(3);
+		testAdd(spsc, AddRemovePosition.BACK, new Integer[] {1, 2, 3}, true, "fill a single-producer list");
+		testAdd(spsc, AddRemovePosition.BACK, new Integer[] {4}, false, "addBack to a full single-producer list");
+		testRemove(spsc, AddRemovePosition.FRONT, 1, "removeFront from a single-producer list");
+		testAdd(spsc, AddRemovePosition.BACK, new Integer[] {4}, true, "addBack after a remove");
+		testEntries(spsc, "size=3; capacity=3;	[2, 3, 4]", "capacity is kept below the power-of-two ring");
+		StringBuilder drained = new StringBuilder();
+		int count = spsc.drain(entry -> drained.append(entry));
+		testCount(3, count, "drain removes everything published");
+		testEntries(spsc, "size=0; capacity=3;	[]", "list is empty after a drain");
+		if (!drained.toString().equals("234")) {
+			System.out.println("*****Test failed: drain handed out " + drained + " instead of 234");
+		}
+		try {
+			spsc.addFront(0);
+			System.out.println("*****Test failed: a single-producer list accepted addFront");
+		} catch (UnsupportedOperationException e) {
+			System.out.println("\nSingle-producer list rejected addFront, as expected.");
+		}
 
+		// One producer and one consumer; the consumer must see every entry once, in order
+		SpscFrontBackCappedList<Integer> ring = new SpscFrontBackCappedList<Integer>(16);
+		int transfers = 200000;
+		Thread producer = new Thread(() -> {
+			for (int value = 0; value < transfers; value++) {
+				while (!ring.addBack(value)) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+		int expected = 0;
+		int outOfOrder = 0;
+		while (expected < transfers) {
+			Integer value = ring.removeFront();
+			if (value == null) {
+				Thread.yield();
+			} else if (value.intValue() != expected++) {
+				outOfOrder++;
+			}
+		}
+		try {
+			producer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		testCount(0, outOfOrder, "entries handed between two threads in order");
+		testCount(0, ring.size(), "nothing left after the handoff");
+	}
+
+	public static void testSegmented() {
+		SegmentedFrontBackCappedList<Integer> segmented = new SegmentedFrontBackCappedList<Integer>(3000);
+		testCount(0, segmented.getAllocatedChunks(), "no chunk before the first add");
+		for (int value = 0; value < 3000; value++) {
+			segmented.addBack(value);
+		}
+		testAdd(segmented, AddRemovePosition.BACK, new Integer[] {3000}, false, "addBack to a full segmented list");
+		testGetEntry(segmented, 1500, 1500, "getEntry in a middle chunk");
+		testIndexOf(segmented, IndexPosition.LAST, 2999, 2999, "indexOf in the last chunk");
+		int allocated = segmented.getAllocatedChunks();
+		List<Integer> removed = segmented.removeFront(1100);
+		testCount(1100, removed.size(), "removeFront(1100) from a segmented list");
+		testCount(allocated - 1, segmented.getAllocatedChunks(), "emptied chunk released");
+		testGetEntry(segmented, 0, 1100, "front after removing a chunk's worth");
+
+		removed = segmented.setCapacity(1000, TrimPolicy.DROP_FRONT);
+		testCount(900, removed.size(), "setCapacity trims the excess");
+		testCount(1000, segmented.size(), "size after lowering the capacity");
+		testGetEntry(segmented, 0, 2000, "front after trimming the front");
+		testGetEntry(segmented, 999, 2999, "back kept after trimming the front");
+		testAdd(segmented, AddRemovePosition.BACK, new Integer[] {3000}, false, "list is full at its new capacity");
+		segmented.setCapacity(1002, TrimPolicy.DROP_BACK);
+		testAdd(segmented, AddRemovePosition.FRONT, new Integer[] {1999, 1998}, true, "addFront after raising the capacity");
+		testGetEntry(segmented, 0, 1998, "front after raising the capacity");
+
+		SegmentedFrontBackCappedList<Integer> small = new SegmentedFrontBackCappedList<Integer>(3);
+		clearAndRefillTheList(small, new Integer[] {1, 2, 3});
+		small.setCapacity(2, TrimPolicy.DROP_BACK);
+		testEntries(small, "size=2; capacity=2;	[1, 2]", "setCapacity trims the back");
+	}
+
+	public static void testSerializer() {
+		CappedListSerializer<Integer> serializer = new CappedListSerializer<Integer>(FixedWidthCodec.INTEGER);
+		FrontBackCappedListInterface<Integer> source = new CircularFrontBackCappedList<Integer>(5);
+		clearAndRefillTheList(source, new Integer[] {1, 2, 3, 4, 5});
+		source.removeFront();
+		source.addBack(6); // The entries now wrap around the end of the array
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) serializer.encodedSize(source.size()));
+		testCount(buffer.capacity(), serializer.encode(source, buffer), "encoded size");
+		buffer.flip();
+		FrontBackCappedListInterface<Integer> decoded = new ArrayFrontBackCappedList<Integer>(5);
+		try {
+			testCount(5, serializer.decode(buffer, decoded), "entries decoded from a buffer");
+		} catch (IOException e) {
+			System.out.println("*****Test failed decoding a buffer: " + e);
+		}
+		testEntries(decoded, source.toString(), "buffer round trip");
+
+		buffer.flip();
+		buffer.put(0, (byte) 0);
+		try {
+			serializer.decode(buffer, new ArrayFrontBackCappedList<Integer>(5));
+			System.out.println("*****Test failed: a corrupt header was decoded");
+		} catch (StreamCorruptedException e) {
+			System.out.println("\nCorrupt header was refused, as expected.");
+		} catch (IOException e) {
+			System.out.println("*****Test failed: a corrupt header gave " + e);
+		}
+		buffer.put(0, (byte) 0x46);
+		buffer.limit(buffer.limit() - 1);
+		try {
+			serializer.decode(buffer, new ArrayFrontBackCappedList<Integer>(5));
+			System.out.println("*****Test failed: a truncated buffer was decoded");
+		} catch (EOFException e) {
+			System.out.println("\nTruncated buffer was refused, as expected.");
+		} catch (IOException e) {
+			System.out.println("*****Test failed: a truncated buffer gave " + e);
+		}
+
+		Path file = null;
+		OffHeapFrontBackCappedList<Integer> offHeap = new OffHeapFrontBackCappedList<Integer>(5, FixedWidthCodec.INTEGER);
+		try {
+			file = Files.createTempFile("ProjectBDriver", ".bin");
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+				// Written twice over the same channel, so the serializer's staging buffer is reused
+				serializer.write(source, channel);
+				serializer.write(source, channel);
+				channel.position(0);
+				FrontBackCappedListInterface<Integer> first = new ArrayFrontBackCappedList<Integer>(5);
+				serializer.read(channel, first);
+				testEntries(first, source.toString(), "channel round trip");
+				FrontBackCappedListInterface<Integer> window = new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_OPPOSITE_END);
+				serializer.read(channel, window);
+				testEntries(window, "size=3; capacity=3;	[4, 5, 6]", "reading into a smaller evicting list keeps the newest");
+
+				// An off-heap list with the same codec is written from its own bytes, wrapped or not
+				clearAndRefillTheList(offHeap, new Integer[] {7, 8, 9});
+				offHeap.removeFront();
+				offHeap.addBack(10);
+				offHeap.addBack(11);
+				offHeap.addBack(12);
+				channel.truncate(0);
+				serializer.write(offHeap, channel);
+				channel.position(0);
+				FrontBackCappedListInterface<Integer> copy = new ArrayFrontBackCappedList<Integer>(5);
+				serializer.read(channel, copy);
+				testEntries(copy, offHeap.toString(), "off-heap list written from its own bytes");
+			}
+		} catch (IOException e) {
+			System.out.println("*****Test failed writing through a file channel: " + e);
+		} finally {
+			offHeap.close();
+			deleteQuietly(file);
+		}
+	}
+
+	public static void testAggregating() {
+		AggregatingFrontBackCappedList<Integer> window = new AggregatingFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_OPPOSITE_END));
+		testNumber(Double.NaN, window.getMin(), "min of an empty list");
+		clearAndRefillTheList(window, new Integer[] {5, 1, 9});
+		testAggregates(window, 15, 1, 9, "aggregates of a full window");
+		testEvictingAdd(window, AddRemovePosition.BACK, 2, "size=3; capacity=3;	[1, 9, 2]", "addBack evicts from an aggregating list");
+		testAggregates(window, 12, 1, 9, "evicted entry left the sum");
+		testEvictingAdd(window, AddRemovePosition.BACK, 3, "size=3; capacity=3;	[9, 2, 3]", "addBack evicts the minimum");
+		testAggregates(window, 14, 2, 9, "evicted minimum left the aggregates");
+		testEvictingAdd(window, AddRemovePosition.FRONT, 4, "size=3; capacity=3;	[4, 9, 2]", "addFront evicts the back");
+		testAggregates(window, 15, 2, 9, "aggregates after an addFront eviction");
+		testRemove(window, AddRemovePosition.FRONT, 4, "removeFront from an aggregating list");
+		testRemove(window, AddRemovePosition.FRONT, 9, "removing the maximum");
+		testAggregates(window, 2, 2, 2, "aggregates of one entry");
+		testNumber(2.0, window.getMean(), "mean of one entry");
+		window.clear();
+		testNumber(Double.NaN, window.getMean(), "mean of a cleared list");
+
+		AggregatingFrontBackCappedList<Double> doubles = new AggregatingFrontBackCappedList<Double>(4);
+		doubles.addBack(0.1);
+		doubles.addBack(0.2);
+		doubles.addFront(-0.5);
+		testNumber(-0.2, doubles.getSum(), "compensated sum of doubles");
+		testCount(0, doubles.getIntegralSum(), "doubles are not in the integral sum");
+
+		// The stacks follow entries by the end they leave at, so lists that drop entries elsewhere are refused
+		try {
+			new AggregatingFrontBackCappedList<Integer>(new ExpiringFrontBackCappedList<Integer>(4, 10, TimeUnit.NANOSECONDS));
+			System.out.println("*****Test failed: an expiring list was aggregated");
+		} catch (IllegalArgumentException e) {
+			System.out.println("\nExpiring list was refused by the aggregates, as expected.");
+		}
+		try {
+			new AggregatingFrontBackCappedList<Integer>(new TopKFrontBackCappedList<Integer>(2, Comparator.reverseOrder()));
+			System.out.println("*****Test failed: a top-k list was aggregated");
+		} catch (IllegalArgumentException e) {
+			System.out.println("\nTop-k list was refused by the aggregates, as expected.");
+		}
+	}
+
+	public static void testExpiring() {
+		long[] now = {0};
+		ExpiringFrontBackCappedList<Integer> expiring = new ExpiringFrontBackCappedList<Integer>(3, 10, TimeUnit.NANOSECONDS, () -> now[0]);
+		expiring.addBack(1);
+		now[0] = 5;
+		expiring.addFront(2);
+		now[0] = 8;
+		expiring.addBack(3);
+		testEntries(expiring, "size=3; capacity=3;	[2, 1, 3]", "nothing expired yet");
+		testAdd(expiring, AddRemovePosition.BACK, new Integer[] {4}, false, "addBack to a full expiring list");
+
+		now[0] = 10;
+		testEntries(expiring, "size=2; capacity=3;	[2, 3]", "oldest entry expired from the middle");
+		testCount(1, expiring.getExpiredCount(), "expired count");
+		StringBuilder expired = new StringBuilder();
+		expiring.setEvictionListener((entry, position) -> expired.append(entry).append(" at ").append(position).append("; "));
+		testAdd(expiring, AddRemovePosition.BACK, new Integer[] {4}, true, "expired entry made room");
+		now[0] = 15;
+		testEntries(expiring, "size=2; capacity=3;	[3, 4]", "front run expired");
+		testGetEntry(expiring, 0, 3, "getEntry skips expired entries");
+		testIndexOf(expiring, IndexPosition.FIRST, 2, "indexOf skips expired entries");
+		now[0] = 100;
+		testCount(2, expiring.purgeExpired(), "purgeExpired drops the rest");
+		testIsEmptyFull(expiring, true, false);
+		System.out.println("Expirations reported: " + expired);
+		if (!expired.toString().equals("2 at 0; 3 at 0; 4 at 0; ")) {
+			System.out.println("*****Test failed: the listener was not told about each expiration");
+		}
+	}
+
+	public static void testTopK() {
+		TopKFrontBackCappedList<Integer> topK = new TopKFrontBackCappedList<Integer>(3, Comparator.reverseOrder());
+		testAdd(topK, AddRemovePosition.BACK, new Integer[] {5, 1, 9}, true, "fill a top-k list");
+		testEntries(topK, "size=3; capacity=3;	[9, 5, 1]", "entries in comparator order");
+		testEvictingAdd(topK, AddRemovePosition.FRONT, 7, "size=3; capacity=3;	[9, 7, 5]", "better entry displaces the worst");
+		testAdd(topK, AddRemovePosition.BACK, new Integer[] {2}, false, "worse entry rejected when full");
+		testAdd(topK, AddRemovePosition.BACK, new Integer[] {5}, false, "equal entry rejected when full");
+		if (topK.peekBest() != 9 || topK.peekWorst() != 5) {
+			System.out.println("*****Test failed: peekBest=" + topK.peekBest() + " peekWorst=" + topK.peekWorst() + "; expected 9 and 5");
+		}
+		testIndexOf(topK, IndexPosition.FIRST, 7, 1, "binary search of the sorted entries");
+		int[] displaced = {-1, -1};
+		topK.setEvictionListener((entry, position) -> {
+			displaced[0] = entry;
+			displaced[1] = position;
+		});
+		testCount(5, topK.push(8), "push returns the displaced entry");
+		testCount(5, displaced[0], "listener told about the displaced entry");
+		testCount(2, displaced[1], "displaced entry was at the back");
+		testRemove(topK, AddRemovePosition.FRONT, 9, "removeFront removes the best");
+		testRemove(topK, AddRemovePosition.BACK, 7, "removeBack removes the worst");
+		testEntries(topK, "size=1; capacity=3;	[8]", "one entry left");
+
+		// Once read by position, the sorted copy is kept in step with every change rather than sorted again
+		TopKFrontBackCappedList<Integer> kept = new TopKFrontBackCappedList<Integer>(50, Comparator.naturalOrder());
+		List<Integer> expected = new ArrayList<Integer>();
+		Random random = new Random(7);
+		kept.getEntry(0);
+		for (int step = 0; step < 2000; step++) {
+			int value = random.nextInt(100);
+			if (step % 5 == 4) {
+				Integer removed = (step % 10 == 4) ? kept.removeFront() : kept.removeBack();
+				if (removed != null) {
+					expected.remove(removed);
+				}
+			} else if (kept.addBack(value)) {
+				expected.add(value);
+				expected.sort(Comparator.naturalOrder());
+				if (expected.size() > 50) {
+					expected.remove(50);
+				}
+			}
+			int position = random.nextInt(50);
+			if (!Objects.equals(kept.getEntry(position), position < expected.size() ? expected.get(position) : null)) {
+				System.out.println("*****Test failed: top-k getEntry(" + position + ") after step " + step + " is " + kept.getEntry(position));
+				break;
+			}
+		}
+		testEntries(kept, "size=" + expected.size() + "; capacity=50;	" + expected, "sorted copy kept in step with adds and removes");
+	}
+
+	public static void testObservable() {
+		ObservableFrontBackCappedList<Integer> observable = new ObservableFrontBackCappedList<Integer>(
+				new CircularFrontBackCappedList<Integer>(3, OverflowPolicy.EVICT_OPPOSITE_END), 4);
+		observable.addBack(1);
+		observable.addBack(2);
+
+		// The replica only rejects, so it stays equal only if every eviction is published as a remove
+		FrontBackCappedListInterface<Integer> replica = new ArrayFrontBackCappedList<Integer>(3);
+		StringBuilder batches = new StringBuilder();
+		observable.addListener(batch -> {
+			batches.append(batch);
+			batch.applyTo(replica);
+		});
+		observable.forEach(replica::addBack);
+
+		observable.addBack(3);
+		testEntries(replica, "size=2; capacity=3;	[1, 2]", "events stay buffered until the batch fills");
+		observable.addBack(4);
+		observable.addFront(0);
+		observable.removeBack();
+		observable.removeBack();
+		observable.removeBack();
+		observable.removeBack();
+		observable.addBack(5);
+		observable.flush();
+		testEntries(replica, observable.toString(), "batches replayed on a replica");
+		System.out.println("Batches published: " + batches);
+		if (!batches.toString().equals("[add_back 3, remove_front 1, add_back 4, remove_back 4][add_front 0, remove_back 3, remove_back 2, remove_back 0][add_back 5]")) {
+			System.out.println("*****Test failed: the batches did not match the mutations");
+		}
+
+		observable.addFront(6);
+		observable.clear();
+		observable.addFront(7);
+		observable.flush();
+		testEntries(replica, "size=1; capacity=3;	[7]", "clear replayed on a replica");
+
+		// Events only describe changes at the ends, so a list whose expirations happen in the middle is refused
+		try {
+			new ObservableFrontBackCappedList<Integer>(new ExpiringFrontBackCappedList<Integer>(4, 10, TimeUnit.NANOSECONDS));
+			System.out.println("*****Test failed: an expiring list was observed");
+		} catch (IllegalArgumentException e) {
+			System.out.println("\nExpiring list was refused by the observable list, as expected.");
+		}
+		try {
+			new ObservableFrontBackCappedList<Integer>(new TopKFrontBackCappedList<Integer>(3, Comparator.reverseOrder()));
+			System.out.println("*****Test failed: a top-k list was observed");
+		} catch (IllegalArgumentException e) {
+			System.out.println("\nTop-k list was refused by the observable list, as expected.");
+		}
 	}
 
 	/*
@@ -225,6 +953,68 @@ public class ProjectBDriver {
 	 * need to use, modify, or understand these methods. You can safely ignore them. :) 
 	 */
 
+	public static void awaitReplicas(CappedListPrimary<?> primary, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (primary.getReplicaCount() < count && System.nanoTime() < deadline) {
+			primary.flush();
+			Thread.sleep(1);
+		}
+	}
+	public static <T> void testReplicaMatch(FrontBackCappedListInterface<T> primaryList, CappedListPrimary<T> primary, CappedListReplica<T> replica, FrontBackCappedListInterface<T> copy, String testDescription) throws InterruptedException {
+		boolean caughtUp = replica.awaitSequence(primary.getPublishedSequence(), 5, TimeUnit.SECONDS);
+		System.out.println("\nPrimary list: " + primaryList);
+		System.out.println("Replica list: " + copy);
+		if(!caughtUp) {
+			System.out.println("*****Test failed waiting for the replica to reach sequence " + primary.getPublishedSequence() + "; test:" + testDescription);
+		} else if(!primaryList.toString().equals(copy.toString())) {
+			System.out.println("*****Test failed comparing the replica with the primary; test:" + testDescription);
+		}
+	}
+	public static <T> void testEntries(FrontBackCappedListInterface<T> list, String expectedOutput, String testDescription) {
+		System.out.println("\nExpected output: " + expectedOutput);
+		System.out.println("Actual output:   " + list.toString());
+		if(!expectedOutput.equals(list.toString())) {
+			System.out.println("*****Test failed comparing the list's entries; test:" + testDescription);
+		}
+	}
+	public static <T> void testEvictingAdd(FrontBackCappedListInterface<T> list, AddRemovePosition positionToAdd, T value, String expectedOutput, String testDescription) {
+		System.out.println("\nTrying to add " + value + " to " + positionToAdd + " of full list: " + list);
+		boolean actualResult = (positionToAdd == AddRemovePosition.FRONT) ? list.addFront(value) : list.addBack(value);
+		if(!actualResult) {
+			System.out.println("*****Test failed when adding " + value + "; test:" + testDescription);
+			System.out.println("     Expected result=true\tActual result=false");
+		}
+		testEntries(list, expectedOutput, testDescription);
+	}
+	public static void testCount(long expectedCount, long actualCount, String testDescription) {
+		System.out.println("\nExpected count: " + expectedCount + "\tActual count: " + actualCount);
+		if(expectedCount != actualCount) {
+			System.out.println("*****Test failed counting; test:" + testDescription);
+		}
+	}
+	public static void testNumber(double expectedValue, double actualValue, String testDescription) {
+		System.out.println("\nExpected value: " + expectedValue + "\tActual value: " + actualValue);
+		if(Double.isNaN(expectedValue) ? !Double.isNaN(actualValue) : Math.abs(expectedValue - actualValue) > 1e-9) {
+			System.out.println("*****Test failed comparing values; test:" + testDescription);
+		}
+	}
+	public static void testAggregates(AggregatingFrontBackCappedList<?> list, double expectedSum, double expectedMin, double expectedMax, String testDescription) {
+		System.out.println("\nList: " + list);
+		System.out.println("Expected sum=" + expectedSum + " min=" + expectedMin + " max=" + expectedMax);
+		System.out.println("Actual sum=" + list.getSum() + " min=" + list.getMin() + " max=" + list.getMax());
+		if(list.getSum() != expectedSum || list.getMin() != expectedMin || list.getMax() != expectedMax) {
+			System.out.println("*****Test failed comparing the aggregates; test:" + testDescription);
+		}
+	}
+	public static void deleteQuietly(Path file) {
+		try {
+			if(file != null) {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException e) {
+			System.out.println("Could not delete " + file + ": " + e);
+		}
+	}
 	public static <T> void testDisplayMatch(FrontBackCappedListInterface<T> list, String expectedOutput) {
 		System.out.println("\nExpected output: " + expectedOutput);
 		System.out.println("Actual output:   " + list.toString() +"\n");
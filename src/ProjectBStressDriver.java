@@ -0,0 +1,130 @@
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * A multi-threaded stress driver for the thread-safe FrontBackCappedListInterface implementations.
+ *
+ * Every thread adds and removes unique values at random ends of a shared list. The driver then checks that the
+ * list never reported a size above its capacity, that no value was removed twice or invented, and that the
+ * values added equal the values removed plus the values left in the list.
+ */
+public class ProjectBStressDriver {
+
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+	private static final int CAPACITY = 64;
+	private static final int OPERATIONS_PER_THREAD = 200_000;
+
+	private static final Map<String, IntFunction<FrontBackCappedListInterface<Long>>> IMPLEMENTATIONS =
+			new LinkedHashMap<>();
+
+	static {
+		IMPLEMENTATIONS.put("Concurrent", ConcurrentFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("Blocking", BlockingFrontBackCappedList::new);
+		IMPLEMENTATIONS.put("Striped", StripedFrontBackCappedList::new);
+	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		for (Map.Entry<String, IntFunction<FrontBackCappedListInterface<Long>>> implementation : IMPLEMENTATIONS.entrySet()) {
+			System.out.println("*****************************STRESSING " + implementation.getKey().toUpperCase()
+					+ "*****************************");
+			for (int threads : THREAD_COUNTS) {
+				testStress(implementation.getValue().apply(CAPACITY), threads);
+			}
+		}
+	}
+
+	/*
+	 * The methods below run one stress scenario and report any invariant that was broken.
+	 */
+
+	public static void testStress(FrontBackCappedListInterface<Long> list, int threadCount) throws InterruptedException {
+		AtomicLong addedSum = new AtomicLong();
+		AtomicLong addedCount = new AtomicLong();
+		AtomicLong removedSum = new AtomicLong();
+		AtomicLong removedCount = new AtomicLong();
+		AtomicLong capacityViolations = new AtomicLong();
+		Set<Long> removed = Collections.synchronizedSet(new HashSet<>());
+		List<String> failures = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[threadCount];
+
+		for (int thread = 0; thread < threadCount; thread++) {
+			long base = (long) thread * OPERATIONS_PER_THREAD;
+			threads[thread] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				awaitQuietly(start);
+				for (int operation = 0; operation < OPERATIONS_PER_THREAD; operation++) {
+					Long value = base + operation + 1;
+					Long result = null;
+					switch (random.nextInt(4)) {
+					case 0:
+						if (list.addFront(value)) {
+							addedSum.addAndGet(value);
+							addedCount.incrementAndGet();
+						}
+						break;
+					case 1:
+						if (list.addBack(value)) {
+							addedSum.addAndGet(value);
+							addedCount.incrementAndGet();
+						}
+						break;
+					case 2:
+						result = list.removeFront();
+						break;
+					default:
+						result = list.removeBack();
+						break;
+					}
+					if (result != null) {
+						removedSum.addAndGet(result);
+						removedCount.incrementAndGet();
+						if (!removed.add(result)) {
+							failures.add("value " + result + " was removed twice");
+						}
+					}
+					if (list.size() > CAPACITY) {
+						capacityViolations.incrementAndGet();
+					}
+				}
+			});
+			threads[thread].start();
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		long remainingSum = 0;
+		int remainingCount = list.size();
+		for (int position = 0; position < remainingCount; position++) {
+			remainingSum += list.getEntry(position);
+		}
+
+		System.out.println("\nThreads=" + threadCount + " added=" + addedCount + " removed=" + removedCount
+				+ " remaining=" + remainingCount);
+		if (capacityViolations.get() > 0) {
+			System.out.println("*****Test failed: size exceeded capacity " + capacityViolations + " times");
+		}
+		if (addedCount.get() != removedCount.get() + remainingCount
+				|| addedSum.get() != removedSum.get() + remainingSum) {
+			System.out.println("*****Test failed: added entries do not match removed plus remaining entries");
+		}
+		for (String failure : failures) {
+			System.out.println("*****Test failed: " + failure);
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,540 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+public class SegmentedFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that implements the ADT list with front or back entry or removal and capped to a given capacity,
+ * using a circular run of fixed-size chunks instead of one array.
+ *
+ * The slots of the list are numbered around a ring of CHUNK_SIZE-entry chunks, the way CircularFrontBackCappedList
+ * numbers the slots of its array. A slot number is split into a chunk number (the high bits) and an offset in that
+ * chunk (the low bits), so getEntry is still constant time. Only the chunk table is allocated up front; a chunk is
+ * allocated when the first entry is written into it and released as soon as its last entry is removed, so a large
+ * list that is mostly empty stays small, and no allocation is ever large enough to be a G1 humongous object.
+ *
+ * The ring has one chunk more than the capacity needs, so the entries never wrap around into the chunk they
+ * started in and a chunk that the head or the back has just left is always empty. One released chunk is kept as a
+ * spare, so a list that keeps filling and draining across a chunk boundary does not allocate on every step.
+ *
+ * setCapacity never moves an entry: it only builds a new chunk table holding the same chunks, in list order.
+ */
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Object[][] chunks;
+    private int slotCount;
+    private int capacity;
+    private Object[] spare;
+    private int head;
+    private int numberOfElements;
+    private int allocatedChunks;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes empty list. No chunk is allocated until the first entry is added.
+     *
+     * @param capacity The capacity of the list
+     */
+    public SegmentedFrontBackCappedList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (capacity > Integer.MAX_VALUE - 2 * CHUNK_SIZE) {
+            throw new IllegalArgumentException("Capacity is too large.");
+        }
+
+        int chunkCount = (capacity + CHUNK_MASK) / CHUNK_SIZE + 1;
+        chunks = new Object[chunkCount][];
+        slotCount = chunkCount * CHUNK_SIZE;
+        this.capacity = capacity;
+        spare = null;
+        head = 0;
+        numberOfElements = 0;
+        allocatedChunks = 0;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full. The head slot is moved back one, and its chunk
+     * is allocated if it is new.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull()) {
+            result = false;
+        } else { // Assertion: result is true
+            head = (head == 0) ? slotCount - 1 : head - 1;
+            chunkFor(head)[head & CHUNK_MASK] = newEntry;
+            numberOfElements++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full. The slot's chunk is allocated if it is new.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        boolean result = true;
+
+        if (isFull()) {
+            result = false;
+        } else { // Assertion: result is true
+            int slot = slotOf(numberOfElements);
+            chunkFor(slot)[slot & CHUNK_MASK] = newEntry;
+            numberOfElements++;
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty. If that empties the chunk, the
+     * chunk is released.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            int chunk = head >>> CHUNK_SHIFT;
+            result = take(head);
+            head = (head + 1 == slotCount) ? 0 : head + 1;
+            numberOfElements--;
+
+            if (isEmpty() || (head >>> CHUNK_SHIFT) != chunk) {
+                release(chunk);
+            }
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes an entry from the end of the list if the list is not empty. If that empties the chunk, the chunk is
+     * released.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        T result = null;
+
+        if (!(isEmpty())) {
+            int slot = slotOf(numberOfElements - 1);
+            int chunk = slot >>> CHUNK_SHIFT;
+            result = take(slot);
+            numberOfElements--;
+
+            if (isEmpty() || (slotOf(numberOfElements - 1) >>> CHUNK_SHIFT) != chunk) {
+                release(chunk);
+            }
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the list and releases every chunk.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        Arrays.fill(chunks, null);
+        spare = null;
+        allocatedChunks = 0;
+        head = 0;
+        numberOfElements = 0;
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list, after determining if the position is valid.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        T result = null;
+
+        if (validPosition(givenPosition)) { // Assertion: list is not empty
+            result = entryAt(givenPosition);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        int position = -1;
+
+        // Searching from front of list
+        for (int index = 0; (position < 0) && (index < numberOfElements); index++) {
+            if (anEntry.equals(entryAt(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        int position = -1;
+
+        // Searching from back of list
+        for (int index = numberOfElements - 1; (position < 0) && (index >= 0); index--) {
+            if (anEntry.equals(entryAt(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return numberOfElements;
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (numberOfElements == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (numberOfElements >= capacity);
+    }
+
+
+    /**
+     * Retrieves the number of entries the list can hold.
+     *
+     * @return The capacity of the list.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Changes the number of entries the list can hold. If the list holds more entries than the new capacity, the
+     * extra entries are removed from the end the trim policy names and returned in one list.
+     *
+     * No entry is copied. The chunks holding entries are placed, in list order, at the start of a new chunk table
+     * sized for the new capacity, so the cost is one table slot per CHUNK_SIZE entries of capacity.
+     *
+     * @param newCapacity The new capacity of the list
+     * @param trimPolicy Which end to remove entries from if the list is over the new capacity
+     * @return The removed entries, in the order removeFront(int) or removeBack(int) returns them.
+     */
+    public List<T> setCapacity(int newCapacity, TrimPolicy trimPolicy) {
+        checkInitialization();
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (newCapacity > Integer.MAX_VALUE - 2 * CHUNK_SIZE) {
+            throw new IllegalArgumentException("Capacity is too large.");
+        }
+        if (trimPolicy == null) {
+            throw new IllegalArgumentException("Trim policy must not be null.");
+        }
+
+        int excess = Math.max(0, numberOfElements - newCapacity);
+        List<T> removed = (trimPolicy == TrimPolicy.DROP_FRONT) ? removeFront(excess) : removeBack(excess);
+
+        int chunkCount = (newCapacity + CHUNK_MASK) / CHUNK_SIZE + 1;
+        if (chunkCount != chunks.length) {
+            // Only chunks that hold entries are allocated, and they run from the head's chunk for this many chunks
+            int offset = head & CHUNK_MASK;
+            int usedChunks = (numberOfElements == 0) ? 0 : (offset + numberOfElements + CHUNK_MASK) >>> CHUNK_SHIFT;
+            Object[][] table = new Object[chunkCount][];
+            int chunk = head >>> CHUNK_SHIFT;
+            for (int index = 0; index < usedChunks; index++) {
+                table[index] = chunks[chunk];
+                chunk = (chunk + 1 == chunks.length) ? 0 : chunk + 1;
+            }
+            chunks = table;
+            slotCount = chunkCount * CHUNK_SIZE;
+            head = (numberOfElements == 0) ? 0 : offset;
+        }
+        capacity = newCapacity;
+
+        return removed;
+    }
+
+
+    /**
+     * Retrieves the number of chunks currently allocated, not counting the spare.
+     *
+     * @return The number of allocated chunks.
+     */
+    public int getAllocatedChunks() {
+        return allocatedChunks;
+    }
+
+
+    /**
+     * Takes a read-only copy of the list.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        T[] entries = (T[]) new Object[numberOfElements]; // Unchecked cast
+        for (int index = 0; index < numberOfElements; index++) {
+            entries[index] = entryAt(index);
+        }
+
+        return new SnapshotFrontBackCappedList<>(entries, 0, numberOfElements, capacity);
+    }
+
+
+    /**
+     * Performs an action on each entry of the list, from front to back, one chunk at a time.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+        int slot = head;
+
+        for (int remaining = numberOfElements; remaining > 0; ) {
+            @SuppressWarnings("unchecked")
+            T[] chunk = (T[]) chunks[slot >>> CHUNK_SHIFT]; // Only T entries are ever stored
+            int offset = slot & CHUNK_MASK;
+            int run = Math.min(remaining, CHUNK_SIZE - offset);
+            for (int index = offset; index < offset + run; index++) {
+                action.accept(chunk[index]);
+            }
+            remaining -= run;
+            slot += run;
+            if (slot == slotCount) {
+                slot = 0;
+            }
+        }
+    }
+
+
+    /**
+     * Creates a spliterator over the chunks that splits evenly in half, for sequential or parallel streams.
+     * The list must not be changed while the spliterator is in use.
+     *
+     * @return An ordered, sized spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        checkInitialization();
+
+        return new CappedListSpliterator<>(this::entryAt, 0, numberOfElements);
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        StringJoiner entries = new StringJoiner(", ", "[", "]");
+        forEach(entry -> entries.add(String.valueOf(entry)));
+
+        return  "size=" + numberOfElements + "; capacity=" + capacity + ";\t" + entries;
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("SegmentedFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Converts a position in the list to its slot number in the ring of chunks.
+     *
+     * @param position The position in the list
+     * @return The slot number of that position.
+     */
+    private int slotOf(int position) {
+        int slot = head + position;
+
+        // Subtract rather than use % so the hot path has no division
+        if (slot >= slotCount) {
+            slot -= slotCount;
+        }
+
+        return slot;
+    }
+
+
+    /**
+     * Reads the entry at a position in the list.
+     * Precondition: position is valid.
+     *
+     * @param position The position in the list
+     * @return The entry at that position.
+     */
+    @SuppressWarnings("unchecked")
+    private T entryAt(int position) {
+        int slot = slotOf(position);
+        return (T) chunks[slot >>> CHUNK_SHIFT][slot & CHUNK_MASK]; // Only T entries are ever stored
+    }
+
+
+    /**
+     * Reads the entry in a slot and clears the slot so the entry can be garbage collected.
+     *
+     * @param slot The slot number
+     * @return The entry that was in the slot.
+     */
+    @SuppressWarnings("unchecked")
+    private T take(int slot) {
+        Object[] chunk = chunks[slot >>> CHUNK_SHIFT];
+        T result = (T) chunk[slot & CHUNK_MASK]; // Only T entries are ever stored
+        chunk[slot & CHUNK_MASK] = null;
+        return result;
+    }
+
+
+    /**
+     * Finds the chunk that holds a slot, allocating it (or reusing the spare) if it is not allocated.
+     *
+     * @param slot The slot number
+     * @return The chunk holding the slot.
+     */
+    private Object[] chunkFor(int slot) {
+        int chunk = slot >>> CHUNK_SHIFT;
+
+        if (chunks[chunk] == null) {
+            if (spare != null) {
+                chunks[chunk] = spare;
+                spare = null;
+            } else {
+                chunks[chunk] = new Object[CHUNK_SIZE];
+            }
+            allocatedChunks++;
+        }
+
+        return chunks[chunk];
+    }
+
+
+    /**
+     * Releases an empty chunk, keeping it as the spare if there is none. Its slots are already all null.
+     *
+     * @param chunk The chunk number
+     */
+    private void release(int chunk) {
+        if (spare == null) {
+            spare = chunks[chunk];
+        }
+        chunks[chunk] = null;
+        allocatedChunks--;
+    }
+
+
+    /**
+     * Determines if given position is a valid position within the bounds of the list.
+     *
+     * @param position The position in the list
+     * @return True if the position is valid; otherwise, returns false.
+     */
+    private boolean validPosition(int position) {
+        return position >= 0 && position < numberOfElements;
+    }
+
+}
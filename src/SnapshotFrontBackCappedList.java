@@ -0,0 +1,354 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+public class SnapshotFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A read-only view of the entries a list held at the moment snapshot() was called on it.
+ *
+ * The entries are read from a circular run of slots, held either in one private array or in chunks that the
+ * snapshot shares with the list it came from (see CopyOnWriteChunks). The list never writes to a shared chunk
+ * again (it copies a chunk before its first change to it), so a snapshot never changes, needs no locking, and may
+ * be handed to any number of reader threads. The chunks are reached through a final field, so other threads see
+ * them fully written even when the snapshot itself is passed to them without synchronization.
+ *
+ * Every method that would change the list throws UnsupportedOperationException.
+ */
+
+    private final T[][] chunks;
+    private final int length; // The number of slots in all the chunks together
+    private final int shift;  // Slot i is in chunk i >>> shift, at index i & mask
+    private final int mask;
+    private final int head;
+    private final int numberOfElements;
+    private final int capacity;
+
+    /**
+     * Creates a snapshot over size entries of an array, starting at head and wrapping around the end of the array.
+     * The caller must never write to the array again.
+     *
+     * @param entries The array holding the entries
+     * @param head The array index of the first entry
+     * @param size The number of entries
+     * @param capacity The capacity of the list the snapshot was taken from, or -1 if it is not known (a list
+     *                 that is not full)
+     */
+    SnapshotFrontBackCappedList(T[] entries, int head, int size, int capacity) {
+        this(wrap(entries), entries.length, Integer.SIZE - 1, head, size, capacity);
+    }
+
+
+    /**
+     * Creates a snapshot over size slots of a table of chunks, starting at head and wrapping around the end of the
+     * table. The caller must never write to the chunks again.
+     *
+     * @param chunks The chunks holding the slots; every chunk but the last holds 1 << shift slots
+     * @param length The number of slots in all the chunks together
+     * @param shift The base-2 logarithm of the chunk size
+     * @param head The slot of the first entry
+     * @param size The number of entries
+     * @param capacity The capacity of the list the snapshot was taken from, or -1 if it is not known
+     */
+    SnapshotFrontBackCappedList(T[][] chunks, int length, int shift, int head, int size, int capacity) {
+        this.chunks = chunks;
+        this.length = length;
+        this.shift = shift;
+        mask = (1 << shift) - 1;
+        this.head = head;
+        this.numberOfElements = size;
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public T removeFront() {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public T removeBack() {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public int addAllFront(T[] newEntries) {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public int addAllBack(T[] newEntries) {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Not supported: a snapshot cannot change.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        throw new UnsupportedOperationException("A snapshot is read-only.");
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the snapshot.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        T result = null;
+
+        if (givenPosition >= 0 && givenPosition < numberOfElements) {
+            result = entryAt(givenPosition);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the snapshot of a given entry. If the entry appears more than once, the first
+     * index is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        int position = -1;
+
+        // Searching from front of list
+        for (int index = 0; (position < 0) && (index < numberOfElements); index++) {
+            if (anEntry.equals(entryAt(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the snapshot of a given entry. If the entry appears more than once, the last
+     * index is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        int position = -1;
+
+        // Searching from back of list
+        for (int index = numberOfElements - 1; (position < 0) && (index >= 0); index--) {
+            if (anEntry.equals(entryAt(index))) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the snapshot.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of snapshot.
+     *
+     * @return Integer number of entries in the snapshot.
+     */
+    @Override
+    public int size() {
+        return numberOfElements;
+    }
+
+
+    /**
+     * Determines if the snapshot is empty.
+     *
+     * @return True if the snapshot is empty; otherwise, returns false if it contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (numberOfElements == 0);
+    }
+
+
+    /**
+     * Determines if the list was full when the snapshot was taken.
+     *
+     * @return True if the list was full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (capacity >= 0) && (numberOfElements >= capacity);
+    }
+
+
+    /**
+     * Takes a snapshot of a snapshot, which is the snapshot itself.
+     *
+     * @return This snapshot.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        return this;
+    }
+
+
+    /**
+     * Performs an action on each entry of the snapshot, from front to back.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (int index = 0; index < numberOfElements; index++) {
+            action.accept(entryAt(index));
+        }
+    }
+
+
+    /**
+     * Creates a spliterator over the shared chunks that splits evenly in half, for sequential or parallel streams.
+     *
+     * @return An ordered, sized spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new CappedListSpliterator<>(this::entryAt, 0, numberOfElements);
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of the list the snapshot was taken from.
+     *
+     * @return String representation of the snapshot, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        StringJoiner result = new StringJoiner(", ", "[", "]");
+        forEach(entry -> result.add(String.valueOf(entry)));
+
+        return  "size=" + numberOfElements + "; " + ((capacity < 0) ? "" : "capacity=" + capacity + ";") + "\t" +
+                result;
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Reads the entry at a position in the snapshot, wrapping around the end of the slots.
+     *
+     * @param position The position in the snapshot; 0 <= position < size()
+     * @return The entry at that position.
+     */
+    private T entryAt(int position) {
+        int index = head + position;
+
+        if (index >= length) {
+            index -= length;
+        }
+
+        return chunks[index >>> shift][index & mask];
+    }
+
+
+    /**
+     * Makes a one-chunk table of an array. A shift of 31 puts every non-negative index in that chunk.
+     *
+     * @param entries The array
+     * @return A table holding only the array.
+     */
+    private static <T> T[][] wrap(T[] entries) {
+        // The cast is safe because the table holds only the given array
+        @SuppressWarnings("unchecked")
+        T[][] table = (T[][]) new Object[][] {entries};  // Unchecked
+        return table;
+    }
+
+}
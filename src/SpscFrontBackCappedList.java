@@ -0,0 +1,407 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.function.Consumer;
+
+public class SpscFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A wait-free class that implements the ADT list capped to a given capacity for exactly one producer thread, which
+ * calls addBack, and one consumer thread, which calls removeFront, drain, and clear. It is a ring buffer for
+ * handing entries from one pipeline stage to the next.
+ *
+ * The producer owns the tail sequence and the consumer owns the head sequence; each is only ever written by its
+ * owner, so neither side needs a compare-and-set or a lock. A write is published with a release store of the
+ * sequence and seen with an acquire load, and each side keeps a plain cached copy of the other side's sequence and
+ * only rereads it when the cache says the ring is full (producer) or empty (consumer). The two sequences sit in
+ * separately allocated objects padded to more than a cache line, so the two threads never write the same line.
+ * drain() removes everything the producer has published with a single read of the tail and a single store of the
+ * head.
+ *
+ * addFront and removeBack would need both threads to write the same end, so they are not supported. getEntry,
+ * indexOf, lastIndexOf, contains, size, and toString may be called from any thread, but only give exact answers
+ * when called from the consumer thread while the producer is idle.
+ */
+
+    private final T[] list;
+    private final int mask;
+    private final int capacity;
+    private final Sequence head;
+    private final Sequence tail;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes empty list. The ring is rounded up to a power of two so positions can be found with
+     * a mask, but the list still holds at most capacity entries.
+     *
+     * @param capacity The capacity of the list
+     */
+    public SpscFrontBackCappedList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be at most 2^30.");
+        }
+
+        int length = (capacity <= 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        T[] tempList = (T[]) new Object[length];  // Unchecked
+        list = tempList;
+        mask = length - 1;
+        this.capacity = capacity;
+        head = new Sequence();
+        tail = new Sequence();
+        initialized = true;
+    }
+
+
+    /**
+     * Not supported: only the consumer may move the front of the list.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return Never returns.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        throw new UnsupportedOperationException("SpscFrontBackCappedList only adds to the back.");
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full. Must only be called from the producer thread.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        checkInitialization();
+        long currentTail = tail.value;
+
+        if (currentTail - tail.cached >= capacity) {
+            tail.cached = head.getAcquire();
+            if (currentTail - tail.cached >= capacity) {
+                return false;
+            }
+        }
+
+        list[(int) currentTail & mask] = newEntry;
+        tail.setRelease(currentTail + 1);
+
+        return true;
+    }
+
+
+    /**
+     * Removes an entry from the beginning of the list if the list is not empty. Must only be called from the
+     * consumer thread.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        long currentHead = head.value;
+
+        if (currentHead >= head.cached) {
+            head.cached = tail.getAcquire();
+            if (currentHead >= head.cached) {
+                return null;
+            }
+        }
+
+        int index = (int) currentHead & mask;
+        T result = list[index];
+        list[index] = null;
+        head.setRelease(currentHead + 1);
+
+        return result;
+    }
+
+
+    /**
+     * Not supported: only the producer may move the back of the list.
+     *
+     * @return Never returns.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public T removeBack() {
+        throw new UnsupportedOperationException("SpscFrontBackCappedList only removes from the front.");
+    }
+
+
+    /**
+     * Removes every entry the producer has published so far and passes each one, from front to back, to the
+     * action. Must only be called from the consumer thread.
+     *
+     * @param action The action to perform on each removed entry.
+     * @return The number of entries removed.
+     */
+    public int drain(Consumer<? super T> action) {
+        checkInitialization();
+        long currentHead = head.value;
+        long currentTail = tail.getAcquire();
+        head.cached = currentTail;
+
+        for (long sequence = currentHead; sequence < currentTail; sequence++) {
+            int index = (int) sequence & mask;
+            action.accept(list[index]);
+            list[index] = null;
+        }
+        head.setRelease(currentTail);
+
+        return (int) (currentTail - currentHead);
+    }
+
+
+    /**
+     * Removes every entry the producer has published so far. Must only be called from the consumer thread.
+     */
+    @Override
+    public void clear() {
+        drain(entry -> { });
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list, storing the head only once.
+     * Must only be called from the consumer thread.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        long currentHead = head.value;
+        long currentTail = tail.getAcquire();
+        head.cached = currentTail;
+        int removing = (int) Math.max(0, Math.min(count, currentTail - currentHead));
+        List<T> removed = new ArrayList<>(removing);
+
+        for (long sequence = currentHead; sequence < currentHead + removing; sequence++) {
+            int index = (int) sequence & mask;
+            removed.add(list[index]);
+            list[index] = null;
+        }
+        head.setRelease(currentHead + removing);
+
+        return removed;
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        long currentHead = head.getAcquire();
+        T result = null;
+
+        if (givenPosition >= 0 && givenPosition < tail.getAcquire() - currentHead) {
+            result = list[(int) (currentHead + givenPosition) & mask];
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        long currentHead = head.getAcquire();
+        int size = (int) (tail.getAcquire() - currentHead);
+        int position = -1;
+
+        // Searching from front of list
+        for (int index = 0; (position < 0) && (index < size); index++) {
+            if (anEntry.equals(list[(int) (currentHead + index) & mask])) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        long currentHead = head.getAcquire();
+        int size = (int) (tail.getAcquire() - currentHead);
+        int position = -1;
+
+        // Searching from back of list
+        for (int index = size - 1; (position < 0) && (index >= 0); index--) {
+            if (anEntry.equals(list[(int) (currentHead + index) & mask])) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        // Reading the head first means a concurrent removal can only make the result too large, never negative
+        long currentHead = head.getAcquire();
+        return (int) Math.min(capacity, tail.getAcquire() - currentHead);
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (size() == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (size() >= capacity);
+    }
+
+
+    /**
+     * Takes a read-only copy of the entries the producer has published. The copy is exact when taken from the
+     * consumer thread.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+        long currentHead = head.getAcquire();
+        int size = (int) (tail.getAcquire() - currentHead);
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        T[] entries = (T[]) new Object[size]; // Unchecked cast
+        for (int index = 0; index < size; index++) {
+            entries[index] = list[(int) (currentHead + index) & mask];
+        }
+
+        return new SnapshotFrontBackCappedList<>(entries, 0, size, capacity);
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        long currentHead = head.getAcquire();
+        int size = (int) (tail.getAcquire() - currentHead);
+        Object[] entries = new Object[size];
+        for (int index = 0; index < size; index++) {
+            entries[index] = list[(int) (currentHead + index) & mask];
+        }
+
+        return "size=" + size + "; capacity=" + capacity + ";\t" + Arrays.toString(entries);
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("SpscFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * A sequence written by one thread, with its owner's cached copy of the other thread's sequence. The unused
+     * long fields on either side keep the two sequences of a list on different cache lines, even on machines that
+     * fetch two 64-byte lines at a time.
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Sequence.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private long p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+        private long value;
+        private long cached;
+        private long p17, p18, p19, p20, p21, p22, p23, p24, p25, p26, p27, p28, p29, p30;
+
+        private long getAcquire() {
+            return (long) VALUE.getAcquire(this);
+        }
+
+        private void setRelease(long newValue) {
+            VALUE.setRelease(this, newValue);
+        }
+    }
+
+}
@@ -0,0 +1,793 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class StripedFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A thread-safe class that implements the ADT list with front or back entry or removal and capped to a given
+ * capacity, spread over several independently locked shards so that many threads can add at once.
+ *
+ * Each thread adds to its home shard, chosen from its thread id, and moves on to the next shard whose lock is free
+ * if the home shard is busy, so adders on different cores rarely wait for each other. The global cap is kept by
+ * splitting the capacity into per-shard quotas that always add up to it: a shard accepts an entry while it is under
+ * its quota, and only when its quota runs out does the adder lock every shard and move half of the largest unused
+ * quota over. The list therefore never holds more than capacity entries, and an add is only rejected when every
+ * shard is at its quota.
+ *
+ * Every entry carries a sequence number from its shard. A shard numbers its back entries upwards and its front
+ * entries downwards from the current System.nanoTime, and never hands out a number twice, so within a shard the
+ * numbers run in list order and across shards they follow the clock. Removing from the front or back, and every
+ * read that depends on order, locks all shards and merges them by sequence number, breaking ties by shard index.
+ * Adds that run at the same time may come out in either order, and so may two adds that land in different shards
+ * within one tick of the clock, which on common platforms is a nanosecond or two.
+ *
+ * size, isEmpty, and isFull add up the shard sizes without locking, so while other threads are adding or removing
+ * they may give an answer that was never true at any single instant; they are exact when the list is quiescent.
+ * Every other method is exact. getEntry, indexOf, and lastIndexOf merge the shards and so take time linear in the
+ * size of the list; use drain or removeFront(int) to remove many entries in one merge.
+ */
+
+    private static final int INITIAL_SHARD_LENGTH = 16;
+
+    private final Shard<T>[] shards;
+    private final int capacity;
+    private final long origin;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes an empty list with one shard per available processor.
+     *
+     * @param capacity The capacity of the list
+     */
+    public StripedFrontBackCappedList(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Creates and initializes an empty list.
+     *
+     * @param capacity The capacity of the list
+     * @param shardCount The number of shards to spread the entries over
+     */
+    public StripedFrontBackCappedList(int capacity, int shardCount) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than zero.");
+        }
+
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        Shard<T>[] tempShards = (Shard<T>[]) new Shard<?>[shardCount];  // Unchecked
+        shards = tempShards;
+        for (int index = 0; index < shardCount; index++) {
+            shards[index] = new Shard<>();
+        }
+        this.capacity = capacity;
+        origin = System.nanoTime();
+        spreadQuotas();
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry to the beginning of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        return add(newEntry, true);
+    }
+
+
+    /**
+     * Adds an entry to the end of the list if it is not full.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if list is full.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        return add(newEntry, false);
+    }
+
+
+    /**
+     * Removes the entry with the lowest sequence number of all shards, if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        lockAll();
+        try {
+            int shard = frontShard();
+            return (shard < 0) ? null : shards[shard].removeFirst();
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Removes the entry with the highest sequence number of all shards, if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        lockAll();
+        try {
+            int shard = backShard();
+            return (shard < 0) ? null : shards[shard].removeLast();
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the beginning of the list in one merge of the shards.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeFront would have returned them.
+     */
+    @Override
+    public List<T> removeFront(int count) {
+        checkInitialization();
+        lockAll();
+        try {
+            List<T> removed = new ArrayList<>(Math.max(0, Math.min(count, lockedSize())));
+            for (int shard = frontShard(); removed.size() < count && shard >= 0; shard = frontShard()) {
+                removed.add(shards[shard].removeFirst());
+            }
+            return removed;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Removes up to the given number of entries from the end of the list in one merge of the shards.
+     *
+     * @param count The number of entries to remove.
+     * @return The removed entries, in the order repeated calls to removeBack would have returned them.
+     */
+    @Override
+    public List<T> removeBack(int count) {
+        checkInitialization();
+        lockAll();
+        try {
+            List<T> removed = new ArrayList<>(Math.max(0, Math.min(count, lockedSize())));
+            for (int shard = backShard(); removed.size() < count && shard >= 0; shard = backShard()) {
+                removed.add(shards[shard].removeLast());
+            }
+            return removed;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Removes every entry and passes each one, in merged order from front to back, to the action. The shards stay
+     * locked until every entry has been passed on, so the action must not use this list.
+     *
+     * @param action The action to perform on each removed entry.
+     * @return The number of entries removed.
+     */
+    public int drain(Consumer<? super T> action) {
+        checkInitialization();
+        lockAll();
+        try {
+            int removed = 0;
+            for (int shard = frontShard(); shard >= 0; shard = frontShard()) {
+                action.accept(shards[shard].removeFirst());
+                removed++;
+            }
+            return removed;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Removes all entries from the list and spreads the capacity evenly over the shards again.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+        lockAll();
+        try {
+            for (Shard<T> shard : shards) {
+                shard.clear();
+            }
+            spreadQuotas();
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in the list. The shards are merged up to that position.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        lockAll();
+        try {
+            T result = null;
+            if (givenPosition >= 0 && givenPosition < lockedSize()) {
+                int[] cursors = new int[shards.length];
+                for (int position = 0; position < givenPosition; position++) {
+                    cursors[nextShard(cursors)]++;
+                }
+                int shard = nextShard(cursors);
+                result = shards[shard].entryAt(cursors[shard]);
+            }
+            return result;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        lockAll();
+        try {
+            Object[] entries = mergedEntries();
+            int position = -1;
+
+            // Searching from front of list
+            for (int index = 0; (position < 0) && (index < entries.length); index++) {
+                if (anEntry.equals(entries[index])) {
+                    position = index;
+                }
+            }
+
+            return position;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        lockAll();
+        try {
+            Object[] entries = mergedEntries();
+            int position = -1;
+
+            // Searching from back of list
+            for (int index = entries.length - 1; (position < 0) && (index >= 0); index--) {
+                if (anEntry.equals(entries[index])) {
+                    position = index;
+                }
+            }
+
+            return position;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Determines whether an entry is in the list. Order does not matter here, so each shard is searched on its own
+     * while holding only that shard's lock.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        checkInitialization();
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                for (int index = 0; index < shard.size; index++) {
+                    if (anEntry.equals(shard.entryAt(index))) {
+                        return true;
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Retrieves length of list by adding up the shard sizes without locking. Exact only while no other thread is
+     * changing the list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard<T> shard : shards) {
+            size += shard.size;
+        }
+        return size;
+    }
+
+
+    /**
+     * Determines if the list is empty. Exact only while no other thread is changing the list.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (size() == 0);
+    }
+
+
+    /**
+     * Determines if the list is full. Exact only while no other thread is changing the list.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (size() >= capacity);
+    }
+
+
+    /**
+     * Performs an action on each entry, in merged order from front to back, while holding every shard's lock.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+        lockAll();
+        try {
+            int[] cursors = new int[shards.length];
+            for (int shard = nextShard(cursors); shard >= 0; shard = nextShard(cursors)) {
+                action.accept(shards[shard].entryAt(cursors[shard]++));
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Takes a read-only copy of the entries in merged order, holding every shard's lock only while copying.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+        lockAll();
+        try {
+            // The cast is safe because the merged array only holds entries of this list
+            @SuppressWarnings("unchecked")
+            T[] entries = (T[]) mergedEntries(); // Unchecked cast
+            return new SnapshotFrontBackCappedList<>(entries, 0, entries.length,
+                    (entries.length >= capacity) ? capacity : -1);
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Creates a spliterator over a snapshot of the list, so it can be traversed and split without locking.
+     *
+     * @return A spliterator over the entries.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return snapshot().spliterator();
+    }
+
+
+    /**
+     * Retrieves the number of shards the entries are spread over.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        lockAll();
+        try {
+            return "size=" + lockedSize() + "; capacity=" + capacity + ";\t" + Arrays.toString(mergedEntries());
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("StripedFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Adds an entry to a shard that is under its quota. The first free shard from the thread's home shard on is
+     * tried; if none is free the thread waits for its home shard. If that shard is at its quota, every shard is
+     * locked and the entry goes to the shard given the most unused quota.
+     *
+     * @param newEntry The object to be added.
+     * @param atFront Whether to add it before or after every entry.
+     * @return True if the entry was added; otherwise, returns false if every shard is at its quota.
+     */
+    private boolean add(T newEntry, boolean atFront) {
+        checkInitialization();
+        int home = homeShard();
+        Shard<T> shard = null;
+        for (int probe = 0; shard == null && probe < shards.length; probe++) {
+            Shard<T> candidate = shards[(home + probe) % shards.length];
+            if (candidate.lock.tryLock()) {
+                shard = candidate;
+            }
+        }
+        if (shard == null) {
+            shard = shards[home];
+            shard.lock.lock();
+        }
+
+        try {
+            if (shard.size < shard.quota) {
+                shard.add(newEntry, atFront, clock());
+                return true;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        return addRebalancing(newEntry, atFront);
+    }
+
+
+    /**
+     * Adds an entry while holding every shard's lock, moving half of the largest unused quota to the shard that
+     * receives it. Called when the shard an adder picked was at its quota.
+     *
+     * @param newEntry The object to be added.
+     * @param atFront Whether to add it before or after every entry.
+     * @return True if the entry was added; otherwise, returns false if every shard is at its quota.
+     */
+    private boolean addRebalancing(T newEntry, boolean atFront) {
+        lockAll();
+        try {
+            Shard<T> target = shards[homeShard()];
+            Shard<T> donor = target;
+            for (Shard<T> shard : shards) {
+                if (shard.quota - shard.size > donor.quota - donor.size) {
+                    donor = shard;
+                }
+            }
+
+            int spare = donor.quota - donor.size;
+            if (spare <= 0) {
+                return false;
+            }
+            if (donor != target && target.size >= target.quota) {
+                int moved = (spare + 1) / 2;
+                donor.quota -= moved;
+                target.quota += moved;
+            } else {
+                target = donor;
+            }
+            // Numbered past every shard, so the entry is ordered after (or before) everything already added
+            long now = clock();
+            for (Shard<T> shard : shards) {
+                now = Math.max(now, Math.max(shard.lastBackStamp + 1, -shard.lastFrontStamp));
+            }
+            target.add(newEntry, atFront, now);
+            return true;
+        } finally {
+            unlockAll();
+        }
+    }
+
+
+    /**
+     * Gives each shard an equal part of the capacity as its quota. Must be called with every shard empty and
+     * locked, or before the list is shared.
+     */
+    private void spreadQuotas() {
+        for (int index = 0; index < shards.length; index++) {
+            shards[index].quota = capacity / shards.length + ((index < capacity % shards.length) ? 1 : 0);
+        }
+    }
+
+
+    /**
+     * Picks the shard a thread adds to first, so each thread keeps to one shard.
+     *
+     * @return The index of the calling thread's home shard.
+     */
+    private int homeShard() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash >>> 1) % shards.length;
+    }
+
+
+    /**
+     * Reads the clock that sequence numbers follow.
+     *
+     * @return Nanoseconds since the list was created.
+     */
+    private long clock() {
+        return System.nanoTime() - origin;
+    }
+
+
+    /**
+     * Locks every shard, in index order so two threads locking all shards never deadlock.
+     */
+    private void lockAll() {
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+        }
+    }
+
+
+    /**
+     * Unlocks every shard locked by lockAll.
+     */
+    private void unlockAll() {
+        for (int index = shards.length - 1; index >= 0; index--) {
+            shards[index].lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds up the shard sizes. Must be called while holding every shard's lock.
+     *
+     * @return The exact number of entries.
+     */
+    private int lockedSize() {
+        int size = 0;
+        for (Shard<T> shard : shards) {
+            size += shard.size;
+        }
+        return size;
+    }
+
+
+    /**
+     * Finds the shard holding the front entry of the list. Must be called while holding every shard's lock.
+     *
+     * @return The index of the shard whose first entry has the lowest sequence number, or -1 if all are empty.
+     */
+    private int frontShard() {
+        int result = -1;
+        for (int index = 0; index < shards.length; index++) {
+            Shard<T> shard = shards[index];
+            if (shard.size > 0 && (result < 0 || shard.stampAt(0) < shards[result].stampAt(0))) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Finds the shard holding the back entry of the list. Must be called while holding every shard's lock.
+     *
+     * @return The index of the shard whose last entry has the highest sequence number, or -1 if all are empty.
+     */
+    private int backShard() {
+        int result = -1;
+        for (int index = 0; index < shards.length; index++) {
+            Shard<T> shard = shards[index];
+            if (shard.size > 0
+                    && (result < 0 || shard.stampAt(shard.size - 1) >= shards[result].stampAt(shards[result].size - 1))) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Finds the shard holding the next entry of a merge, given how far the merge has got in each shard. Must be
+     * called while holding every shard's lock.
+     *
+     * @param cursors The number of entries of each shard already merged.
+     * @return The index of the shard whose next entry has the lowest sequence number, or -1 if the merge is done.
+     */
+    private int nextShard(int[] cursors) {
+        int result = -1;
+        for (int index = 0; index < shards.length; index++) {
+            Shard<T> shard = shards[index];
+            if (cursors[index] < shard.size
+                    && (result < 0 || shard.stampAt(cursors[index]) < shards[result].stampAt(cursors[result]))) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Copies every entry, in merged order, into a new array. Must be called while holding every shard's lock.
+     *
+     * @return The entries from front to back.
+     */
+    private Object[] mergedEntries() {
+        Object[] entries = new Object[lockedSize()];
+        int[] cursors = new int[shards.length];
+        for (int position = 0; position < entries.length; position++) {
+            int shard = nextShard(cursors);
+            entries[position] = shards[shard].entryAt(cursors[shard]++);
+        }
+        return entries;
+    }
+
+    /*
+    ****************
+    NESTED CLASSES:
+    ****************
+    */
+
+    /**
+     * One shard: a circular array of entries with a parallel array of their sequence numbers, and the lock that
+     * guards both. The arrays start small and double as the shard fills, up to its quota. The unused long fields
+     * keep the sizes of neighbouring shards, which threads on other cores read, off each other's cache lines.
+     */
+    @SuppressWarnings("unused")
+    private static final class Shard<T> {
+        private long p01, p02, p03, p04, p05, p06, p07, p08;
+        private final ReentrantLock lock = new ReentrantLock();
+        private T[] entries;
+        private long[] stamps;
+        private int head;
+        private volatile int size;
+        private int quota;
+        private long lastBackStamp = -1;
+        private long lastFrontStamp = 0;
+        private long p11, p12, p13, p14, p15, p16, p17, p18;
+
+        private Shard() {
+            // The cast is safe because the new array contains null entries
+            @SuppressWarnings("unchecked")
+            T[] tempEntries = (T[]) new Object[0];  // Unchecked
+            entries = tempEntries;
+            stamps = new long[0];
+        }
+
+        /**
+         * Adds an entry at the front or back, giving it a sequence number past every one this shard has given
+         * out at that end. The caller holds the lock and has checked the quota.
+         */
+        private void add(T newEntry, boolean atFront, long now) {
+            if (size == entries.length) {
+                grow();
+            }
+            if (atFront) {
+                lastFrontStamp = Math.min(lastFrontStamp - 1, -now - 1);
+                head = (head == 0) ? entries.length - 1 : head - 1;
+                entries[head] = newEntry;
+                stamps[head] = lastFrontStamp;
+            } else {
+                lastBackStamp = Math.max(lastBackStamp + 1, now);
+                int index = physicalIndex(size);
+                entries[index] = newEntry;
+                stamps[index] = lastBackStamp;
+            }
+            size++;
+        }
+
+        private T removeFirst() {
+            T result = entries[head];
+            entries[head] = null;
+            head = (head + 1 == entries.length) ? 0 : head + 1;
+            size--;
+            return result;
+        }
+
+        private T removeLast() {
+            int index = physicalIndex(size - 1);
+            T result = entries[index];
+            entries[index] = null;
+            size--;
+            return result;
+        }
+
+        private void clear() {
+            Arrays.fill(entries, null);
+            head = 0;
+            size = 0;
+        }
+
+        private T entryAt(int position) {
+            return entries[physicalIndex(position)];
+        }
+
+        private long stampAt(int position) {
+            return stamps[physicalIndex(position)];
+        }
+
+        private int physicalIndex(int position) {
+            int index = head + position;
+            return (index >= entries.length) ? index - entries.length : index;
+        }
+
+        /**
+         * Doubles the arrays, without going past the quota, and moves the entries to the start in order.
+         */
+        private void grow() {
+            int length = (int) Math.min(quota, Math.max(INITIAL_SHARD_LENGTH, 2L * entries.length));
+            int firstRun = Math.min(size, entries.length - head);
+            T[] newEntries = Arrays.copyOf(entries, length);
+            long[] newStamps = new long[length];
+            System.arraycopy(entries, head, newEntries, 0, firstRun);
+            System.arraycopy(entries, 0, newEntries, firstRun, size - firstRun);
+            System.arraycopy(stamps, head, newStamps, 0, firstRun);
+            System.arraycopy(stamps, 0, newStamps, firstRun, size - firstRun);
+            Arrays.fill(newEntries, size, length, null);
+            entries = newEntries;
+            stamps = newStamps;
+            head = 0;
+        }
+    }
+
+}
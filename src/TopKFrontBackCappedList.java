@@ -0,0 +1,618 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+public class TopKFrontBackCappedList<T> implements FrontBackCappedListInterface<T> {
+
+/**
+ * A class that implements the ADT list capped to a given capacity that keeps the best entries seen rather than the
+ * first or last ones. Entries are ordered by a Comparator from best to worst: an entry that compares less is
+ * better, so the front of the list is the best entry and the back is the worst.
+ *
+ * The entries are held in a min-max heap, in which the even levels are ordered best-first and the odd levels
+ * worst-first. The best entry is at the root and the worst is one of its two children, so peekBest and peekWorst
+ * take constant time, and adding an entry or removing the best or worst takes logarithmic time. When the list is
+ * full, an entry better than the worst displaces it; any other entry is rejected, so among equal entries the
+ * earlier ones are kept. A displaced entry is returned by push and reported to the eviction listener, if one is
+ * set, from the back position it had.
+ *
+ * addFront and addBack both insert in comparator order, and removeFront and removeBack remove the best and the
+ * worst entry. getEntry, indexOf, lastIndexOf, iteration, and toString read a sorted copy of the heap. The copy is
+ * built by sorting the heap the first time one of them is called, which takes O(n log n) time, and from then on
+ * every change keeps it in step: a binary search finds the entry's place and the entries after it shift by one, a
+ * copy of at most n references. So a list that is read by position pays that shift on each add and remove, and
+ * getEntry takes constant time even right after a change; a list that is never read that way pays nothing.
+ * indexOf and lastIndexOf binary-search the copy, so they assume that entries that are equal also compare as equal.
+ */
+
+    private final T[] heap;
+    private final Comparator<? super T> comparator;
+    private final T[] sorted;
+    private boolean sortedValid; // Whether sorted holds the entries in order; once it does, every change keeps it so
+    private int numberOfElements;
+    private EvictionListener<? super T> evictionListener;
+    private boolean initialized = false;
+
+    /**
+     * Creates and initializes an empty list that keeps the entries a comparator ranks best.
+     *
+     * @param capacity The capacity of the list
+     * @param comparator Orders entries from best to worst
+     */
+    public TopKFrontBackCappedList(int capacity, Comparator<? super T> comparator) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator must not be null.");
+        }
+
+        // The cast is safe because the new array contains null entries
+        @SuppressWarnings("unchecked")
+        T[] tempHeap = (T[]) new Object[capacity];  // Unchecked
+        heap = tempHeap;
+        sorted = tempHeap.clone();
+        this.comparator = comparator;
+        sortedValid = false;
+        numberOfElements = 0;
+        initialized = true;
+    }
+
+
+    /**
+     * Adds an entry in comparator order. Same as addBack.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if the list is full and the entry is no
+     *         better than the worst entry.
+     */
+    @Override
+    public boolean addFront(T newEntry) {
+        return push(newEntry) != newEntry;
+    }
+
+
+    /**
+     * Adds an entry in comparator order. If the list is full, the entry displaces the worst entry if it is better.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return True if the entry was added; otherwise, returns false if the list is full and the entry is no
+     *         better than the worst entry.
+     */
+    @Override
+    public boolean addBack(T newEntry) {
+        return push(newEntry) != newEntry;
+    }
+
+
+    /**
+     * Adds an entry in comparator order, displacing the worst entry if the list is full and the new entry is
+     * better.
+     *
+     * @param newEntry The object to be added as a new entry.
+     * @return The entry displaced to make room, the new entry itself if it was rejected, or null if there was room.
+     */
+    public T push(T newEntry) {
+        checkInitialization();
+        if (newEntry == null) {
+            throw new IllegalArgumentException("Entry must not be null.");
+        }
+        T result = null;
+
+        if (isFull()) {
+            if (isEmpty() || comparator.compare(newEntry, heap[worstIndex()]) >= 0) {
+                return newEntry;
+            }
+            result = removeAt(worstIndex());
+            if (evictionListener != null) {
+                evictionListener.evicted(result, numberOfElements); // The worst was last, before the removal
+            }
+        }
+
+        if (sortedValid) {
+            insertSorted(newEntry);
+        }
+        heap[numberOfElements] = newEntry;
+        numberOfElements++;
+        pushUp(numberOfElements - 1);
+
+        return result;
+    }
+
+
+    /**
+     * Removes the best entry if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeFront() {
+        checkInitialization();
+        return isEmpty() ? null : removeAt(0);
+    }
+
+
+    /**
+     * Removes the worst entry if the list is not empty.
+     *
+     * @return A reference to the removed entry or null if the list is empty.
+     */
+    @Override
+    public T removeBack() {
+        checkInitialization();
+        return isEmpty() ? null : removeAt(worstIndex());
+    }
+
+
+    /**
+     * Removes all entries from the list.
+     *
+     * Postcondition: List is empty with list size as 0.
+     */
+    @Override
+    public void clear() {
+        checkInitialization();
+
+        Arrays.fill(heap, 0, numberOfElements, null);
+        if (sortedValid) {
+            Arrays.fill(sorted, 0, numberOfElements, null);
+        }
+        numberOfElements = 0;
+    }
+
+
+    /**
+     * Retrieves the best entry without removing it.
+     *
+     * @return The best entry or null if the list is empty.
+     */
+    public T peekBest() {
+        checkInitialization();
+        return isEmpty() ? null : heap[0];
+    }
+
+
+    /**
+     * Retrieves the worst entry without removing it.
+     *
+     * @return The worst entry or null if the list is empty.
+     */
+    public T peekWorst() {
+        checkInitialization();
+        return isEmpty() ? null : heap[worstIndex()];
+    }
+
+
+    /**
+     * Retrieves the entry at a certain position in comparator order, after determining if the position is valid.
+     * The first call sorts a copy of the heap; later calls read that copy, which changes keep in order, so they
+     * take constant time.
+     *
+     * @param givenPosition An integer that indicates the position of the desired entry.
+     * @return A reference to the indicated entry or null if the index is out of bounds.
+     */
+    @Override
+    public T getEntry(int givenPosition) {
+        checkInitialization();
+        T result = null;
+
+        if (givenPosition >= 0 && givenPosition < numberOfElements) {
+            result = sortedEntries()[givenPosition];
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the first index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The first position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int indexOf(T anEntry) {
+        checkInitialization();
+        T[] entries = sortedEntries();
+        int position = -1;
+
+        // Searching from the first entry that compares equal
+        for (int index = firstNotBefore(entries, anEntry);
+                (position < 0) && (index < numberOfElements) && comparator.compare(entries[index], anEntry) == 0;
+                index++) {
+            if (anEntry.equals(entries[index])) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines the position in the list of a given entry. If the entry appears more than once, the last index
+     * is returned.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return The last position that the entry was found or -1 if the object is not found.
+     */
+    @Override
+    public int lastIndexOf(T anEntry) {
+        checkInitialization();
+        T[] entries = sortedEntries();
+        int position = -1;
+        int end = firstNotBefore(entries, anEntry);
+        while (end < numberOfElements && comparator.compare(entries[end], anEntry) == 0) {
+            end++;
+        }
+
+        // Searching back from the last entry that compares equal
+        for (int index = end - 1;
+                (position < 0) && (index >= 0) && comparator.compare(entries[index], anEntry) == 0;
+                index--) {
+            if (anEntry.equals(entries[index])) {
+                position = index;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Determines whether an entry is in the list.
+     *
+     * @param anEntry the object to search for in the list.
+     * @return True if the entry is in the list; otherwise, returns false if list is empty or entry is not found.
+     */
+    @Override
+    public boolean contains(T anEntry) {
+        return indexOf(anEntry) >= 0;
+    }
+
+
+    /**
+     * Retrieves length of list.
+     *
+     * @return Integer number of entries currently in the list.
+     */
+    @Override
+    public int size() {
+        return numberOfElements;
+    }
+
+
+    /**
+     * Determines if the list is empty.
+     *
+     * @return True if the list is empty; otherwise, returns false if the list contains one or more entries.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (numberOfElements == 0);
+    }
+
+
+    /**
+     * Determines if the list is full.
+     *
+     * @return True if the list is full; otherwise, returns false.
+     */
+    @Override
+    public boolean isFull() {
+        return (numberOfElements >= heap.length);
+    }
+
+
+    /**
+     * Performs an action on each entry, from best to worst.
+     *
+     * @param action The action to perform on each entry.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        checkInitialization();
+        T[] entries = sortedEntries();
+        for (int index = 0; index < numberOfElements; index++) {
+            action.accept(entries[index]);
+        }
+    }
+
+
+    /**
+     * Takes a read-only copy of the entries from best to worst.
+     *
+     * @return A read-only list of the current entries.
+     */
+    @Override
+    public FrontBackCappedListInterface<T> snapshot() {
+        checkInitialization();
+        T[] entries = Arrays.copyOf(sortedEntries(), numberOfElements);
+
+        return new SnapshotFrontBackCappedList<>(entries, 0, numberOfElements, isFull() ? heap.length : -1);
+    }
+
+
+    /**
+     * Registers the listener told about each entry displaced by a better one. The entry is reported at the back
+     * position, after it has left the heap and before the better entry is added.
+     *
+     * @param listener The listener to report displaced entries to, or null for none.
+     */
+    @Override
+    public void setEvictionListener(EvictionListener<? super T> listener) {
+        checkInitialization();
+        evictionListener = listener;
+    }
+
+
+    /**
+     * Determines whether entries only enter and leave the list at its ends, which they do not: an add puts its
+     * entry wherever the comparator ranks it.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean changesOnlyAtEnds() {
+        return false;
+    }
+
+
+    /**
+     * Retrieves the comparator that orders the entries.
+     *
+     * @return The comparator, which ranks better entries first.
+     */
+    public Comparator<? super T> getComparator() {
+        return comparator;
+    }
+
+
+    /**
+     * Retrieves number of entries and capacity of list.
+     *
+     * @return String representation of the list, with number of elements and capacity of the list.
+     */
+    @Override
+    public String toString() {
+        StringJoiner entries = new StringJoiner(", ", "[", "]");
+        forEach(entry -> entries.add(String.valueOf(entry)));
+
+        return "size=" + numberOfElements + "; capacity=" + heap.length + ";\t" + entries;
+    }
+
+    /*
+    ****************
+    PRIVATE METHODS:
+    ****************
+    */
+
+    /**
+     * Checks if list is properly initialized.
+     *
+     * @throws SecurityException if this object is not initialized.
+     */
+    private void checkInitialization() {
+        if (!initialized) {
+            throw new SecurityException("TopKFrontBackCappedList object is not initialized properly.");
+        }
+    }
+
+
+    /**
+     * Retrieves the entries in comparator order, sorting a copy of the heap the first time it is called.
+     *
+     * @return An array whose first numberOfElements slots hold the entries from best to worst.
+     */
+    private T[] sortedEntries() {
+        if (!sortedValid) {
+            System.arraycopy(heap, 0, sorted, 0, numberOfElements);
+            Arrays.sort(sorted, 0, numberOfElements, comparator);
+            sortedValid = true;
+        }
+        return sorted;
+    }
+
+
+    /**
+     * Inserts an entry into the sorted copy after every entry that compares equal to it. Must be called before
+     * numberOfElements counts the entry.
+     *
+     * @param newEntry The entry being added
+     */
+    private void insertSorted(T newEntry) {
+        int index = firstNotBefore(sorted, newEntry);
+        while (index < numberOfElements && comparator.compare(sorted[index], newEntry) == 0) {
+            index++;
+        }
+        System.arraycopy(sorted, index, sorted, index + 1, numberOfElements - index);
+        sorted[index] = newEntry;
+    }
+
+
+    /**
+     * Removes an entry from the sorted copy, finding that very object among the entries that compare equal to it.
+     * Must be called while numberOfElements still counts the entry.
+     *
+     * @param anEntry The entry being removed
+     */
+    private void removeSorted(T anEntry) {
+        int index = firstNotBefore(sorted, anEntry);
+        while (sorted[index] != anEntry) {
+            index++;
+        }
+        System.arraycopy(sorted, index + 1, sorted, index, numberOfElements - index - 1);
+        sorted[numberOfElements - 1] = null;
+    }
+
+
+    /**
+     * Finds the first position in sorted order whose entry does not compare less than a given entry.
+     *
+     * @param entries The entries in sorted order
+     * @param anEntry The entry to compare with
+     * @return The position, or numberOfElements if every entry compares less.
+     */
+    private int firstNotBefore(T[] entries, T anEntry) {
+        int low = 0;
+        int high = numberOfElements;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(entries[middle], anEntry) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * Finds the worst entry, which is the root if it has no children and otherwise the worse of its children.
+     * Must only be called when the list is not empty.
+     *
+     * @return The heap index of the worst entry.
+     */
+    private int worstIndex() {
+        if (numberOfElements <= 2) {
+            return numberOfElements - 1;
+        }
+        return (comparator.compare(heap[1], heap[2]) >= 0) ? 1 : 2;
+    }
+
+
+    /**
+     * Removes the entry at a heap index, moving the last entry into its place and restoring the heap order.
+     *
+     * @param index The heap index of the entry to remove
+     * @return The removed entry.
+     */
+    private T removeAt(int index) {
+        T result = heap[index];
+        if (sortedValid) {
+            removeSorted(result);
+        }
+        numberOfElements--;
+        T last = heap[numberOfElements];
+        heap[numberOfElements] = null;
+
+        if (index < numberOfElements) {
+            heap[index] = last;
+            pushDown(index);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Determines whether a heap index is on a level ordered best-first.
+     *
+     * @param index The heap index
+     * @return True for the even levels, counting the root as level 0.
+     */
+    private static boolean isBestLevel(int index) {
+        return (31 - Integer.numberOfLeadingZeros(index + 1)) % 2 == 0;
+    }
+
+
+    /**
+     * Moves a newly added entry up until the heap is ordered again.
+     *
+     * @param index The heap index of the new entry
+     */
+    private void pushUp(int index) {
+        if (index == 0) {
+            return;
+        }
+        int parent = (index - 1) / 2;
+        if (isBestLevel(index)) {
+            if (comparator.compare(heap[index], heap[parent]) > 0) {
+                swap(index, parent);
+                pushUpWhile(parent, 1);
+            } else {
+                pushUpWhile(index, -1);
+            }
+        } else {
+            if (comparator.compare(heap[index], heap[parent]) < 0) {
+                swap(index, parent);
+                pushUpWhile(parent, -1);
+            } else {
+                pushUpWhile(index, 1);
+            }
+        }
+    }
+
+
+    /**
+     * Moves an entry up its own kind of level, two levels at a time, while it is better (direction -1) or worse
+     * (direction 1) than its grandparent.
+     *
+     * @param index The heap index of the entry
+     * @param direction -1 on the best-first levels, 1 on the worst-first levels
+     */
+    private void pushUpWhile(int index, int direction) {
+        while (index > 2) {
+            int grandparent = ((index - 1) / 2 - 1) / 2;
+            if (Integer.signum(comparator.compare(heap[index], heap[grandparent])) != direction) {
+                break;
+            }
+            swap(index, grandparent);
+            index = grandparent;
+        }
+    }
+
+
+    /**
+     * Moves an entry down until the heap is ordered again, comparing it with its children and grandchildren.
+     *
+     * @param index The heap index of the entry
+     */
+    private void pushDown(int index) {
+        int direction = isBestLevel(index) ? -1 : 1;
+
+        while (2 * index + 1 < numberOfElements) {
+            // The most extreme of the children and grandchildren, in this level's direction
+            int extreme = 2 * index + 1;
+            int firstGrandchild = 4 * index + 3;
+            if (extreme + 1 < numberOfElements
+                    && Integer.signum(comparator.compare(heap[extreme + 1], heap[extreme])) == direction) {
+                extreme++;
+            }
+            int grandchildEnd = Math.min(numberOfElements, firstGrandchild + 4);
+            for (int candidate = firstGrandchild; candidate < grandchildEnd; candidate++) {
+                if (Integer.signum(comparator.compare(heap[candidate], heap[extreme])) == direction) {
+                    extreme = candidate;
+                }
+            }
+
+            if (Integer.signum(comparator.compare(heap[extreme], heap[index])) != direction) {
+                return;
+            }
+            swap(extreme, index);
+            if (extreme < firstGrandchild) { // A child is on the other kind of level, so it is in place
+                return;
+            }
+            int parent = (extreme - 1) / 2;
+            if (Integer.signum(comparator.compare(heap[extreme], heap[parent])) == -direction) {
+                swap(extreme, parent);
+            }
+            index = extreme;
+        }
+    }
+
+
+    /**
+     * Swaps two heap slots.
+     *
+     * @param first The heap index of one slot
+     * @param second The heap index of the other slot
+     */
+    private void swap(int first, int second) {
+        T temp = heap[first];
+        heap[first] = heap[second];
+        heap[second] = temp;
+    }
+
+}
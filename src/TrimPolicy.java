@@ -0,0 +1,15 @@
+/**
+ * The ends a capped list can drop entries from when its capacity is lowered below its size.
+ */
+public enum TrimPolicy {
+
+	/** Entries are removed from the beginning of the list, keeping the entries at the end. */
+	DROP_FRONT,
+
+	/** Entries are removed from the end of the list, keeping the entries at the beginning. */
+	DROP_BACK;
+
+	public String toString() {
+		return super.toString().toLowerCase();
+	}
+}